@@ -16,7 +16,24 @@ public enum Arguments {
     CHECK("check", false),
     TRANSLATE("translate", false),
     TRACE("trace", false),
-    TOC("toc",false);
+    TOC("toc",false),
+    ENGINE("engine", true),
+    THRESHOLD("threshold", true),
+    PREFIX("prefix", true),
+    OPTIMIZATION("O", true),
+    PASSES("passes", true),
+    CELLS("cells", true),
+    TAPE("tape", true),
+    SIZE("size", true),
+    MAP("map", true),
+    CHECKPOINT("checkpoint", true),
+    CHECKPOINT_STEPS("checkpoint-steps", true),
+    CHECKPOINT_SECONDS("checkpoint-seconds", true),
+    RESUME("resume", true),
+    MEMO("memo", true),
+    BUFFER("buffer", true),
+    FLUSH("flush", true),
+    RAW("raw", false);
 
 
     String expression;
@@ -1,16 +1,28 @@
 package mcga.brainfuck;
 
 
+import mcga.brainfuck.engine.Checkpoint;
+import mcga.brainfuck.engine.Checkpointer;
+import mcga.brainfuck.engine.Engine;
 import mcga.brainfuck.exceptions.BrainfuckException;
 import mcga.brainfuck.instructions.Input;
+import mcga.brainfuck.optimization.PassManager;
 import mcga.brainfuck.processing.*;
 import mcga.brainfuck.processing.Parser;
+import mcga.brainfuck.tape.MappedTape;
+import mcga.brainfuck.tape.OffHeapTape;
+import mcga.brainfuck.tape.PagedTape;
+import mcga.brainfuck.tape.Tape;
 import org.apache.commons.cli.*;
 
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static mcga.brainfuck.Arguments.*;
@@ -22,11 +34,18 @@ import static mcga.brainfuck.Arguments.*;
  * @author Team Make Coding Great Again
  */
 public class Brainfuck {
-
+    private static final Arguments[] EXECUTION_OPTIONS = {ENGINE, THRESHOLD, OPTIMIZATION, PASSES, PREFIX, MEMO,
+            CHECKPOINT, CHECKPOINT_STEPS, CHECKPOINT_SECONDS, RESUME};
     private static Interpreter interpreter;
     private static Memory memory = new Memory();
     private static List<Parser> parsers = new ArrayList<>();
     private static PrintStream mainOutput = System.out;
+
+    static {
+        // A single hook writes the output still buffered when the program exits, whichever sink is the current one.
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> getMainOutput().flush()));
+    }
+
     public static Memory getMemory() {
         return memory;
     }
@@ -59,6 +78,8 @@ public class Brainfuck {
 
     private static void readArguments(String[] args) throws BrainfuckException {
         Input.stream = System.in;
+        parsers.clear();
+        interpreter = null;
         Options options = createOptions();
         CommandLineParser commandParser = new DefaultParser();
         try {
@@ -107,28 +128,223 @@ public class Brainfuck {
                     Brainfuck.interpreter = interpreter;
                 }
             }
+            if (!parsers.isEmpty() && interpreter == null) {
+                for (Arguments argument : EXECUTION_OPTIONS) {
+                    if (line.hasOption(argument.expression)) {
+                        throw new ParseException("The " + argument.expression
+                                + " option needs the program to be executed, not only checked, rewritten or translated");
+                    }
+                }
+            }
             if (line.hasOption(INPUT.expression)) {
                 Input.stream = new FileInputStream(line.getOptionValue(INPUT.expression));
             }
-            if (line.hasOption(OUTPUT.expression)) {
-                mainOutput = new PrintStream(line.getOptionValue(OUTPUT.expression));
-            }
+            mainOutput.flush();
+            mainOutput = createOutput(line);
             if (parsers.isEmpty()) {
                 Interpreter interpreter = new Interpreter();
                 parsers.add(interpreter);
                 Brainfuck.interpreter = interpreter;
             }
+            if (line.hasOption(CELLS.expression) || line.hasOption(TAPE.expression) || line.hasOption(SIZE.expression)
+                    || line.hasOption(MAP.expression)) {
+                memory = new Memory(createTape(line));
+            }
+            if (line.hasOption(ENGINE.expression)) {
+                Engine engine = Engine.fromExpression(line.getOptionValue(ENGINE.expression));
+                if (engine == null) {
+                    throw new ParseException("Unknown engine " + line.getOptionValue(ENGINE.expression));
+                }
+                interpreter.setEngine(engine);
+            }
+            if (line.hasOption(THRESHOLD.expression)) {
+                int threshold = -1;
+                try {
+                    threshold = Integer.parseInt(line.getOptionValue(THRESHOLD.expression));
+                } catch (NumberFormatException e) {
+                    // reported below
+                }
+                if (threshold < 0) {
+                    throw new ParseException("Invalid threshold " + line.getOptionValue(THRESHOLD.expression));
+                }
+                interpreter.setThreshold(threshold);
+            }
+            if (line.hasOption(OPTIMIZATION.expression)) {
+                int level = -1;
+                try {
+                    level = Integer.parseInt(line.getOptionValue(OPTIMIZATION.expression));
+                } catch (NumberFormatException e) {
+                    // reported below
+                }
+                if (level < 0 || level > PassManager.MAX_LEVEL) {
+                    throw new ParseException("Invalid optimization level " + line.getOptionValue(OPTIMIZATION.expression));
+                }
+                interpreter.setOptimizationLevel(level);
+            }
+            if (line.hasOption(PASSES.expression)) {
+                try {
+                    interpreter.setPassManager(PassManager.forNames(Arrays.asList(line.getOptionValue(PASSES.expression).split(","))));
+                } catch (IllegalArgumentException e) {
+                    throw new ParseException(e.getMessage());
+                }
+            }
+            if (line.hasOption(PREFIX.expression)) {
+                long budget = -1;
+                try {
+                    budget = Long.parseLong(line.getOptionValue(PREFIX.expression));
+                } catch (NumberFormatException e) {
+                    // reported below
+                }
+                if (budget < 0) {
+                    throw new ParseException("Invalid prefix budget " + line.getOptionValue(PREFIX.expression));
+                }
+                interpreter.setPrefixBudget(budget);
+            }
+            if (line.hasOption(MEMO.expression)) {
+                int memoSize = -1;
+                try {
+                    memoSize = Integer.parseInt(line.getOptionValue(MEMO.expression));
+                } catch (NumberFormatException e) {
+                    // reported below
+                }
+                if (memoSize < 0) {
+                    throw new ParseException("Invalid memo size " + line.getOptionValue(MEMO.expression));
+                }
+                interpreter.setMemoSize(memoSize);
+            }
+            if (line.hasOption(CHECKPOINT.expression) || line.hasOption(RESUME.expression)) {
+                if (!memory.hasIntCells()) {
+                    throw new ParseException("Checkpoints need an array of 32 bits cells");
+                }
+                if (line.hasOption(CHECKPOINT.expression)) {
+                    interpreter.setCheckpointer(createCheckpointer(line));
+                }
+                if (line.hasOption(RESUME.expression)) {
+                    interpreter.setCheckpoint(Checkpoint.read(line.getOptionValue(RESUME.expression)));
+                }
+            }
+            ParsedCode code = parsers.get(0).read();
             for (Parser parser : parsers) {
-                parser.parseFile();
+                parser.process(code);
             }
+            memory.getTape().flush();
         } catch (ParseException exp) {
             System.err.println("Parsing failed.  Error : " + exp.getMessage());
-        } catch (FileNotFoundException e) {
+        } catch (IOException e) {
             System.err.println(e.getMessage());
             System.exit(3);
         }
     }
     
+    /**
+     * Creates the output selected by the -o, --buffer, --flush and --raw options: a buffer written in chunks to the
+     * file, or to the standard output. It is written before an input is read, unless the input is a file.
+     *
+     * @param line parsed command line
+     * @return output of the program
+     * @throws ParseException        if the size of the buffer or the interval is invalid
+     * @throws FileNotFoundException if the file of the -o option cannot be created
+     */
+    private static OutputSink createOutput(CommandLine line) throws ParseException, FileNotFoundException {
+        int size = OutputSink.DEFAULT_SIZE;
+        long interval = 0;
+        try {
+            if (line.hasOption(BUFFER.expression)) {
+                size = Integer.parseInt(line.getOptionValue(BUFFER.expression));
+            }
+            if (line.hasOption(FLUSH.expression)) {
+                interval = Long.parseLong(line.getOptionValue(FLUSH.expression));
+            }
+        } catch (NumberFormatException e) {
+            throw new ParseException("Invalid number " + e.getMessage());
+        }
+        if (size <= 0) {
+            throw new ParseException("Invalid buffer size " + size);
+        }
+        if (interval < 0) {
+            throw new ParseException("Invalid flush interval " + interval);
+        }
+        OutputStream target = line.hasOption(OUTPUT.expression)
+                ? new FileOutputStream(line.getOptionValue(OUTPUT.expression)) : System.out;
+        return new OutputSink(target, size, line.hasOption(RAW.expression), !line.hasOption(INPUT.expression), interval);
+    }
+
+    /**
+     * Creates the checkpointer selected by the --checkpoint, --checkpoint-steps and --checkpoint-seconds options.
+     *
+     * @param line parsed command line
+     * @return checkpointer writing to the file of the --checkpoint option
+     * @throws ParseException if an interval is invalid
+     */
+    private static Checkpointer createCheckpointer(CommandLine line) throws ParseException {
+        long steps = 0;
+        long seconds = 0;
+        try {
+            if (line.hasOption(CHECKPOINT_STEPS.expression)) {
+                steps = Long.parseLong(line.getOptionValue(CHECKPOINT_STEPS.expression));
+            }
+            if (line.hasOption(CHECKPOINT_SECONDS.expression)) {
+                seconds = Long.parseLong(line.getOptionValue(CHECKPOINT_SECONDS.expression));
+            }
+        } catch (NumberFormatException e) {
+            throw new ParseException("Invalid number " + e.getMessage());
+        }
+        if (steps < 0 || seconds < 0) {
+            throw new ParseException("Invalid checkpoint interval");
+        }
+        return new Checkpointer(line.getOptionValue(CHECKPOINT.expression), steps, seconds * 1000);
+    }
+
+    /**
+     * Creates the tape selected by the --tape, --cells, --size and --map options: an array of cells of the given
+     * width, or a paged, off-heap or file mapped tape of 32 bits cells. --map alone selects the file mapped tape.
+     *
+     * @param line parsed command line
+     * @return tape of the memory
+     * @throws ParseException if an option has an invalid value
+     * @throws IOException    if the file of a mapped tape cannot be mapped
+     */
+    private static Tape createTape(CommandLine line) throws ParseException, IOException {
+        int width = Tape.DEFAULT_WIDTH;
+        int size = Memory.MAX_SIZE;
+        try {
+            if (line.hasOption(CELLS.expression)) {
+                width = Integer.parseInt(line.getOptionValue(CELLS.expression));
+            }
+            if (line.hasOption(SIZE.expression)) {
+                size = Integer.parseInt(line.getOptionValue(SIZE.expression));
+            }
+        } catch (NumberFormatException e) {
+            throw new ParseException("Invalid number " + e.getMessage());
+        }
+        if (size <= 0) {
+            throw new ParseException("Invalid tape size " + size);
+        }
+        String kind = line.getOptionValue(TAPE.expression, line.hasOption(MAP.expression) ? "mapped" : "array");
+        if (!kind.equals("array") && width != 32) {
+            throw new ParseException("A " + kind + " tape stores 32 bits cells");
+        }
+        switch (kind) {
+            case "array":
+                try {
+                    return Tape.create(width, size);
+                } catch (IllegalArgumentException e) {
+                    throw new ParseException("Invalid cell width " + width);
+                }
+            case "paged":
+                return new PagedTape(size);
+            case "offheap":
+                return new OffHeapTape(size);
+            case "mapped":
+                if (!line.hasOption(MAP.expression)) {
+                    throw new ParseException("A mapped tape needs a file, given by --map");
+                }
+                return new MappedTape(line.getOptionValue(MAP.expression), size);
+            default:
+                throw new ParseException("Unknown tape " + kind);
+        }
+    }
+
     public static PrintStream getMainOutput() {
         return mainOutput;
     }
@@ -136,4 +352,8 @@ public class Brainfuck {
     public static Interpreter getInterpreter() {
         return interpreter;
     }
+    
+    public static void setInterpreter(Interpreter interpreter) {
+        Brainfuck.interpreter = interpreter;
+    }
 }
\ No newline at end of file
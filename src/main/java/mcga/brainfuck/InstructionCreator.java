@@ -123,37 +123,8 @@ public enum InstructionCreator {
      */
     public static Instruction createInstruction(String s) throws InvalidCodeException {
         InstructionCreator inst = getInstruction(s);
-        Instruction instruction;
         if (inst != null) {
-            switch (inst) {
-                case INCR:
-                    instruction = new Increment();
-                    break;
-                case DECR:
-                    instruction = new Decrement();
-                    break;
-                case LEFT:
-                    instruction = new Left();
-                    break;
-                case RIGHT:
-                    instruction = new Right();
-                    break;
-                case JUMP:
-                    instruction = new Jump();
-                    break;
-                case BACK:
-                    instruction = new Back();
-                    break;
-                case IN:
-                    instruction = new Input();
-                    break;
-                case OUT:
-                    instruction = new Output();
-                    break;
-                default:
-                    throw new InvalidInstructionException(s);
-            }
-            return instruction;
+            return inst.create();
         } else {
             Matcher matcher = patternProc.matcher(s);
             if (matcher.find()) {
@@ -176,6 +147,33 @@ public enum InstructionCreator {
         throw new InvalidInstructionException(s);
     }
     
+    /**
+     * Creates the Instruction object corresponding to this instruction.
+     *
+     * @return new Instruction
+     * @throws InvalidCodeException if a bracket is closed without having been opened
+     */
+    public Instruction create() throws InvalidCodeException {
+        switch (this) {
+            case INCR:
+                return new Increment();
+            case DECR:
+                return new Decrement();
+            case LEFT:
+                return new Left();
+            case RIGHT:
+                return new Right();
+            case JUMP:
+                return new Jump();
+            case BACK:
+                return new Back();
+            case IN:
+                return new Input();
+            default:
+                return new Output();
+        }
+    }
+
     /**
      * Searches for the short syntax representation corresponding to a long syntax representation.
      *
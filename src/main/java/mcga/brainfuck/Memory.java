@@ -3,13 +3,22 @@ package mcga.brainfuck;
 import mcga.brainfuck.exceptions.BrainfuckIndexOutOfBoundsException;
 import mcga.brainfuck.exceptions.InvalidValueException;
 import mcga.brainfuck.instructions.Procedure;
+import mcga.brainfuck.tape.IntTape;
+import mcga.brainfuck.tape.Tape;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.Arrays;
 import java.util.StringJoiner;
 
 /**
  * Creates the memory and contains all the methods used to deal with it.
+ * The cells are stored in a {@link Tape}, whose width decides how the values behave.
+ * The range of the cells written so far is kept, so that the dumps and the search of the last used cell only go
+ * through it, and the cells written since the last call to {@link #changesToString()} can be recorded for the
+ * trace. The array returned by {@link #getCells()} being written directly, the whole memory is then considered
+ * written, unless it is taken with {@link #openCells()} by an engine which tells the highest cell it reaches.
+ * The calls in progress are kept on a stack of frames, each one being the procedure called, the index of the
+ * current cell when it was called and the bounds of the cells it was given, so that a procedure may be active
+ * several times at once.
  *
  * @author Team Make Coding Great Again
  */
@@ -19,15 +28,40 @@ public class Memory {
     public static final int MAX_SIZE = 30000;
     public static final String NOT_ENOUGH_MESSAGE = "Pas assez de cases memoire pour appeler la fonction";
     public static final int NOT_ENOUGH_CODE = 18;
+    private static final int FRAME_FIELDS = 3;
     private int currentIndex = 0;
-    private int[] memoire;
-    private Deque<Procedure> procedureStack = new ArrayDeque<>();
+    private Tape memoire;
+    private Procedure[] frameProcedures = new Procedure[16];
+    private int[] frames = new int[16 * FRAME_FIELDS];
+    private int frameCount = 0;
+    private int lowestWritten = Integer.MAX_VALUE;
+    private int highestWritten = -1;
+    private boolean recordChanges = false;
+    private int[] changes = new int[16];
+    private int changeCount = 0;
+    private boolean allChanged = false;
+    private boolean checksBounds = true;
+    private int frameBase = -1;
 
     /**
-     * Constructor of the class Memory.
+     * Constructor of the class Memory, whose {@link #MAX_SIZE} cells are the checked 32 bits ones.
      */
     public Memory() {
-        this.memoire = new int[MAX_SIZE];
+        this(new IntTape(MAX_SIZE));
+    }
+
+    /**
+     * Constructor of the class Memory with the given cells.
+     *
+     * @param tape cells of the memory, which may already hold values
+     */
+    public Memory(Tape tape) {
+        this.memoire = tape;
+        int last = tape.lastNonZero(tape.size() - 1);
+        if (last >= 0) {
+            lowestWritten = 0;
+            highestWritten = last;
+        }
     }
 
     /**
@@ -44,25 +78,31 @@ public class Memory {
     }
 
     /**
-     * Checks if the parameter i is between 0 and 255.
+     * Checks if the cell exists int the memory.
      *
-     * @param i value in a memory cell.
-     * @return true if i is between the values, false otherwise.
+     * @param i size of the current cell.
+     * @return true if it exists, false otherwise.
      */
-    private boolean isValidNumber(int i) {
-        return i >= MIN_CELL_VALUE && i <= MAX_CELL_VALUE;
+    private boolean isValidIndex(int i) {
+        return i >= getLowerBound() && i <= getUpperBound();
     }
 
     /**
-     * Checks if the cell exists int the memory.
+     * Gets the lowest index the pointer can reach, i.e. 0 or the start of the current procedure frame.
      *
-     * @param i size of the current cell.
-     * @return true if it exists, false otherwise.
+     * @return lowest valid index.
      */
-    private boolean isValidIndex(int i) {
-        if (procedureStack.isEmpty())
-            return i >= 0 && i < MAX_SIZE;
-        else return i >= procedureStack.peek().getStartIndex() && i <= procedureStack.peek().getEndIndex();
+    public int getLowerBound() {
+        return frameCount == 0 ? 0 : frames[(frameCount - 1) * FRAME_FIELDS + 1];
+    }
+
+    /**
+     * Gets the highest index the pointer can reach, i.e. the last cell or the end of the current procedure frame.
+     *
+     * @return highest valid index.
+     */
+    public int getUpperBound() {
+        return frameCount == 0 ? memoire.size() - 1 : frames[(frameCount - 1) * FRAME_FIELDS + 2];
     }
 
     /**
@@ -72,13 +112,28 @@ public class Memory {
      * @throws InvalidValueException if the value is invalid
      */
     public void addCurrentCellValue(int i) throws InvalidValueException {
-        int val = getCurrentCellValue();
-        if (isValidNumber(val + i)) {
-            memoire[currentIndex] = val + i;
-        } else {
-            throw new InvalidValueException(val + i);
-        }
+        memoire.add(currentIndex, i);
+        written(currentIndex);
+    }
 
+    /**
+     * Extends the range of the written cells to a cell, and records it if the changes are recorded.
+     *
+     * @param i index of the written cell
+     */
+    private void written(int i) {
+        if (i < lowestWritten) {
+            lowestWritten = i;
+        }
+        if (i > highestWritten) {
+            highestWritten = i;
+        }
+        if (recordChanges) {
+            if (changeCount == changes.length) {
+                changes = Arrays.copyOf(changes, changeCount * 2);
+            }
+            changes[changeCount++] = i;
+        }
     }
 
     /**
@@ -89,7 +144,7 @@ public class Memory {
      */
     public void changeCurrentIndex(int i) throws BrainfuckIndexOutOfBoundsException {
         int val = currentIndex;
-        if (!isValidIndex(val + i)) {
+        if (checksBounds && !isValidIndex(val + i)) {
             throw new BrainfuckIndexOutOfBoundsException(val + i);
         } else {
             currentIndex += i;
@@ -104,45 +159,273 @@ public class Memory {
     @Override
     public String toString() {
         StringJoiner joiner = new StringJoiner(" , ");
-        for (int i = 0; i < memoire.length; i++) {
-            if (memoire[i] != 0) {
-                joiner.add("C" + i + ": " + memoire[i]);
+        if (highestWritten >= 0) {
+            for (int i = memoire.nextNonZero(lowestWritten, highestWritten); i >= 0;
+                 i = i < highestWritten ? memoire.nextNonZero(i + 1, highestWritten) : -1) {
+                joiner.add("C" + i + ": " + memoire.get(i));
             }
         }
         return joiner.toString();
     }
 
+    /**
+     * Starts recording the cells written, for {@link #changesToString()}.
+     */
+    public void recordChanges() {
+        recordChanges = true;
+        changeCount = 0;
+        allChanged = false;
+    }
+
+    /**
+     * Returns a printable representation of the cells written since the previous call, or since the changes are
+     * recorded, with their current value, and forgets them. The whole memory is returned if its array has been
+     * handed out in between.
+     *
+     * @return String version of the written cells.
+     */
+    public String changesToString() {
+        if (allChanged) {
+            allChanged = false;
+            changeCount = 0;
+            return toString();
+        }
+        Arrays.sort(changes, 0, changeCount);
+        StringJoiner joiner = new StringJoiner(" , ");
+        for (int k = 0; k < changeCount; k++) {
+            if (k == 0 || changes[k] != changes[k - 1]) {
+                joiner.add("C" + changes[k] + ": " + memoire.get(changes[k]));
+            }
+        }
+        changeCount = 0;
+        return joiner.toString();
+    }
+
+    /**
+     * Gets the number of cells of the memory.
+     *
+     * @return number of cells
+     */
+    public int getSize() {
+        return memoire.size();
+    }
+
+    /**
+     * Gets the index of the last cell different from zero, after which the frames of the procedures are allocated.
+     *
+     * @return index of the cell, -1 if all the cells are zero
+     */
+    public int getLastUsedIndex() {
+        return highestWritten < 0 ? -1 : memoire.lastNonZero(highestWritten);
+    }
+
     /**
      * Gets the current cell value.
      *
      * @return value of the current cell.
      */
     public int getCurrentCellValue() {
-        return memoire[currentIndex];
+        return memoire.get(currentIndex);
+    }
+
+    /**
+     * Gets the array backing the memory, so that an engine can work on it directly.
+     *
+     * @return cells of the memory.
+     * @throws IllegalStateException if the cells are not the checked 32 bits ones
+     * @see #hasIntCells()
+     */
+    public int[] getCells() {
+        int[] cells = openCells();
+        highestWritten = memoire.size() - 1;
+        return cells;
+    }
+
+    /**
+     * Gets the array backing the memory for an engine which tells the highest cell it has reached through
+     * {@link #reached(int)} before it calls the memory again and when it returns, so that the range of the written
+     * cells only grows up to that cell.
+     *
+     * @return cells of the memory.
+     * @throws IllegalStateException if the cells are not the checked 32 bits ones
+     */
+    public int[] openCells() {
+        if (!hasIntCells()) {
+            throw new IllegalStateException("The cells of the memory are " + memoire.getWidth() + " bits wide");
+        }
+        lowestWritten = 0;
+        allChanged = recordChanges;
+        return ((IntTape) memoire).getCells();
+    }
+
+    /**
+     * Extends the range of the written cells to the highest cell reached by an engine working on the array
+     * returned by {@link #openCells()}.
+     *
+     * @param index index of the cell
+     */
+    public void reached(int index) {
+        if (index > highestWritten) {
+            highestWritten = index;
+        }
+    }
+
+    /**
+     * Checks if the cells are the checked 32 bits ones, which the compiled engines and the loop idioms work on.
+     *
+     * @return true if the cells are stored in an {@link IntTape}
+     */
+    public boolean hasIntCells() {
+        return memoire instanceof IntTape;
+    }
+
+    /**
+     * Checks if the moves of the pointer are checked, which they are unless a loop whose range is known to be
+     * within the bounds is running.
+     *
+     * @return true if a move out of the bounds is detected
+     */
+    public boolean checksBounds() {
+        return checksBounds;
+    }
+
+    public void setChecksBounds(boolean checksBounds) {
+        this.checksBounds = checksBounds;
+    }
+
+    public Tape getTape() {
+        return memoire;
     }
 
     /**
      * Sets the value of the current size to zero.
      */
     public void clearCurrentCell() {
-        memoire[currentIndex] = 0;
+        memoire.clear(currentIndex);
+        written(currentIndex);
     }
 
 
-    public Procedure peekProcedure() {
-        return procedureStack.peek();
+    /**
+     * Finds the cells of the frame of a call. A call from another one gets the cells following the frame of the
+     * caller; a call from the main program gets the cells following the last cell different from zero, so that
+     * every frame of the chain of calls sits above the cells of the main program. This cell is only searched for
+     * when a cell has been set since the frame previously allocated for such a call, which is checked up to the
+     * highest cell written, so that the cost of a call does not depend on the size of the memory. The cells
+     * following the frame being zero, the range of the written cells then ends below it.
+     *
+     * @param size number of cells of the frame
+     * @return index of the first cell of the frame, -1 if the memory is too small
+     */
+    public int allocateFrame(int size) {
+        int start;
+        if (frameCount == 0) {
+            start = frameBase;
+            if (start < 0 || start > memoire.size() - size
+                    || start <= highestWritten && memoire.nextNonZero(start, highestWritten) >= 0) {
+                start = frameBase = getLastUsedIndex() + 1;
+            }
+            highestWritten = Math.min(highestWritten, start - 1);
+        } else {
+            start = getUpperBound() + 1;
+        }
+        return memoire.size() - start < size ? -1 : start;
+    }
+
+    /**
+     * Sets the cells of the frame of a call to zero when it returns.
+     *
+     * @param start index of the first cell of the frame
+     * @param end   index of the last cell of the frame
+     */
+    public void freeFrame(int start, int end) {
+        memoire.clear(start, end);
+        if (recordChanges) {
+            for (int i = start; i <= end; i++) {
+                written(i);
+            }
+        } else {
+            written(start);
+            written(end);
+        }
+    }
+
+    /**
+     * Reads the cells of a window, without moving the pointer nor checking the bounds.
+     *
+     * @param base    index the offsets are relative to
+     * @param offsets offsets of the cells to read
+     * @param values  array receiving the values, in the order of the offsets
+     */
+    public void readCells(int base, int[] offsets, int[] values) {
+        for (int k = 0; k < offsets.length; k++) {
+            values[k] = memoire.get(base + offsets[k]);
+        }
+    }
+
+    /**
+     * Pushes the frame of a call, whose cells become the only ones the pointer can reach until it is popped.
+     *
+     * @param procedure procedure called
+     * @param prevIndex index of the current cell when the procedure was called
+     * @param start     index of the first cell of the frame
+     */
+    public void pushFrame(Procedure procedure, int prevIndex, int start) {
+        if (frameCount == frameProcedures.length) {
+            frameProcedures = Arrays.copyOf(frameProcedures, frameCount * 2);
+            frames = Arrays.copyOf(frames, frameCount * 2 * FRAME_FIELDS);
+        }
+        int frame = frameCount * FRAME_FIELDS;
+        frames[frame] = prevIndex;
+        frames[frame + 1] = start;
+        frames[frame + 2] = start + procedure.getSize() - 1;
+        frameProcedures[frameCount++] = procedure;
+    }
+
+    /**
+     * Pops the frame of the call which returns.
+     *
+     * @return index of the current cell when the procedure was called
+     */
+    public int popFrame() {
+        frameProcedures[--frameCount] = null;
+        return frames[frameCount * FRAME_FIELDS];
+    }
+
+    /**
+     * Pops the frames of all the calls in progress.
+     */
+    public void clearFrames() {
+        while (frameCount > 0) {
+            popFrame();
+        }
     }
 
-    public void pushProcedure(Procedure procedure) {
-        procedureStack.push(procedure);
+    public Procedure peekProcedure() {
+        return frameCount == 0 ? null : frameProcedures[frameCount - 1];
     }
 
-    public Procedure popProcedure() {
-        return procedureStack.pop();
+    public int getFrameCount() {
+        return frameCount;
     }
 
+    /**
+     * Gets the index of the current cell when a call in progress was made.
+     *
+     * @param frame index of the frame, 0 being the outermost call
+     * @return index of the cell
+     */
+    public int getFramePrevIndex(int frame) {
+        return frames[frame * FRAME_FIELDS];
+    }
 
-    public boolean isProcedureStackEmpty() {
-        return procedureStack.isEmpty();
+    /**
+     * Gets the index of the first cell of the frame of a call in progress.
+     *
+     * @param frame index of the frame, 0 being the outermost call
+     * @return index of the cell
+     */
+    public int getFrameStart(int frame) {
+        return frames[frame * FRAME_FIELDS + 1];
     }
 }
\ No newline at end of file
@@ -13,6 +13,9 @@ public class Metrics {
     private static long dataWrite = 0;
     private static long dataRead = 0;
     private static long execMove = 0;
+    private static long tierUp = 0;
+    private static long memoHit = 0;
+    private static long memoMiss = 0;
     
     /**
      * Getters and setters of the metrics
@@ -81,4 +84,60 @@ public class Metrics {
     public static void incrProgSize() {
         progSize++;
     }
+
+    public static void incrExecMove(long i) {
+        execMove += i;
+    }
+
+    public static void incrDataMove(long i) {
+        dataMove += i;
+    }
+
+    public static void incrDataWrite(long i) {
+        dataWrite += i;
+    }
+
+    public static void incrDataRead(long i) {
+        dataRead += i;
+    }
+
+    public static long getTierUp() {
+        return tierUp;
+    }
+
+    public static void incrTierUp() {
+        tierUp++;
+    }
+
+    public static long getMemoHit() {
+        return memoHit;
+    }
+
+    public static void incrMemoHit() {
+        memoHit++;
+    }
+
+    public static long getMemoMiss() {
+        return memoMiss;
+    }
+
+    public static void incrMemoMiss() {
+        memoMiss++;
+    }
+
+    /**
+     * Resets every metric to zero.
+     */
+    public static void reset() {
+        progSize = 0;
+        execTime = 0;
+        execStep = 0;
+        dataMove = 0;
+        dataWrite = 0;
+        dataRead = 0;
+        execMove = 0;
+        tierUp = 0;
+        memoHit = 0;
+        memoMiss = 0;
+    }
 }
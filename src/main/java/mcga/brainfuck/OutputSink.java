@@ -0,0 +1,153 @@
+package mcga.brainfuck;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Timer;
+import java.util.TimerTask;
+
+/**
+ * Output of the programs, gathering the bytes written in a buffer which is written to the target in one chunk when
+ * it is full, before an input is read, when the execution ends and, if an interval is set, periodically so that an
+ * interactive program shows its output while it computes. In raw mode a character is written as the byte of its low
+ * 8 bits instead of being encoded with the charset.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class OutputSink extends PrintStream {
+    public static final int DEFAULT_SIZE = 8192;
+    private final Buffer buffer;
+    private final boolean raw;
+    private final boolean flushOnInput;
+    private Timer timer;
+
+    /**
+     * Constructor of the OutputSink class.
+     *
+     * @param target       stream the chunks are written to
+     * @param size         number of bytes of the buffer
+     * @param raw          true if the characters are written as bytes, without being encoded
+     * @param flushOnInput true if the buffer is written before an input is read
+     * @param interval     number of milliseconds between two periodic flushes, 0 if the buffer is only flushed when
+     *                     needed
+     */
+    public OutputSink(OutputStream target, int size, boolean raw, boolean flushOnInput, long interval) {
+        this(new Buffer(target, size), raw, flushOnInput, interval);
+    }
+
+    private OutputSink(Buffer buffer, boolean raw, boolean flushOnInput, long interval) {
+        super(buffer, false);
+        this.buffer = buffer;
+        this.raw = raw;
+        this.flushOnInput = flushOnInput;
+        if (interval > 0) {
+            timer = new Timer("output", true);
+            timer.scheduleAtFixedRate(new TimerTask() {
+                @Override
+                public void run() {
+                    flush();
+                }
+            }, interval, interval);
+        }
+    }
+
+    /**
+     * Writes a character, as a byte in raw mode. The buffer is only locked when it is flushed periodically.
+     *
+     * @param c character to write
+     */
+    @Override
+    public void print(char c) {
+        if (!raw) {
+            super.print(c);
+        } else if (timer == null) {
+            put(c);
+        } else {
+            synchronized (this) {
+                put(c);
+            }
+        }
+    }
+
+    private void put(char c) {
+        try {
+            buffer.write(c);
+        } catch (IOException e) {
+            setError();
+        }
+    }
+
+    /**
+     * Writes the buffer before an input is read, so that the prompt of an interactive program is shown.
+     */
+    public void beforeInput() {
+        if (flushOnInput && buffer.count > 0) {
+            flush();
+        }
+    }
+
+    /**
+     * Stops the periodic flushes, writes the buffer and closes the target.
+     */
+    @Override
+    public void close() {
+        if (timer != null) {
+            timer.cancel();
+        }
+        super.close();
+    }
+
+    /**
+     * Stream writing the bytes into a reusable array, then to the target in chunks.
+     */
+    private static class Buffer extends OutputStream {
+        private final OutputStream target;
+        private final byte[] bytes;
+        private int count = 0;
+
+        Buffer(OutputStream target, int size) {
+            this.target = target;
+            this.bytes = new byte[Math.max(1, size)];
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == bytes.length) {
+                drain();
+            }
+            bytes[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len > bytes.length - count) {
+                drain();
+                if (len >= bytes.length) {
+                    target.write(b, off, len);
+                    return;
+                }
+            }
+            System.arraycopy(b, off, bytes, count, len);
+            count += len;
+        }
+
+        private void drain() throws IOException {
+            if (count > 0) {
+                target.write(bytes, 0, count);
+                count = 0;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            drain();
+            target.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+            target.close();
+        }
+    }
+}
@@ -2,9 +2,13 @@ package mcga.brainfuck;
 
 import mcga.brainfuck.exceptions.InvalidCodeException;
 import mcga.brainfuck.exceptions.InvalidParametersException;
+import mcga.brainfuck.instructions.DataIO;
 import mcga.brainfuck.instructions.Function;
 import mcga.brainfuck.instructions.Instruction;
+import mcga.brainfuck.instructions.Jump;
 import mcga.brainfuck.instructions.Procedure;
+import mcga.brainfuck.instructions.ResultCache;
+import mcga.brainfuck.processing.ParsedCode;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -13,16 +17,20 @@ import static mcga.brainfuck.Brainfuck.getInterpreter;
 
 /**
  * This class checks all the conditions required to create a procedure or a function.
+ * A function whose body neither reads nor writes is pure: its result only depends on the values of its parameters,
+ * and it is cached for all its call sites when the interpreter memoizes the functions.
  */
 public class ProcedureStruct {
     private List<Instruction> instructions = new ArrayList<>();
     private int[] declarationParams;
     private int size;
     private boolean function;
+    private boolean pure;
+    private ResultCache cache;
     
-    public ProcedureStruct(String code, String[] params, boolean function) throws InvalidCodeException {
+    public ProcedureStruct(ParsedCode code, String[] params, boolean function) throws InvalidCodeException {
         getInterpreter().pushInstructions(instructions);
-        size = getInterpreter().readProcedureText(code);
+        size = getInterpreter().readProcedure(code);
         getInterpreter().popInstructions();
         this.function = function;
         this.declarationParams = new int[params.length];
@@ -34,6 +42,27 @@ public class ProcedureStruct {
             System.err.println("Mauvais argument de fonction");
             System.exit(51);
         }
+        this.pure = function && isPure(instructions);
+        int memoSize = getInterpreter().getMemoSize();
+        if (pure && memoSize > 0) {
+            this.cache = new ResultCache(declarationParams.length, memoSize);
+        }
+    }
+
+    /**
+     * Checks if instructions neither read nor write, nor call a procedure.
+     *
+     * @param instructions instructions to check, the bodies of their loops included
+     * @return true if the instructions only work on the memory
+     */
+    private static boolean isPure(List<Instruction> instructions) {
+        for (Instruction instruction : instructions) {
+            if (instruction instanceof DataIO || instruction instanceof Procedure
+                    || instruction instanceof Jump && !isPure(((Jump) instruction).getInstructions())) {
+                return false;
+            }
+        }
+        return true;
     }
     
     public Procedure createProcedure(String name, String[] params) throws InvalidParametersException {
@@ -41,7 +70,7 @@ public class ProcedureStruct {
     }
     
     public Procedure createFunction(String name, String[] params) throws InvalidParametersException {
-        return new Function(name, instructions, size, declarationParams, params);
+        return new Function(name, instructions, size, declarationParams, params, cache);
     }
     
     public int getDeclarationParam(int i) {
@@ -59,4 +88,8 @@ public class ProcedureStruct {
     public boolean isFunction() {
         return function;
     }
+
+    public boolean isPure() {
+        return pure;
+    }
 }
@@ -0,0 +1,245 @@
+package mcga.brainfuck.engine;
+
+import mcga.brainfuck.Memory;
+import mcga.brainfuck.Metrics;
+import mcga.brainfuck.exceptions.BrainfuckIndexOutOfBoundsException;
+import mcga.brainfuck.instructions.Input;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/**
+ * State of the {@link VirtualMachine} at the start of an iteration of a loop: the cells, the pointer, the address
+ * of the next opcode, the calls of procedures in progress, the number of bytes read from the input and the metrics.
+ * It is stored in a binary file holding, after a magic number, the fingerprint of the {@link Program}, the state of
+ * the execution, then the runs of consecutive cells different from zero, so that a sparse tape stays small.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class Checkpoint {
+    private static final int MAGIC = 0x4246434B;
+    private static final int VERSION = 1;
+    private static final int END_OF_CELLS = -1;
+    private final int fingerprint;
+    private final int pc;
+    private final int ptr;
+    private final Frame[] frames;
+    private final long inputOffset;
+    private final long[] metrics;
+    private final int size;
+    private final int[] cells;
+
+    /**
+     * Constructor of the Checkpoint class.
+     *
+     * @param fingerprint fingerprint of the program
+     * @param pc          address of the next opcode
+     * @param ptr         index of the current cell
+     * @param frames      calls in progress, the outermost first
+     * @param inputOffset number of bytes read from the input
+     * @param metrics     execution moves, execution steps, data moves, data reads and data writes
+     * @param size        number of cells of the memory
+     * @param cells       cells up to the last one different from zero
+     */
+    Checkpoint(int fingerprint, int pc, int ptr, Frame[] frames, long inputOffset, long[] metrics, int size, int[] cells) {
+        this.fingerprint = fingerprint;
+        this.pc = pc;
+        this.ptr = ptr;
+        this.frames = frames;
+        this.inputOffset = inputOffset;
+        this.metrics = metrics;
+        this.size = size;
+        this.cells = cells;
+    }
+
+    /**
+     * Computes the fingerprint of a program, which a checkpoint must match to be resumed.
+     *
+     * @param program compiled program
+     * @return hash of its opcodes and of the number of its constants
+     */
+    static int fingerprint(Program program) {
+        return 31 * Arrays.hashCode(program.getCode()) + program.getConstantsSize();
+    }
+
+    /**
+     * Reads a checkpoint from a file.
+     *
+     * @param fileName name of the file
+     * @return checkpoint read
+     * @throws IOException if the file cannot be read or is not a checkpoint
+     */
+    public static Checkpoint read(String fileName) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(fileName)))) {
+            if (in.readInt() != MAGIC || in.readUnsignedByte() != VERSION) {
+                throw new IOException(fileName + " is not a checkpoint");
+            }
+            int fingerprint = in.readInt();
+            int pc = in.readInt();
+            int ptr = in.readInt();
+            Frame[] frames = new Frame[in.readInt()];
+            for (int i = 0; i < frames.length; i++) {
+                frames[i] = new Frame(in.readInt(), in.readInt(), in.readInt());
+            }
+            long inputOffset = in.readLong();
+            long[] metrics = new long[5];
+            for (int i = 0; i < metrics.length; i++) {
+                metrics[i] = in.readLong();
+            }
+            int size = in.readInt();
+            int[] cells = new int[0];
+            for (int start = in.readInt(); start != END_OF_CELLS; start = in.readInt()) {
+                int length = in.readInt();
+                if (start + length > cells.length) {
+                    cells = Arrays.copyOf(cells, start + length);
+                }
+                for (int i = start; i < start + length; i++) {
+                    cells[i] = in.readInt();
+                }
+            }
+            return new Checkpoint(fingerprint, pc, ptr, frames, inputOffset, metrics, size, cells);
+        }
+    }
+
+    /**
+     * Writes the checkpoint to a file. It is written next to it first, then renamed, so that the file always holds
+     * a whole checkpoint even if the execution stops while writing.
+     *
+     * @param fileName name of the file
+     * @throws IOException if the file cannot be written
+     */
+    public void write(String fileName) throws IOException {
+        File file = new File(fileName);
+        File temporary = new File(fileName + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(fingerprint);
+            out.writeInt(pc);
+            out.writeInt(ptr);
+            out.writeInt(frames.length);
+            for (Frame frame : frames) {
+                out.writeInt(frame.call);
+                out.writeInt(frame.prevIndex);
+                out.writeInt(frame.startIndex);
+            }
+            out.writeLong(inputOffset);
+            for (long metric : metrics) {
+                out.writeLong(metric);
+            }
+            out.writeInt(size);
+            int i = 0;
+            while (i < cells.length) {
+                if (cells[i] == 0) {
+                    i++;
+                    continue;
+                }
+                int start = i;
+                while (i < cells.length && cells[i] != 0) {
+                    i++;
+                }
+                out.writeInt(start);
+                out.writeInt(i - start);
+                for (int k = start; k < i; k++) {
+                    out.writeInt(cells[k]);
+                }
+            }
+            out.writeInt(END_OF_CELLS);
+        }
+        Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Copies the cells, the pointer and the metrics of the checkpoint to the memory and the metrics, and skips
+     * the bytes of the input which have already been read.
+     *
+     * @param memory memory to restore, whose cells are zero
+     * @throws IOException                        if the memory does not have the size of the checkpoint or the
+     *                                            input is too short
+     * @throws BrainfuckIndexOutOfBoundsException if the pointer is out of the memory
+     */
+    void restore(Memory memory) throws IOException, BrainfuckIndexOutOfBoundsException {
+        if (memory.getSize() != size) {
+            throw new IOException("The checkpoint has " + size + " cells instead of " + memory.getSize());
+        }
+        System.arraycopy(cells, 0, memory.getCells(), 0, cells.length);
+        memory.setCurrentIndex(ptr);
+        Metrics.incrExecMove(metrics[0]);
+        Metrics.incrExecPos(metrics[1]);
+        Metrics.incrDataMove(metrics[2]);
+        Metrics.incrDataRead(metrics[3]);
+        Metrics.incrDataWrite(metrics[4]);
+        for (long i = 0; i < inputOffset; i++) {
+            if (Input.stream.read() < 0) {
+                throw new IOException("The input is shorter than the checkpoint");
+            }
+        }
+    }
+
+    public int getFingerprint() {
+        return fingerprint;
+    }
+
+    public int getPc() {
+        return pc;
+    }
+
+    public int getPtr() {
+        return ptr;
+    }
+
+    public int getFrameCount() {
+        return frames.length;
+    }
+
+    public Frame getFrame(int i) {
+        return frames[i];
+    }
+
+    public long getInputOffset() {
+        return inputOffset;
+    }
+
+    /**
+     * Call of a procedure in progress.
+     */
+    public static final class Frame {
+        private final int call;
+        private final int prevIndex;
+        private final int startIndex;
+
+        /**
+         * Constructor of the Frame class.
+         *
+         * @param call       address of the CALL opcode
+         * @param prevIndex  index of the current cell when the procedure was called
+         * @param startIndex index of the first cell of the frame of the procedure
+         */
+        Frame(int call, int prevIndex, int startIndex) {
+            this.call = call;
+            this.prevIndex = prevIndex;
+            this.startIndex = startIndex;
+        }
+
+        public int getCall() {
+            return call;
+        }
+
+        public int getPrevIndex() {
+            return prevIndex;
+        }
+
+        public int getStartIndex() {
+            return startIndex;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package mcga.brainfuck.engine;
+
+import mcga.brainfuck.exceptions.InvalidInputFileException;
+import mcga.brainfuck.instructions.Input;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decides when the {@link VirtualMachine} writes a {@link Checkpoint} of the execution: every given number of
+ * opcodes or, when a period is set, every given number of milliseconds, the clock being only read every
+ * {@link #POLL_STEPS} opcodes. The virtual machine suspends the execution at the start of an iteration of a loop
+ * once a call, or the main program, has run {@link #getSteps()} opcodes, and asks it whether to write a checkpoint.
+ * The bytes read from the input are counted so that a resumed execution skips them.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class Checkpointer {
+    public static final long DEFAULT_STEPS = 100000000;
+    static final long POLL_STEPS = 10000000;
+    private final String fileName;
+    private final long steps;
+    private final long period;
+    private long last;
+    private CountingInputStream input;
+
+    /**
+     * Constructor of the Checkpointer class.
+     *
+     * @param fileName name of the file the checkpoints are written to
+     * @param steps    number of opcodes between two checkpoints, 0 if they are only written periodically
+     * @param period   number of milliseconds between two checkpoints, 0 if they are only written every steps
+     */
+    public Checkpointer(String fileName, long steps, long period) {
+        this.fileName = fileName;
+        this.period = period;
+        if (steps > 0) {
+            this.steps = period > 0 ? Math.min(steps, POLL_STEPS) : steps;
+        } else {
+            this.steps = period > 0 ? POLL_STEPS : DEFAULT_STEPS;
+        }
+        this.last = System.currentTimeMillis();
+    }
+
+    /**
+     * Counts the bytes read from the input from now on.
+     *
+     * @param offset number of bytes already read by a previous execution
+     */
+    void start(long offset) {
+        input = new CountingInputStream(Input.stream, offset);
+        Input.stream = input;
+    }
+
+    /**
+     * Gets the number of opcodes after which the virtual machine suspends the execution.
+     *
+     * @return number of opcodes
+     */
+    long getSteps() {
+        return steps;
+    }
+
+    /**
+     * Checks if a checkpoint has to be written now that the execution is suspended.
+     *
+     * @return true if no period is set or if it has elapsed since the last checkpoint
+     */
+    boolean isDue() {
+        if (period == 0) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        if (now - last < period) {
+            return false;
+        }
+        last = now;
+        return true;
+    }
+
+    /**
+     * Gets the number of bytes read from the input, by this execution and the ones it resumes.
+     *
+     * @return offset of the next byte of the input
+     */
+    long getInputOffset() {
+        return input.count;
+    }
+
+    /**
+     * Writes a checkpoint to the file.
+     *
+     * @param checkpoint state of the execution
+     * @throws InvalidInputFileException if the checkpoint cannot be written
+     */
+    void write(Checkpoint checkpoint) throws InvalidInputFileException {
+        try {
+            checkpoint.write(fileName);
+        } catch (IOException e) {
+            throw new InvalidInputFileException("Cannot write the checkpoint: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Input counting the bytes read through it.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in, long count) {
+            super(in);
+            this.count = count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int c = super.read();
+            if (c >= 0) {
+                count++;
+            }
+            return c;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+}
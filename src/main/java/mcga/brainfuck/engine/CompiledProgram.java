@@ -0,0 +1,40 @@
+package mcga.brainfuck.engine;
+
+import mcga.brainfuck.Memory;
+import mcga.brainfuck.exceptions.InstructionException;
+
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Program compiled into a JVM class by the {@link JitCompiler}.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class CompiledProgram {
+    private final Program program;
+    private final MethodHandle main;
+
+    CompiledProgram(Program program, MethodHandle main) {
+        this.program = program;
+        this.main = main;
+    }
+
+    /**
+     * Executes the program.
+     *
+     * @param memory memory the program works on
+     * @throws InstructionException if an instruction can cause an issue during the execution
+     */
+    public void run(Memory memory) throws InstructionException {
+        try {
+            int ptr = (int) main.invokeExact(memory.openCells(), memory.getCurrentIndex(), new JitRuntime(program, memory));
+            memory.setCurrentIndex(ptr);
+        } catch (InstructionException | RuntimeException | Error e) {
+            // the generated code has not told the highest cell it reached
+            memory.reached(memory.getSize() - 1);
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package mcga.brainfuck.engine;
+
+/**
+ * This enum links the values of the --engine argument to the way the interpreter executes a program.
+ *
+ * @author Team Make Coding Great Again
+ */
+public enum Engine {
+    TREE("tree"),
+    AST("ast"),
+    VM("vm"),
+    JIT("jit"),
+    TIERED("tiered");
+
+    private String expression;
+
+    /**
+     * Constructor of the enum.
+     *
+     * @param expression value of the argument
+     */
+    Engine(String expression) {
+        this.expression = expression;
+    }
+
+    /**
+     * Finds the engine corresponding to the value of the argument.
+     *
+     * @param expression value of the argument
+     * @return engine corresponding, null if there is none
+     */
+    public static Engine fromExpression(String expression) {
+        for (Engine engine : Engine.values()) {
+            if (engine.expression.equals(expression)) {
+                return engine;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,756 @@
+package mcga.brainfuck.engine;
+
+import mcga.brainfuck.engine.classfile.ClassTooLargeException;
+import mcga.brainfuck.engine.classfile.ClassWriter;
+import mcga.brainfuck.engine.classfile.CodeWriter;
+import mcga.brainfuck.engine.classfile.Label;
+import mcga.brainfuck.instructions.Add;
+import mcga.brainfuck.instructions.MulAdd;
+import mcga.brainfuck.instructions.OffsetBlock;
+import mcga.brainfuck.instructions.Procedure;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static mcga.brainfuck.Memory.MAX_CELL_VALUE;
+import static mcga.brainfuck.Memory.MIN_CELL_VALUE;
+import static mcga.brainfuck.engine.Opcode.*;
+import static mcga.brainfuck.engine.classfile.ClassWriter.*;
+import static mcga.brainfuck.engine.classfile.CodeWriter.*;
+
+/**
+ * Translates a {@link Program} into JVM bytecode, so that the JIT compiler of the JVM sees the Brainf*ck program
+ * itself rather than the dispatch loop of the {@link VirtualMachine}.
+ * Loops become branches of the generated method, the pointer, the bounds of the frame and the metrics are local
+ * variables, and each procedure body becomes a private static method. The highest cell reached is a local variable
+ * as well, given to the runtime before it uses the memory and when the method returns. The class is loaded as a hidden class
+ * when the JVM supports them, by a dedicated class loader otherwise.
+ * A code too large for a method is split into chunks of consecutive loops and opcodes, each compiled into a private
+ * static method returning the pointer, so that only the class file limits bound the size of the programs.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class JitCompiler {
+    private static final String CLASS_NAME = "mcga/brainfuck/engine/JitProgram";
+    private static final String RUNTIME = "mcga/brainfuck/engine/JitRuntime";
+    private static final String SCAN_CLASS = "mcga/brainfuck/instructions/Scan";
+    private static final String MUL_ADD_CLASS = "mcga/brainfuck/instructions/MulAdd";
+    private static final String INDEX_EXCEPTION = "mcga/brainfuck/exceptions/BrainfuckIndexOutOfBoundsException";
+    private static final String METHOD_DESCRIPTOR = "([IIL" + RUNTIME + ";)I";
+    private static final String MAIN = "run";
+    private static final MethodType MAIN_TYPE = MethodType.methodType(int.class, int[].class, int.class, JitRuntime.class);
+    private static final int LCMP = 0x94;
+
+    private static final int CELLS = 0;
+    private static final int PTR = 1;
+    private static final int RUNTIME_VAR = 2;
+    private static final int LOWER = 3;
+    private static final int UPPER = 4;
+    private static final int EXEC_MOVE = 5;
+    private static final int STEP_OFFSET = 7;
+    private static final int DATA_MOVE = 9;
+    private static final int DATA_WRITE = 11;
+    private static final int DATA_READ = 13;
+    private static final int VALUE = 15;
+    private static final int ITERATIONS = 17;
+    private static final int EXCEPTION = 19;
+    private static final int REACH = 20;
+    private static final int MAX_LOCALS = 21;
+    private static final int MAX_STACK = 16;
+    private static final int CHUNK_SIZE = 16384;
+    private static final int ENTRY_SIZE = 64;
+    private static final int SLICE_LENGTH = CHUNK_SIZE / ENTRY_SIZE;
+
+    private final Program program;
+    private final int[] code;
+    private final Set<Integer> targets = new HashSet<>();
+    private final List<Integer> procedures = new ArrayList<>();
+    private final Deque<int[]> chunks = new ArrayDeque<>();
+    private final Set<String> methodNames = new HashSet<>();
+    private final Deque<int[]> slices = new ArrayDeque<>();
+    private int entry;
+    private final ClassWriter classWriter = new ClassWriter(CLASS_NAME);
+    private CodeWriter out;
+    private Map<Integer, Label> labels;
+    private final Deque<Label> inlinedBodies = new ArrayDeque<>();
+    private final long[] pending = new long[DATA_READ + 1];
+
+    private JitCompiler(Program program) {
+        this.program = program;
+        this.code = program.getCode();
+    }
+
+    /**
+     * Compiles a program into a class and loads it.
+     *
+     * @param program program to compile
+     * @return the loaded program
+     * @throws ClassTooLargeException if the program exceeds a limit of the class file format
+     */
+    public static CompiledProgram compile(Program program) {
+        return compile(program, 0);
+    }
+
+    /**
+     * Compiles a program into a class whose main method starts at a given address, such as the entry of a
+     * residual program, and loads it.
+     *
+     * @param program program to compile
+     * @param entry   address of the first opcode executed by the main method
+     * @return the loaded program
+     * @throws ClassTooLargeException if the program exceeds a limit of the class file format
+     */
+    public static CompiledProgram compile(Program program, int entry) {
+        JitCompiler compiler = new JitCompiler(program);
+        compiler.scan();
+        compiler.entry = entry;
+        compiler.targets.add(entry);
+        compiler.compileMethod(ACC_PUBLIC | ACC_STATIC, MAIN, 0, compiler.ret(0));
+        for (int procedure : compiler.procedures) {
+            compiler.compileMethod(ACC_PRIVATE | ACC_STATIC, procedureName(procedure), procedure, compiler.ret(procedure));
+        }
+        while (!compiler.chunks.isEmpty()) {
+            int[] chunk = compiler.chunks.poll();
+            compiler.compileMethod(ACC_PRIVATE | ACC_STATIC, chunkName(chunk[0], chunk[1]), chunk[0], chunk[1]);
+        }
+        for (int[] slice : compiler.slices) {
+            compiler.compileSlice(slice[0], slice[1]);
+        }
+        return new CompiledProgram(program, load(compiler.classWriter.toByteArray()));
+    }
+
+    private static String procedureName(int entry) {
+        return "p" + entry;
+    }
+
+    private static String chunkName(int from, int to) {
+        return "c" + from + "_" + to;
+    }
+
+    private static String sliceName(int pc, int first) {
+        return "b" + pc + "_" + first;
+    }
+
+    /**
+     * Finds the branch targets and the procedure bodies of the program.
+     */
+    private void scan() {
+        for (int pc = 0; pc < code.length; pc += Opcode.length(code[pc])) {
+            switch (code[pc]) {
+                case JUMP:
+                    targets.add(pc + 3);
+                    targets.add(code[pc + 1]);
+                    break;
+                case MULADD:
+                    targets.add(pc + 3);
+                    targets.add(code[pc + 2]);
+                    break;
+                case CALL:
+                    if (!procedures.contains(code[pc + 2])) {
+                        procedures.add(code[pc + 2]);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Finds the RET opcode ending the code starting at an address.
+     */
+    private int ret(int start) {
+        int pc = start;
+        while (code[pc] != RET) {
+            pc += Opcode.length(code[pc]);
+        }
+        return pc;
+    }
+
+    /**
+     * Compiles the code from an address to another into a method, which starts its execution at the entry when
+     * the entry lies in between. The method is written again with wide branches if a branch offset does not fit
+     * in 16 bits.
+     */
+    private void compileMethod(int access, String name, int from, int to) {
+        out = classWriter.method(access, name, METHOD_DESCRIPTOR, MAX_STACK, MAX_LOCALS);
+        writeMethod(from, to);
+        if (out.hasOverflow()) {
+            out.widen();
+            writeMethod(from, to);
+        }
+    }
+
+    private void writeMethod(int from, int to) {
+        labels = new HashMap<>();
+        loadBounds();
+        out.var(ILOAD, PTR).var(ISTORE, REACH);
+        for (int local = EXEC_MOVE; local <= DATA_READ; local += 2) {
+            out.lconst(0).var(LSTORE, local);
+        }
+        if (entry > from && entry < to) {
+            out.jump(GOTO, label(entry));
+        }
+        compileRegion(from, to);
+        bindTarget(to);
+        flush();
+        report();
+        out.var(ALOAD, RUNTIME_VAR);
+        for (int local = EXEC_MOVE; local <= DATA_READ; local += 2) {
+            out.var(LLOAD, local);
+        }
+        out.invoke(INVOKEVIRTUAL, RUNTIME, "account", "(JJJJJ)V");
+        out.var(ILOAD, PTR).op(IRETURN);
+    }
+
+    /**
+     * Compiles the code from an address to another. When its estimated size exceeds CHUNK_SIZE, the consecutive
+     * elements, each a loop, an idiom with its fallback loop, an inlined body or a single opcode, are gathered into
+     * chunks compiled as methods of their own. An element too large for a chunk, or holding the entry, is compiled
+     * here, its body being split the same way.
+     */
+    private void compileRegion(int from, int to) {
+        if (size(from, to) <= CHUNK_SIZE) {
+            for (int pc = from; pc < to; pc += Opcode.length(code[pc])) {
+                compileAt(pc);
+            }
+            return;
+        }
+        int pc = from;
+        while (pc < to) {
+            int end = pc;
+            int size = 0;
+            while (end < to && (end == pc || end != entry)) {
+                int next = next(end);
+                int elementSize = size(end, next);
+                if (size + elementSize > CHUNK_SIZE || end < entry && entry < next) {
+                    break;
+                }
+                size += elementSize;
+                end = next;
+            }
+            if (end == pc) {
+                compileElement(pc);
+                pc = next(pc);
+            } else if (next(pc) == end) {
+                compileRegion(pc, end);
+                pc = end;
+            } else {
+                compileChunk(pc, end);
+                pc = end;
+            }
+        }
+    }
+
+    /**
+     * Compiles an element in place, the body of a loop or of an inlined procedure being compiled as a region.
+     */
+    private void compileElement(int pc) {
+        switch (code[pc]) {
+            case JUMP: {
+                int back = code[pc + 1] - Opcode.length(BACK);
+                compileAt(pc);
+                compileRegion(pc + Opcode.length(JUMP), back);
+                compileAt(back);
+                break;
+            }
+            case MULADD:
+                compileAt(pc);
+                compileElement(pc + Opcode.length(MULADD));
+                break;
+            case ENTER: {
+                int leave = next(pc) - Opcode.length(LEAVE);
+                compileAt(pc);
+                compileRegion(pc + Opcode.length(ENTER), leave);
+                compileAt(leave);
+                break;
+            }
+            default:
+                compileAt(pc);
+                break;
+        }
+    }
+
+    /**
+     * Calls the method compiled from the code between two addresses, which returns the pointer.
+     */
+    private void compileChunk(int from, int to) {
+        String name = chunkName(from, to);
+        if (methodNames.add(name)) {
+            chunks.add(new int[]{from, to});
+        }
+        bindTarget(from);
+        out.var(ALOAD, CELLS).var(ILOAD, PTR).var(ALOAD, RUNTIME_VAR);
+        out.invoke(INVOKESTATIC, CLASS_NAME, name, METHOD_DESCRIPTOR).var(ISTORE, PTR);
+        reach(0);
+    }
+
+    /**
+     * Finds the end of the element starting at an address: the address after a loop, after the fallback loop of
+     * an idiom, after the LEAVE opcode ending an inlined body, or after the opcode.
+     */
+    private int next(int pc) {
+        switch (code[pc]) {
+            case JUMP:
+                return code[pc + 1];
+            case MULADD:
+                return code[pc + 2];
+            case ENTER: {
+                int depth = 0;
+                for (int k = pc; ; k += Opcode.length(code[k])) {
+                    if (code[k] == ENTER) {
+                        depth++;
+                    } else if (code[k] == LEAVE && --depth == 0) {
+                        return k + Opcode.length(LEAVE);
+                    }
+                }
+            }
+            default:
+                return pc + Opcode.length(code[pc]);
+        }
+    }
+
+    /**
+     * Estimates the number of bytes of the bytecode compiled from the code between two addresses, from above.
+     */
+    private int size(int from, int to) {
+        int size = 0;
+        for (int pc = from; pc < to; pc += Opcode.length(code[pc])) {
+            switch (code[pc]) {
+                case INCR:
+                case DECR:
+                case LEFT:
+                case RIGHT:
+                case IN:
+                case OUT:
+                    size += 64;
+                    break;
+                case BLOCK:
+                    size += 64 + ENTRY_SIZE * Math.min(SLICE_LENGTH, ((OffsetBlock) program.getConstant(code[pc + 1])).getLength());
+                    break;
+                default:
+                    size += 256;
+                    break;
+            }
+        }
+        return size;
+    }
+
+    private void bindTarget(int pc) {
+        if (targets.contains(pc)) {
+            flush();
+            out.bind(label(pc));
+        }
+    }
+
+    private void compileAt(int pc) {
+        bindTarget(pc);
+        compileOpcode(pc);
+    }
+
+    private void compileOpcode(int pc) {
+        if (code[pc] != MULADD) {
+            count(EXEC_MOVE, 1);
+        }
+        switch (code[pc]) {
+            case INCR:
+                count(DATA_WRITE, 1);
+                compileStep(1, IF_ICMPLE, MAX_CELL_VALUE);
+                break;
+            case DECR:
+                count(DATA_WRITE, 1);
+                compileStep(-1, IF_ICMPGE, MIN_CELL_VALUE);
+                break;
+            case LEFT:
+            case RIGHT: {
+                count(DATA_MOVE, 1);
+                boolean right = code[pc] == RIGHT;
+                Label ok = new Label();
+                out.var(ILOAD, PTR).iconst(right ? 1 : -1).op(IADD).var(ISTORE, VALUE);
+                out.var(ILOAD, VALUE).var(ILOAD, right ? UPPER : LOWER).jump(right ? IF_ICMPLE : IF_ICMPGE, ok);
+                out.var(ILOAD, VALUE).invoke(INVOKESTATIC, RUNTIME, "invalidIndex", "(I)L" + INDEX_EXCEPTION + ";").op(ATHROW);
+                out.bind(ok).var(ILOAD, VALUE).var(ISTORE, PTR);
+                if (right) {
+                    reach(0);
+                }
+                break;
+            }
+            case ADD:
+                count(EXEC_MOVE, code[pc + 2] - 1);
+                count(DATA_WRITE, code[pc + 2]);
+                compileAdd(pc);
+                break;
+            case MOVE:
+                count(EXEC_MOVE, code[pc + 2] - 1);
+                count(DATA_MOVE, code[pc + 2]);
+                compileMove(pc);
+                break;
+            case IN:
+                count(DATA_WRITE, 1);
+                out.var(ALOAD, CELLS).var(ILOAD, PTR).var(ALOAD, RUNTIME_VAR).invoke(INVOKEVIRTUAL, RUNTIME, "read", "()I").op(IASTORE);
+                break;
+            case OUT:
+                count(DATA_READ, 1);
+                out.var(ALOAD, RUNTIME_VAR).var(ALOAD, CELLS).var(ILOAD, PTR).op(IALOAD).invoke(INVOKEVIRTUAL, RUNTIME, "write", "(I)V");
+                break;
+            case JUMP:
+                count(DATA_READ, 1);
+                flush();
+                out.var(ALOAD, CELLS).var(ILOAD, PTR).op(IALOAD).jump(IFNE, label(pc + 3));
+                addLong(STEP_OFFSET, code[pc + 2]);
+                out.jump(GOTO, label(code[pc + 1]));
+                break;
+            case BACK:
+                flush();
+                out.var(ALOAD, CELLS).var(ILOAD, PTR).op(IALOAD).jump(IFEQ, label(pc + 3));
+                addLong(STEP_OFFSET, -code[pc + 2]);
+                out.jump(GOTO, label(code[pc + 1]));
+                break;
+            case BLOCK:
+                compileBlock(pc);
+                break;
+            case CLEAR:
+                count(DATA_READ, 1);
+                loadIterations();
+                out.var(ALOAD, CELLS).var(ILOAD, PTR).iconst(0).op(IASTORE);
+                accountIterations(code[pc + 1], 1, 0);
+                break;
+            case SCAN: {
+                int stride = code[pc + 1];
+                count(DATA_READ, 1);
+                out.var(ALOAD, CELLS).var(ILOAD, PTR).iconst(stride).var(ILOAD, LOWER).var(ILOAD, UPPER);
+                out.invoke(INVOKESTATIC, SCAN_CLASS, "scan", "([IIIII)I").var(ISTORE, VALUE);
+                out.var(ILOAD, VALUE).var(ILOAD, PTR).op(ISUB).iconst(stride).op(IDIV).op(I2L).var(LSTORE, ITERATIONS);
+                out.var(ILOAD, VALUE).var(ISTORE, PTR);
+                if (stride > 0) {
+                    reach(0);
+                }
+                accountIterations(code[pc + 2], 0, Math.abs(stride));
+                break;
+            }
+            case MULADD:
+                compileMulAdd(pc);
+                break;
+            case CALL:
+                compileCall(pc);
+                break;
+            case ENTER:
+                flush();
+                report();
+                out.var(ALOAD, RUNTIME_VAR).iconst(code[pc + 1]).var(ILOAD, PTR).invoke(INVOKEVIRTUAL, RUNTIME, "enter", "(II)I").var(ISTORE, PTR);
+                out.var(ILOAD, PTR).var(ISTORE, REACH);
+                loadBounds();
+                inlinedBodies.push(new Label());
+                out.bind(inlinedBodies.peek());
+                break;
+            case LEAVE:
+                count(EXEC_MOVE, -1);
+                compileLeave(pc);
+                break;
+            case EXEC:
+                flush();
+                report();
+                out.var(ALOAD, RUNTIME_VAR).iconst(code[pc + 1]).var(ILOAD, PTR);
+                out.invoke(INVOKEVIRTUAL, RUNTIME, "exec", "(II)I").var(ISTORE, PTR);
+                out.var(ILOAD, PTR).var(ISTORE, REACH);
+                break;
+            default:
+                throw new IllegalStateException("Unknown opcode " + code[pc] + " at " + pc);
+        }
+    }
+
+    /**
+     * Adds one or minus one to the current cell, the value being compared to its limit.
+     */
+    private void compileStep(int step, int validBranch, int limit) {
+        Label ok = new Label();
+        out.var(ALOAD, CELLS).var(ILOAD, PTR).op(IALOAD).iconst(step).op(IADD).var(ISTORE, VALUE);
+        out.var(ILOAD, VALUE).iconst(limit).jump(validBranch, ok);
+        out.var(ILOAD, VALUE).invoke(INVOKESTATIC, RUNTIME, "invalidValue", "(I)Lmcga/brainfuck/exceptions/InvalidValueException;").op(ATHROW);
+        out.bind(ok).var(ALOAD, CELLS).var(ILOAD, PTR).var(ILOAD, VALUE).op(IASTORE);
+    }
+
+    private void compileAdd(int pc) {
+        Label fail = new Label();
+        Label next = new Label();
+        out.var(ALOAD, CELLS).var(ILOAD, PTR).op(IALOAD).var(ISTORE, VALUE);
+        out.var(ILOAD, VALUE).iconst(code[pc + 3]).op(IADD).iconst(MIN_CELL_VALUE).jump(IF_ICMPLT, fail);
+        out.var(ILOAD, VALUE).iconst(code[pc + 4]).op(IADD).iconst(MAX_CELL_VALUE).jump(IF_ICMPGT, fail);
+        out.var(ALOAD, CELLS).var(ILOAD, PTR).var(ILOAD, VALUE).iconst(code[pc + 1]).op(IADD).op(IASTORE);
+        out.jump(GOTO, next);
+        out.bind(fail).var(ALOAD, RUNTIME_VAR).iconst(code[pc + 5]).var(ILOAD, VALUE);
+        out.invoke(INVOKEVIRTUAL, RUNTIME, "invalidAdd", "(II)Lmcga/brainfuck/exceptions/InvalidValueException;").op(ATHROW);
+        out.bind(next);
+    }
+
+    private void compileMove(int pc) {
+        Label fail = new Label();
+        Label next = new Label();
+        out.var(ILOAD, PTR).iconst(code[pc + 3]).op(IADD).var(ILOAD, LOWER).jump(IF_ICMPLT, fail);
+        out.var(ILOAD, PTR).iconst(code[pc + 4]).op(IADD).var(ILOAD, UPPER).jump(IF_ICMPGT, fail);
+        out.var(ILOAD, PTR).iconst(code[pc + 1]).op(IADD).var(ISTORE, PTR);
+        if (code[pc + 1] > 0) {
+            reach(0);
+        }
+        out.jump(GOTO, next);
+        out.bind(fail).var(ALOAD, RUNTIME_VAR).iconst(code[pc + 5]).var(ILOAD, PTR).var(ILOAD, LOWER).var(ILOAD, UPPER);
+        out.invoke(INVOKEVIRTUAL, RUNTIME, "invalidMove", "(IIII)L" + INDEX_EXCEPTION + ";").op(ATHROW);
+        out.bind(next);
+    }
+
+    /**
+     * Compiles a straight-line block: the cells it reaches are checked once, then each addition and output
+     * works at its offset from the pointer, which is moved once at the end.
+     */
+    private void compileBlock(int pc) {
+        OffsetBlock block = (OffsetBlock) program.getConstant(code[pc + 1]);
+        Label fail = new Label();
+        Label next = new Label();
+        count(EXEC_MOVE, block.getCount() - 1);
+        count(DATA_MOVE, block.getMoves());
+        count(DATA_WRITE, block.getWrites());
+        count(DATA_READ, block.getReads());
+        out.var(ILOAD, PTR).iconst(block.getLowest()).op(IADD).var(ILOAD, LOWER).jump(IF_ICMPLT, fail);
+        out.var(ILOAD, PTR).iconst(block.getHighest()).op(IADD).var(ILOAD, UPPER).jump(IF_ICMPGT, fail);
+        reach(block.getHighest());
+        if (block.getLength() <= SLICE_LENGTH) {
+            compileEntries(pc, block, 0, block.getLength());
+        } else {
+            // the entries are applied by methods of their own, so that the block fits in a method
+            for (int first = 0; first < block.getLength(); first += SLICE_LENGTH) {
+                if (methodNames.add(sliceName(pc, first))) {
+                    slices.add(new int[]{pc, first});
+                }
+                out.var(ALOAD, CELLS).var(ILOAD, PTR).var(ALOAD, RUNTIME_VAR);
+                out.invoke(INVOKESTATIC, CLASS_NAME, sliceName(pc, first), METHOD_DESCRIPTOR).op(POP);
+            }
+        }
+        out.var(ILOAD, PTR).iconst(block.getValue()).op(IADD).var(ISTORE, PTR);
+        out.jump(GOTO, next);
+        out.bind(fail);
+        report();
+        out.var(ALOAD, RUNTIME_VAR).iconst(code[pc + 1]).var(ILOAD, PTR);
+        out.invoke(INVOKEVIRTUAL, RUNTIME, "replay", "(II)I").var(ISTORE, PTR);
+        out.var(ILOAD, PTR).var(ISTORE, REACH);
+        out.bind(next);
+    }
+
+    /**
+     * Compiles a method applying a slice of the entries of a large block, the reached cells being checked by the
+     * caller.
+     */
+    private void compileSlice(int pc, int first) {
+        OffsetBlock block = (OffsetBlock) program.getConstant(code[pc + 1]);
+        out = classWriter.method(ACC_PRIVATE | ACC_STATIC, sliceName(pc, first), METHOD_DESCRIPTOR, MAX_STACK, MAX_LOCALS);
+        compileEntries(pc, block, first, Math.min(block.getLength(), first + SLICE_LENGTH));
+        out.var(ILOAD, PTR).op(IRETURN);
+    }
+
+    /**
+     * Compiles the additions and outputs of the entries of a block from the first one to the last one, excluded.
+     */
+    private void compileEntries(int pc, OffsetBlock block, int first, int last) {
+        for (int k = first; k < last; k++) {
+            Add add = block.getAdd(k);
+            if (add == null) {
+                out.var(ALOAD, RUNTIME_VAR).var(ALOAD, CELLS).var(ILOAD, PTR).iconst(block.getOffset(k)).op(IADD).op(IALOAD);
+                out.invoke(INVOKEVIRTUAL, RUNTIME, "write", "(I)V");
+                continue;
+            }
+            Label invalid = new Label();
+            Label valid = new Label();
+            out.var(ALOAD, CELLS).var(ILOAD, PTR).iconst(block.getOffset(k)).op(IADD).op(IALOAD).var(ISTORE, VALUE);
+            out.var(ILOAD, VALUE).iconst(add.getLowest()).op(IADD).iconst(MIN_CELL_VALUE).jump(IF_ICMPLT, invalid);
+            out.var(ILOAD, VALUE).iconst(add.getHighest()).op(IADD).iconst(MAX_CELL_VALUE).jump(IF_ICMPLE, valid);
+            out.bind(invalid).var(ALOAD, RUNTIME_VAR).iconst(code[pc + 1]).iconst(k).var(ILOAD, VALUE);
+            out.invoke(INVOKEVIRTUAL, RUNTIME, "invalidBlockAdd", "(III)Lmcga/brainfuck/exceptions/InvalidValueException;").op(ATHROW);
+            out.bind(valid).var(ALOAD, CELLS).var(ILOAD, PTR).iconst(block.getOffset(k)).op(IADD);
+            out.var(ILOAD, VALUE).iconst(add.getValue()).op(IADD).op(IASTORE);
+        }
+    }
+
+    /**
+     * Compiles a multiplication loop: when the shortcut cannot be taken, the execution goes on with the loop
+     * compiled right after it.
+     */
+    private void compileMulAdd(int pc) {
+        Label applied = new Label();
+        flush();
+        loadIterations();
+        out.var(LLOAD, ITERATIONS).lconst(0).op(LCMP).jump(IFEQ, applied);
+        out.var(ALOAD, RUNTIME_VAR).iconst(code[pc + 1]).invoke(INVOKEVIRTUAL, RUNTIME, "mulAdd", "(I)L" + MUL_ADD_CLASS + ";");
+        out.var(ALOAD, CELLS).var(ILOAD, PTR).var(ILOAD, LOWER).var(ILOAD, UPPER);
+        out.invoke(INVOKEVIRTUAL, MUL_ADD_CLASS, "apply", "([IIII)Z").jump(IFEQ, label(pc + 3));
+        out.bind(applied);
+        MulAdd mulAdd = (MulAdd) program.getConstant(code[pc + 1]);
+        reach(mulAdd.getHighest());
+        count(EXEC_MOVE, 1);
+        count(DATA_READ, 1);
+        accountIterations(mulAdd.getLoop().getSize(), mulAdd.getWrites(), mulAdd.getMoves());
+        flush();
+        out.jump(GOTO, label(code[pc + 2]));
+    }
+
+    private void compileCall(int pc) {
+        Label start = new Label();
+        Label end = new Label();
+        Label handler = new Label();
+        Label next = new Label();
+        int constant = code[pc + 1];
+        flush();
+        report();
+        if (((Procedure) program.getConstant(constant)).isMemoized()) {
+            out.var(ALOAD, RUNTIME_VAR).iconst(constant).var(ILOAD, PTR).invoke(INVOKEVIRTUAL, RUNTIME, "lookup", "(II)Z").jump(IFNE, next);
+        }
+        out.var(ALOAD, RUNTIME_VAR).iconst(constant).var(ILOAD, PTR).invoke(INVOKEVIRTUAL, RUNTIME, "enter", "(II)I").var(ISTORE, PTR);
+        out.bind(start).var(ALOAD, CELLS).var(ILOAD, PTR).var(ALOAD, RUNTIME_VAR);
+        out.invoke(INVOKESTATIC, CLASS_NAME, procedureName(code[pc + 2]), METHOD_DESCRIPTOR).var(ISTORE, PTR);
+        out.bind(end);
+        out.var(ALOAD, RUNTIME_VAR).iconst(constant).var(ILOAD, PTR).invoke(INVOKEVIRTUAL, RUNTIME, "leave", "(II)I").var(ISTORE, PTR);
+        out.jump(GOTO, next);
+        out.bind(handler).var(ASTORE, EXCEPTION).var(ALOAD, RUNTIME_VAR).iconst(constant).var(ALOAD, EXCEPTION);
+        out.invoke(INVOKEVIRTUAL, RUNTIME, "outOfFrame", "(IL" + INDEX_EXCEPTION + ";)L" + INDEX_EXCEPTION + ";").op(ATHROW);
+        out.bind(next).var(ILOAD, PTR).var(ISTORE, REACH);
+        out.handler(start, end, handler, INDEX_EXCEPTION);
+    }
+
+    /**
+     * Frees the frame of an inlined procedure body, the index errors raised by the body reporting its frame.
+     */
+    private void compileLeave(int pc) {
+        Label end = new Label();
+        Label handler = new Label();
+        Label next = new Label();
+        int constant = code[pc + 1];
+        flush();
+        out.bind(end);
+        report();
+        out.var(ALOAD, RUNTIME_VAR).iconst(constant).var(ILOAD, PTR).invoke(INVOKEVIRTUAL, RUNTIME, "leave", "(II)I").var(ISTORE, PTR);
+        out.var(ILOAD, PTR).var(ISTORE, REACH);
+        loadBounds();
+        out.jump(GOTO, next);
+        out.bind(handler).var(ASTORE, EXCEPTION).var(ALOAD, RUNTIME_VAR).iconst(constant).var(ALOAD, EXCEPTION);
+        out.invoke(INVOKEVIRTUAL, RUNTIME, "outOfFrame", "(IL" + INDEX_EXCEPTION + ";)L" + INDEX_EXCEPTION + ";").op(ATHROW);
+        out.bind(next);
+        out.handler(inlinedBodies.pop(), end, handler, INDEX_EXCEPTION);
+    }
+
+    private void loadBounds() {
+        out.var(ALOAD, RUNTIME_VAR).invoke(INVOKEVIRTUAL, RUNTIME, "lowerBound", "()I").var(ISTORE, LOWER);
+        out.var(ALOAD, RUNTIME_VAR).invoke(INVOKEVIRTUAL, RUNTIME, "upperBound", "()I").var(ISTORE, UPPER);
+    }
+
+    /**
+     * Raises the highest cell reached to the cell at an offset from the pointer.
+     */
+    private void reach(int offset) {
+        Label below = new Label();
+        out.var(ILOAD, PTR).iconst(offset).op(IADD).var(ISTORE, VALUE);
+        out.var(ILOAD, VALUE).var(ILOAD, REACH).jump(IF_ICMPLE, below);
+        out.var(ILOAD, VALUE).var(ISTORE, REACH);
+        out.bind(below);
+    }
+
+    /**
+     * Gives the highest cell reached to the runtime, before it uses the memory.
+     */
+    private void report() {
+        out.var(ALOAD, RUNTIME_VAR).var(ILOAD, REACH).invoke(INVOKEVIRTUAL, RUNTIME, "reached", "(I)V");
+    }
+
+    private void loadIterations() {
+        out.var(ALOAD, CELLS).var(ILOAD, PTR).op(IALOAD).op(I2L).var(LSTORE, ITERATIONS);
+    }
+
+    /**
+     * Accounts for the metrics of the iterations of a loop replaced by an idiom, as the VirtualMachine does.
+     */
+    private void accountIterations(int size, int writes, int moves) {
+        multiplyIterations(DATA_WRITE, writes);
+        multiplyIterations(DATA_MOVE, moves);
+        multiplyIterations(EXEC_MOVE, size + 1);
+        multiplyIterations(STEP_OFFSET, -size);
+        addLong(STEP_OFFSET, size);
+    }
+
+    private void multiplyIterations(int local, long factor) {
+        if (factor != 0) {
+            out.var(LLOAD, local).var(LLOAD, ITERATIONS).lconst(factor).op(LMUL).op(LADD).var(LSTORE, local);
+        }
+    }
+
+    private void addLong(int local, long value) {
+        if (value != 0) {
+            out.var(LLOAD, local).lconst(value).op(LADD).var(LSTORE, local);
+        }
+    }
+
+    /**
+     * Counts a metric known at compile time, the sum being written at the next flush.
+     */
+    private void count(int local, long value) {
+        pending[local] += value;
+    }
+
+    /**
+     * Writes the pending metrics, which must be done before any branch or branch target.
+     */
+    private void flush() {
+        for (int local = EXEC_MOVE; local <= DATA_READ; local += 2) {
+            addLong(local, pending[local]);
+            pending[local] = 0;
+        }
+    }
+
+    private Label label(int pc) {
+        return labels.computeIfAbsent(pc, k -> new Label());
+    }
+
+    /**
+     * Loads the generated class and finds its main method.
+     */
+    private static MethodHandle load(byte[] bytes) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            try {
+                Class<?> option = Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+                Object options = Array.newInstance(option, 0);
+                Method define = MethodHandles.Lookup.class.getMethod("defineHiddenClass", byte[].class, boolean.class, options.getClass());
+                MethodHandles.Lookup hidden = (MethodHandles.Lookup) define.invoke(lookup, bytes, true, options);
+                return hidden.findStatic(hidden.lookupClass(), MAIN, MAIN_TYPE);
+            } catch (ClassNotFoundException | NoSuchMethodException e) {
+                Class<?> generated = new GeneratedClassLoader().define(bytes);
+                return MethodHandles.publicLookup().findStatic(generated, MAIN, MAIN_TYPE);
+            }
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException(e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Class loader used when hidden classes are not available.
+     */
+    private static class GeneratedClassLoader extends ClassLoader {
+        GeneratedClassLoader() {
+            super(JitCompiler.class.getClassLoader());
+        }
+
+        Class<?> define(byte[] bytes) {
+            return defineClass(CLASS_NAME.replace('/', '.'), bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package mcga.brainfuck.engine;
+
+import mcga.brainfuck.Brainfuck;
+import mcga.brainfuck.Memory;
+import mcga.brainfuck.Metrics;
+import mcga.brainfuck.exceptions.BrainfuckIndexOutOfBoundsException;
+import mcga.brainfuck.exceptions.InstructionException;
+import mcga.brainfuck.exceptions.InvalidValueException;
+import mcga.brainfuck.instructions.Add;
+import mcga.brainfuck.instructions.Move;
+import mcga.brainfuck.instructions.MulAdd;
+import mcga.brainfuck.instructions.OffsetBlock;
+import mcga.brainfuck.instructions.Procedure;
+
+import java.io.PrintStream;
+
+/**
+ * Services called by the classes generated by the {@link JitCompiler}: procedure frames, input and output,
+ * instructions interpreted as such, exceptions and metrics.
+ * Its methods are public as the generated class may not be in the package of this class at runtime.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class JitRuntime {
+    private final Program program;
+    private final Memory memory;
+    private final PrintStream output = Brainfuck.getMainOutput();
+
+    /**
+     * Constructor of the JitRuntime class.
+     *
+     * @param program program whose constants are used by the generated class
+     * @param memory  memory the program works on
+     */
+    public JitRuntime(Program program, Memory memory) {
+        this.program = program;
+        this.memory = memory;
+    }
+
+    public int lowerBound() {
+        return memory.getLowerBound();
+    }
+
+    public int upperBound() {
+        return memory.getUpperBound();
+    }
+
+    /**
+     * Extends the range of the written cells of the memory to the highest cell reached by the generated code.
+     *
+     * @param index index of the cell
+     */
+    public void reached(int index) {
+        memory.reached(index);
+    }
+
+    /**
+     * Allocates the frame of a procedure.
+     *
+     * @param constant index of the call site in the constants
+     * @param ptr      index of the pointer before the call
+     * @return index of the pointer in the frame
+     * @throws InstructionException if the parameters cannot be read
+     */
+    public int enter(int constant, int ptr) throws InstructionException {
+        memory.setCurrentIndex(ptr);
+        ((Procedure) program.getConstant(constant)).enter();
+        return memory.getCurrentIndex();
+    }
+
+    /**
+     * Answers a call from the cache of the function, if it can.
+     *
+     * @param constant index of the call site in the constants
+     * @param ptr      index of the pointer before the call
+     * @return true if the call is complete, the pointer being unchanged
+     * @throws InstructionException if the parameters cannot be read
+     */
+    public boolean lookup(int constant, int ptr) throws InstructionException {
+        memory.setCurrentIndex(ptr);
+        return ((Procedure) program.getConstant(constant)).lookup();
+    }
+
+    /**
+     * Frees the frame of a procedure.
+     *
+     * @param constant index of the call site in the constants
+     * @param ptr      index of the pointer at the end of the procedure
+     * @return index of the pointer after the call
+     * @throws InstructionException if the result of a function is invalid
+     */
+    public int leave(int constant, int ptr) throws InstructionException {
+        memory.setCurrentIndex(ptr);
+        ((Procedure) program.getConstant(constant)).free();
+        return memory.getCurrentIndex();
+    }
+
+    public BrainfuckIndexOutOfBoundsException outOfFrame(int constant, BrainfuckIndexOutOfBoundsException e) {
+        return ((Procedure) program.getConstant(constant)).outOfFrame(e);
+    }
+
+    /**
+     * Interprets an instruction the compiler does not know.
+     *
+     * @param constant index of the instruction in the constants
+     * @param ptr      index of the pointer
+     * @return index of the pointer after the instruction
+     * @throws InstructionException if the instruction throws it
+     */
+    public int exec(int constant, int ptr) throws InstructionException {
+        memory.setCurrentIndex(ptr);
+        program.getConstant(constant).interpret();
+        return memory.getCurrentIndex();
+    }
+
+    public int read() throws InstructionException {
+        return VirtualMachine.read();
+    }
+
+    public void write(int value) {
+        output.print((char) value);
+    }
+
+    public MulAdd mulAdd(int constant) {
+        return (MulAdd) program.getConstant(constant);
+    }
+
+    /**
+     * Interprets the instructions of a block which leaves the bounds.
+     *
+     * @param constant index of the OffsetBlock in the constants
+     * @param ptr      index of the pointer
+     * @return index of the pointer after the block
+     * @throws InstructionException raised by the first invalid instruction
+     */
+    public int replay(int constant, int ptr) throws InstructionException {
+        memory.setCurrentIndex(ptr);
+        ((OffsetBlock) program.getConstant(constant)).replay();
+        return memory.getCurrentIndex();
+    }
+
+    public InvalidValueException invalidBlockAdd(int constant, int k, int current) {
+        return ((OffsetBlock) program.getConstant(constant)).getAdd(k).invalidValue(current);
+    }
+
+    public InvalidValueException invalidAdd(int constant, int current) {
+        return ((Add) program.getConstant(constant)).invalidValue(current);
+    }
+
+    public BrainfuckIndexOutOfBoundsException invalidMove(int constant, int ptr, int lower, int upper) {
+        return ((Move) program.getConstant(constant)).invalidIndex(ptr, lower, upper);
+    }
+
+    public static InvalidValueException invalidValue(int value) {
+        return new InvalidValueException(value);
+    }
+
+    public static BrainfuckIndexOutOfBoundsException invalidIndex(int index) {
+        return new BrainfuckIndexOutOfBoundsException(index);
+    }
+
+    /**
+     * Adds the metrics counted by a generated method.
+     */
+    public void account(long execMove, long stepOffset, long dataMove, long dataWrite, long dataRead) {
+        Metrics.incrExecMove(execMove);
+        Metrics.incrExecPos(execMove + stepOffset);
+        Metrics.incrDataMove(dataMove);
+        Metrics.incrDataWrite(dataWrite);
+        Metrics.incrDataRead(dataRead);
+    }
+}
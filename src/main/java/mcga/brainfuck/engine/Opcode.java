@@ -0,0 +1,81 @@
+package mcga.brainfuck.engine;
+
+/**
+ * Opcodes of the flat program executed by the {@link VirtualMachine}.
+ * Each opcode is followed in the code array by the number of operands given in its description.
+ *
+ * @author Team Make Coding Great Again
+ */
+public final class Opcode {
+    /** Increments the current cell. */
+    public static final int INCR = 0;
+    /** Decrements the current cell. */
+    public static final int DECR = 1;
+    /** Moves the pointer one cell to the left. */
+    public static final int LEFT = 2;
+    /** Moves the pointer one cell to the right. */
+    public static final int RIGHT = 3;
+    /** Reads a byte in the current cell. */
+    public static final int IN = 4;
+    /** Writes the current cell. */
+    public static final int OUT = 5;
+    /** Start of a loop, operands: address after the matching BACK, size of the loop body. */
+    public static final int JUMP = 6;
+    /** End of a loop, operands: address of the first instruction of the body, size of the loop body. */
+    public static final int BACK = 7;
+    /** Procedure call, operands: index of the call site in the constants, address of the procedure body. */
+    public static final int CALL = 8;
+    /** Interprets an instruction the compiler does not know, operand: index of the instruction in the constants. */
+    public static final int EXEC = 9;
+    /** End of the main program or of a procedure body. */
+    public static final int RET = 10;
+    /**
+     * Folded run of increments and decrements, operands: value to add, number of instructions replaced,
+     * lowest and highest value added during the run, index of the Add in the constants.
+     */
+    public static final int ADD = 11;
+    /**
+     * Folded run of shifts, operands: shift, number of instructions replaced, lowest and highest shift reached
+     * during the run, index of the Move in the constants.
+     */
+    public static final int MOVE = 12;
+
+    /** Clear loop, operand: size of the loop body. */
+    public static final int CLEAR = 13;
+    /** Scan loop, operands: shift of an iteration, size of the loop body. */
+    public static final int SCAN = 14;
+    /**
+     * Multiplication loop, followed by the loop itself which is executed when the shortcut cannot be taken,
+     * operands: index of the MulAdd in the constants, address after the loop.
+     */
+    public static final int MULADD = 15;
+    /** Straight-line block working at offsets from the pointer, operand: index of the OffsetBlock in the constants. */
+    public static final int BLOCK = 16;
+    /**
+     * Stops the execution, the address of this opcode being the one to resume from. Only used by the
+     * {@link PartialEvaluator} in place of the opcodes it cannot evaluate.
+     */
+    public static final int HALT = 17;
+    /**
+     * Allocates the frame of a procedure whose body is compiled in place of the call and moves the pointer at its
+     * start, operand: index of the call site in the constants.
+     */
+    public static final int ENTER = 18;
+    /** Frees the frame allocated by the matching ENTER, operand: index of the call site in the constants. */
+    public static final int LEAVE = 19;
+
+    private static final int[] LENGTHS = {1, 1, 1, 1, 1, 1, 3, 3, 3, 2, 1, 6, 6, 2, 3, 3, 2, 1, 2, 2};
+
+    private Opcode() {
+    }
+
+    /**
+     * Gets the number of words used by an opcode and its operands.
+     *
+     * @param opcode opcode to measure
+     * @return length of the opcode in the code array
+     */
+    public static int length(int opcode) {
+        return LENGTHS[opcode];
+    }
+}
@@ -0,0 +1,140 @@
+package mcga.brainfuck.engine;
+
+import mcga.brainfuck.Brainfuck;
+import mcga.brainfuck.Memory;
+import mcga.brainfuck.tape.IntTape;
+import mcga.brainfuck.Metrics;
+import mcga.brainfuck.exceptions.InstructionException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import static mcga.brainfuck.engine.Opcode.*;
+
+/**
+ * Runs the beginning of a program before its execution, until the first opcode which depends on the input or
+ * until a budget of opcodes, and captures the memory, the pointer, the output and the metrics it reaches.
+ * The opcodes of the main program which cannot be evaluated are the inputs, the instructions interpreted as
+ * such and the calls of procedures which read the input; the evaluation stops before the first of them.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class PartialEvaluator {
+    private final int[] code;
+    private final Map<Integer, Boolean> pureProcedures = new HashMap<>();
+
+    private PartialEvaluator(Program program) {
+        this.code = program.getCode();
+    }
+
+    /**
+     * Evaluates the input-free prefix of a program.
+     *
+     * @param program program to evaluate
+     * @param memory  memory the program starts with, left unchanged
+     * @param budget  number of opcodes of the main program after which the evaluation stops at the next
+     *                iteration of a loop, the procedures called being evaluated until they return
+     * @return state reached and address to resume from, null if the prefix raises an exception
+     */
+    public static Residual evaluate(Program program, Memory memory, long budget) {
+        int[] halted = new PartialEvaluator(program).haltImpureOpcodes();
+        Memory scratch = new Memory(new IntTape(memory.getSize()));
+        System.arraycopy(memory.openCells(), 0, scratch.getCells(), 0, memory.getSize());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        PrintStream stream = new PrintStream(output);
+        long[] before = metrics();
+        Memory previous = Brainfuck.getMemory();
+        Brainfuck.setMemory(scratch);
+        try {
+            scratch.setCurrentIndex(memory.getCurrentIndex());
+            VirtualMachine machine = new VirtualMachine(new Program(halted, program.getConstants()), scratch, stream);
+            int entry = machine.evaluate(budget);
+            stream.flush();
+            long[] after = metrics();
+            for (int i = 0; i < after.length; i++) {
+                after[i] -= before[i];
+            }
+            return new Residual(program, entry, scratch.getCells(), scratch.getCurrentIndex(), output.toByteArray(), after);
+        } catch (InstructionException e) {
+            // the program fails before reading anything, it is run as it is so that it fails the same way
+            return null;
+        } finally {
+            Brainfuck.setMemory(previous);
+            long[] after = metrics();
+            Metrics.incrExecMove(before[0] - after[0]);
+            Metrics.incrExecPos(before[1] - after[1]);
+            Metrics.incrDataMove(before[2] - after[2]);
+            Metrics.incrDataWrite(before[3] - after[3]);
+            Metrics.incrDataRead(before[4] - after[4]);
+        }
+    }
+
+    private static long[] metrics() {
+        return new long[]{Metrics.getExecMove(), Metrics.getExecStep(), Metrics.getDataMove(), Metrics.getDataWrite(), Metrics.getDataRead()};
+    }
+
+    /**
+     * Copies the code, the opcodes of the main program which cannot be evaluated being replaced by HALT.
+     */
+    private int[] haltImpureOpcodes() {
+        int[] halted = code.clone();
+        for (int pc = 0; code[pc] != RET; pc += Opcode.length(code[pc])) {
+            if (!isPureOpcode(pc) || code[pc] == ENTER && !isPureInlined(pc)) {
+                halted[pc] = HALT;
+            }
+        }
+        return halted;
+    }
+
+    /**
+     * Checks if an opcode neither reads the input, nor interprets an instruction, nor calls a procedure which does.
+     *
+     * @param pc address of the opcode
+     * @return true if the opcode can be evaluated
+     */
+    private boolean isPureOpcode(int pc) {
+        return code[pc] != IN && code[pc] != EXEC && (code[pc] != CALL || isPure(code[pc + 2]));
+    }
+
+    /**
+     * Checks if an inlined procedure body can be evaluated, so that the evaluation never stops within it.
+     *
+     * @param enter address of the ENTER opcode of the body
+     * @return true if the opcodes up to the matching LEAVE can be evaluated
+     */
+    private boolean isPureInlined(int enter) {
+        int depth = 0;
+        for (int pc = enter; ; pc += Opcode.length(code[pc])) {
+            if (!isPureOpcode(pc)) {
+                return false;
+            }
+            if (code[pc] == ENTER) {
+                depth++;
+            } else if (code[pc] == LEAVE && --depth == 0) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Checks if a procedure body and the procedures it calls neither read the input nor interpret instructions.
+     *
+     * @param entry address of the procedure body
+     * @return true if the procedure can be evaluated
+     */
+    private boolean isPure(int entry) {
+        Boolean pure = pureProcedures.get(entry);
+        if (pure != null) {
+            return pure;
+        }
+        pureProcedures.put(entry, true);
+        pure = true;
+        for (int pc = entry; pure && code[pc] != RET; pc += Opcode.length(code[pc])) {
+            pure = isPureOpcode(pc);
+        }
+        pureProcedures.put(entry, pure);
+        return pure;
+    }
+}
@@ -0,0 +1,42 @@
+package mcga.brainfuck.engine;
+
+import mcga.brainfuck.instructions.Instruction;
+
+/**
+ * Compiled form of a Brainf*ck program: an opcode stream in which every loop already knows the address
+ * of its matching bracket, and the instructions referenced by the opcodes.
+ *
+ * @author Team Make Coding Great Again
+ * @see ProgramCompiler
+ */
+public class Program {
+    private final int[] code;
+    private final Instruction[] constants;
+
+    /**
+     * Constructor of the Program class.
+     *
+     * @param code      opcodes and operands, the main program starting at address 0
+     * @param constants instructions referenced by the CALL and EXEC opcodes
+     */
+    Program(int[] code, Instruction[] constants) {
+        this.code = code;
+        this.constants = constants;
+    }
+
+    public int[] getCode() {
+        return code;
+    }
+
+    public Instruction getConstant(int i) {
+        return constants[i];
+    }
+
+    public int getConstantsSize() {
+        return constants.length;
+    }
+
+    Instruction[] getConstants() {
+        return constants;
+    }
+}
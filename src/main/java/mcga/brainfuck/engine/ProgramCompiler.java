@@ -0,0 +1,184 @@
+package mcga.brainfuck.engine;
+
+import mcga.brainfuck.instructions.*;
+import mcga.brainfuck.optimization.PassManager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static mcga.brainfuck.engine.Opcode.*;
+
+/**
+ * Lowers the parsed instructions into a {@link Program}.
+ * Loops are resolved once to the addresses of their matching bracket and each procedure body is compiled
+ * once, whatever the number of its call sites. The bodies of at most {@link #INLINE_BUDGET} instructions are
+ * compiled at each call site instead, between an ENTER and a LEAVE opcode, so that calling them does not go
+ * through a nested execution; the frame is still allocated since the body works on copies of the parameters.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class ProgramCompiler {
+    public static final int INLINE_BUDGET = 32;
+    private int[] code = new int[64];
+    private int length = 0;
+    private List<Instruction> constants = new ArrayList<>();
+    private Map<List<Instruction>, Integer> bodies = new IdentityHashMap<>();
+    private Deque<Procedure> pendingCalls = new ArrayDeque<>();
+    private Deque<Integer> pendingAddresses = new ArrayDeque<>();
+    private Map<List<Instruction>, Boolean> inlined = new IdentityHashMap<>();
+    private final int inlineBudget;
+
+    private ProgramCompiler(int inlineBudget) {
+        this.inlineBudget = inlineBudget;
+    }
+
+    /**
+     * Compiles a list of instructions and the procedures it calls, the small ones being inlined.
+     *
+     * @param instructions instructions of the main program
+     * @return compiled program
+     */
+    public static Program compile(List<Instruction> instructions) {
+        return compile(instructions, INLINE_BUDGET);
+    }
+
+    /**
+     * Compiles a list of instructions and the procedures it calls.
+     *
+     * @param instructions instructions of the main program
+     * @param inlineBudget number of instructions up to which a procedure body is inlined, 0 to call them all
+     * @return compiled program
+     */
+    public static Program compile(List<Instruction> instructions, int inlineBudget) {
+        ProgramCompiler compiler = new ProgramCompiler(inlineBudget);
+        compiler.compileList(instructions);
+        compiler.emit(RET);
+        compiler.compileProcedures();
+        return new Program(Arrays.copyOf(compiler.code, compiler.length), compiler.constants.toArray(new Instruction[0]));
+    }
+
+    /**
+     * Compiles the body of every called procedure and patches the call sites with the address of the body.
+     */
+    private void compileProcedures() {
+        while (!pendingCalls.isEmpty()) {
+            List<Instruction> body = pendingCalls.pop().getInstructions();
+            int address = pendingAddresses.pop();
+            Integer entry = bodies.get(body);
+            if (entry == null) {
+                entry = length;
+                bodies.put(body, entry);
+                compileList(body);
+                emit(RET);
+            }
+            code[address] = entry;
+        }
+    }
+
+    private void compileList(List<Instruction> instructions) {
+        for (Instruction instruction : instructions) {
+            compileInstruction(instruction);
+        }
+    }
+
+    private void compileInstruction(Instruction instruction) {
+        if (instruction instanceof Increment) {
+            emit(INCR);
+        } else if (instruction instanceof Decrement) {
+            emit(DECR);
+        } else if (instruction instanceof Left) {
+            emit(LEFT);
+        } else if (instruction instanceof Right) {
+            emit(RIGHT);
+        } else if (instruction instanceof Input) {
+            emit(IN);
+        } else if (instruction instanceof Output) {
+            emit(OUT);
+        } else if (instruction instanceof Add) {
+            Add add = (Add) instruction;
+            emit(ADD, add.getValue(), add.getCount(), add.getLowest(), add.getHighest(), constant(add));
+        } else if (instruction instanceof Move) {
+            Move move = (Move) instruction;
+            emit(MOVE, move.getValue(), move.getCount(), move.getLowest(), move.getHighest(), constant(move));
+        } else if (instruction instanceof OffsetBlock) {
+            emit(BLOCK, constant(instruction));
+        } else if (instruction instanceof Clear) {
+            emit(CLEAR, ((Clear) instruction).getLoop().getSize());
+        } else if (instruction instanceof Scan) {
+            Scan scan = (Scan) instruction;
+            emit(SCAN, scan.getStride(), scan.getLoop().getSize());
+        } else if (instruction instanceof MulAdd) {
+            int start = length;
+            emit(MULADD, constant(instruction), -1);
+            compileLoop(((MulAdd) instruction).getLoop());
+            code[start + 2] = length;
+        } else if (instruction instanceof Jump) {
+            compileLoop((Jump) instruction);
+        } else if (instruction instanceof Procedure && isInlined((Procedure) instruction)) {
+            int constant = constant(instruction);
+            emit(ENTER, constant);
+            compileList(((Procedure) instruction).getInstructions());
+            emit(LEAVE, constant);
+        } else if (instruction instanceof Procedure) {
+            emit(CALL, constant(instruction), -1);
+            pendingCalls.add((Procedure) instruction);
+            pendingAddresses.add(length - 1);
+        } else {
+            emit(EXEC, constant(instruction));
+        }
+    }
+
+    /**
+     * Checks if the body of a procedure is small enough to be compiled at its call sites.
+     *
+     * @param procedure called procedure
+     * @return true if the body has at most the budget of instructions and its calls are not answered by a cache
+     */
+    private boolean isInlined(Procedure procedure) {
+        if (procedure.isMemoized()) {
+            return false;
+        }
+        Boolean inline = inlined.get(procedure.getInstructions());
+        if (inline == null) {
+            inline = PassManager.count(procedure.getInstructions()) <= inlineBudget;
+            inlined.put(procedure.getInstructions(), inline);
+        }
+        return inline;
+    }
+
+    /**
+     * Compiles a loop, the Back closing the body of the Jump being replaced by a BACK opcode.
+     *
+     * @param jump beginning of the loop
+     */
+    private void compileLoop(Jump jump) {
+        int start = length;
+        emit(JUMP, -1, jump.getSize());
+        int body = length;
+        for (Instruction instruction : jump.getInstructions()) {
+            if (!(instruction instanceof Back)) {
+                compileInstruction(instruction);
+            }
+        }
+        emit(BACK, body, jump.getSize());
+        code[start + 1] = length;
+    }
+
+    private int constant(Instruction instruction) {
+        constants.add(instruction);
+        return constants.size() - 1;
+    }
+
+    private void emit(int... words) {
+        if (length + words.length > code.length) {
+            code = Arrays.copyOf(code, Math.max(code.length * 2, length + words.length));
+        }
+        System.arraycopy(words, 0, code, length, words.length);
+        length += words.length;
+    }
+}
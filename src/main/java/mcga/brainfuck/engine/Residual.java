@@ -0,0 +1,78 @@
+package mcga.brainfuck.engine;
+
+import mcga.brainfuck.Memory;
+import mcga.brainfuck.Metrics;
+import mcga.brainfuck.exceptions.BrainfuckIndexOutOfBoundsException;
+
+import java.io.PrintStream;
+
+/**
+ * Result of the {@link PartialEvaluator}: the state reached by the input-free prefix of a program, and the
+ * address the program resumes from with that state.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class Residual {
+    private final Program program;
+    private final int entry;
+    private final int[] cells;
+    private final int ptr;
+    private final byte[] output;
+    private final long[] metrics;
+
+    /**
+     * Constructor of the Residual class.
+     *
+     * @param program program evaluated
+     * @param entry   address to resume from, -1 if the whole program has been evaluated
+     * @param cells   cells of the memory at the end of the prefix
+     * @param ptr     index of the pointer at the end of the prefix
+     * @param output  bytes written by the prefix
+     * @param metrics EXEC_MOVE, EXEC_STEP, DATA_MOVE, DATA_WRITE and DATA_READ of the prefix
+     */
+    Residual(Program program, int entry, int[] cells, int ptr, byte[] output, long[] metrics) {
+        this.program = program;
+        this.entry = entry;
+        this.cells = cells;
+        this.ptr = ptr;
+        this.output = output;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Writes the state reached by the prefix: the cells and the pointer in the memory, the output in the
+     * stream and the metrics in the Metrics.
+     *
+     * @param memory memory the residual program works on
+     * @param stream stream the output of the program is written to
+     * @throws BrainfuckIndexOutOfBoundsException if the pointer is out of the memory
+     */
+    public void restore(Memory memory, PrintStream stream) throws BrainfuckIndexOutOfBoundsException {
+        System.arraycopy(cells, 0, memory.getCells(), 0, cells.length);
+        memory.setCurrentIndex(ptr);
+        stream.write(output, 0, output.length);
+        stream.flush();
+        Metrics.incrExecMove(metrics[0]);
+        Metrics.incrExecPos(metrics[1]);
+        Metrics.incrDataMove(metrics[2]);
+        Metrics.incrDataWrite(metrics[3]);
+        Metrics.incrDataRead(metrics[4]);
+    }
+
+    /**
+     * Checks if the whole program has been evaluated, in which case there is nothing left to run.
+     *
+     * @return true if the program has ended during the evaluation
+     */
+    public boolean isComplete() {
+        return entry < 0;
+    }
+
+    public Program getProgram() {
+        return program;
+    }
+
+    public int getEntry() {
+        return entry;
+    }
+}
@@ -0,0 +1,504 @@
+package mcga.brainfuck.engine;
+
+import mcga.brainfuck.Brainfuck;
+import mcga.brainfuck.Memory;
+import mcga.brainfuck.Metrics;
+import mcga.brainfuck.exceptions.BrainfuckIndexOutOfBoundsException;
+import mcga.brainfuck.exceptions.InstructionException;
+import mcga.brainfuck.exceptions.InvalidInputFileException;
+import mcga.brainfuck.exceptions.InvalidValueException;
+import mcga.brainfuck.instructions.Add;
+import mcga.brainfuck.instructions.Input;
+import mcga.brainfuck.instructions.Move;
+import mcga.brainfuck.instructions.MulAdd;
+import mcga.brainfuck.instructions.OffsetBlock;
+import mcga.brainfuck.instructions.Scan;
+import mcga.brainfuck.instructions.Procedure;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+
+import static mcga.brainfuck.Memory.MAX_CELL_VALUE;
+import static mcga.brainfuck.Memory.MIN_CELL_VALUE;
+import static mcga.brainfuck.engine.Opcode.*;
+
+/**
+ * Executes a {@link Program} in a single dispatch loop, the pointer, the cells and the metrics being kept in
+ * local variables and written back when the program or a procedure body returns. The highest cell reached is
+ * kept as well and given to the memory before it is called, so that the frames are allocated without going through
+ * the whole memory.
+ * The values of the metrics and the exceptions raised are the same as when interpreting the instructions.
+ * With a {@link Checkpointer}, the execution is suspended at the start of an iteration of a loop, as when the
+ * budget of a partial evaluation is exhausted, the calls in progress returning without freeing their frame. The
+ * state is then saved in a {@link Checkpoint} and the execution resumes from it, the calls being entered again,
+ * so that the dispatch loop does not pay for checkpointing between two suspensions.
+ * The execution is never suspended within an inlined procedure body, whose frame would not be entered again.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class VirtualMachine {
+    private final Program program;
+    private final Memory memory;
+    private final PrintStream output;
+    private int halt = -1;
+    private int haltIndex;
+    private int haltDepth;
+    private Checkpointer checkpointer;
+    private int[] calls = new int[16];
+    private int depth = 0;
+    private Checkpoint resumed;
+    private int restoredFrames = 0;
+    private int[] inlined = new int[16];
+    private int inlineDepth = 0;
+
+    /**
+     * Constructor of the VirtualMachine class.
+     *
+     * @param program program to execute
+     * @param memory  memory the program works on
+     */
+    public VirtualMachine(Program program, Memory memory) {
+        this(program, memory, Brainfuck.getMainOutput());
+    }
+
+    /**
+     * Constructor of the VirtualMachine class writing the outputs to a given stream.
+     *
+     * @param program program to execute
+     * @param memory  memory the program works on
+     * @param output  stream the outputs are written to
+     */
+    VirtualMachine(Program program, Memory memory, PrintStream output) {
+        this.program = program;
+        this.memory = memory;
+        this.output = output;
+    }
+
+    /**
+     * Executes the main program.
+     *
+     * @throws InstructionException if an instruction can cause an issue during the execution
+     */
+    public void run() throws InstructionException {
+        run(0);
+    }
+
+    /**
+     * Executes the main program from a given address, such as the entry of a residual program.
+     *
+     * @param entry address of the first opcode to execute
+     * @throws InstructionException if an instruction can cause an issue during the execution
+     */
+    public void run(int entry) throws InstructionException {
+        if (checkpointer != null) {
+            checkpointer.start(0);
+        }
+        execute(entry, Long.MAX_VALUE);
+        suspended();
+    }
+
+    /**
+     * Writes checkpoints of the execution.
+     *
+     * @param checkpointer decides when the checkpoints are written
+     */
+    public void setCheckpointer(Checkpointer checkpointer) {
+        this.checkpointer = checkpointer;
+    }
+
+    /**
+     * Executes the main program from the state saved by a checkpoint, which is copied to the memory.
+     *
+     * @param checkpoint state of the execution to resume
+     * @throws InstructionException if an instruction can cause an issue during the execution
+     * @throws IOException          if the checkpoint does not match the program or the memory
+     */
+    public void resume(Checkpoint checkpoint) throws InstructionException, IOException {
+        if (checkpoint.getFingerprint() != Checkpoint.fingerprint(program)) {
+            throw new IOException("The checkpoint was not written by this program");
+        }
+        checkpoint.restore(memory);
+        if (checkpointer != null) {
+            checkpointer.start(checkpoint.getInputOffset());
+        }
+        continueFrom(checkpoint);
+        suspended();
+    }
+
+    /**
+     * Writes a checkpoint, if it is due, each time the execution is suspended and resumes it, until the program
+     * ends.
+     *
+     * @throws InstructionException if an instruction can cause an issue during the execution
+     */
+    private void suspended() throws InstructionException {
+        while (halt >= 0) {
+            boolean due = checkpointer.isDue();
+            Checkpoint checkpoint = capture(due);
+            memory.clearFrames();
+            if (due) {
+                checkpointer.write(checkpoint);
+            }
+            continueFrom(checkpoint);
+        }
+    }
+
+    /**
+     * Saves the state of the suspended execution, whose metrics have been added to the {@link Metrics}.
+     *
+     * @param cells true to copy the cells, which are only needed to write the checkpoint
+     * @return state of the execution
+     */
+    private Checkpoint capture(boolean cells) {
+        Checkpoint.Frame[] frames = new Checkpoint.Frame[haltDepth];
+        for (int i = 0; i < haltDepth; i++) {
+            frames[i] = new Checkpoint.Frame(calls[i], memory.getFramePrevIndex(i), memory.getFrameStart(i));
+        }
+        long[] metrics = {Metrics.getExecMove(), Metrics.getExecStep(), Metrics.getDataMove(), Metrics.getDataRead(),
+                Metrics.getDataWrite()};
+        return new Checkpoint(Checkpoint.fingerprint(program), halt, haltIndex, frames, checkpointer.getInputOffset(),
+                metrics, memory.getSize(), cells ? Arrays.copyOf(memory.openCells(), memory.getLastUsedIndex() + 1) : null);
+    }
+
+    /**
+     * Executes the program from a checkpoint whose state is already in the memory, the calls in progress being
+     * entered again.
+     *
+     * @param checkpoint state of the execution
+     * @throws InstructionException if an instruction can cause an issue during the execution
+     */
+    private void continueFrom(Checkpoint checkpoint) throws InstructionException {
+        memory.setCurrentIndex(checkpoint.getPtr());
+        resumed = checkpoint;
+        restoredFrames = 0;
+        halt = -1;
+        execute(resumeAddress(), Long.MAX_VALUE);
+    }
+
+    /**
+     * Gets the address from which the next level of the resumed execution starts: the CALL opcode of the next
+     * call in progress, or the address of the checkpoint in the innermost one.
+     */
+    private int resumeAddress() {
+        return restoredFrames < resumed.getFrameCount() ? resumed.getFrame(restoredFrames).getCall() : resumed.getPc();
+    }
+
+    /**
+     * Executes the main program until a HALT opcode or until the budget is exhausted.
+     *
+     * @param budget number of opcodes of the main program after which the execution stops at the next
+     *               iteration of a loop
+     * @return address to resume from, -1 if the program has ended
+     * @throws InstructionException if an instruction can cause an issue during the execution
+     */
+    int evaluate(long budget) throws InstructionException {
+        execute(0, budget);
+        return halt;
+    }
+
+    /**
+     * Executes the code from the given address until the next RET opcode.
+     *
+     * @param pc     address of the first opcode to execute
+     * @param budget number of opcodes after which the execution stops when a loop is iterated again
+     * @throws InstructionException if an instruction can cause an issue during the execution
+     */
+    private void execute(int pc, long budget) throws InstructionException {
+        final int[] code = program.getCode();
+        final int[] cells = memory.openCells();
+        int ptr = memory.getCurrentIndex();
+        int reach = ptr;
+        int lower = memory.getLowerBound();
+        int upper = memory.getUpperBound();
+        long execMove = 0;
+        long stepOffset = 0;
+        long dataMove = 0;
+        long dataWrite = 0;
+        long dataRead = 0;
+        long limit = checkpointer == null ? budget : checkpointer.getSteps();
+        int inlineBase = inlineDepth;
+        try {
+            while (true) {
+                execMove++;
+                switch (code[pc]) {
+                    case INCR: {
+                        dataWrite++;
+                        int value = cells[ptr] + 1;
+                        if (value > MAX_CELL_VALUE) {
+                            throw new InvalidValueException(value);
+                        }
+                        cells[ptr] = value;
+                        pc++;
+                        break;
+                    }
+                    case DECR: {
+                        dataWrite++;
+                        int value = cells[ptr] - 1;
+                        if (value < MIN_CELL_VALUE) {
+                            throw new InvalidValueException(value);
+                        }
+                        cells[ptr] = value;
+                        pc++;
+                        break;
+                    }
+                    case LEFT:
+                        dataMove++;
+                        if (ptr - 1 < lower) {
+                            throw new BrainfuckIndexOutOfBoundsException(ptr - 1);
+                        }
+                        ptr--;
+                        pc++;
+                        break;
+                    case RIGHT:
+                        dataMove++;
+                        if (ptr + 1 > upper) {
+                            throw new BrainfuckIndexOutOfBoundsException(ptr + 1);
+                        }
+                        ptr++;
+                        if (ptr > reach) {
+                            reach = ptr;
+                        }
+                        pc++;
+                        break;
+                    case ADD: {
+                        int value = cells[ptr];
+                        if (value + code[pc + 3] < MIN_CELL_VALUE || value + code[pc + 4] > MAX_CELL_VALUE) {
+                            throw ((Add) program.getConstant(code[pc + 5])).invalidValue(value);
+                        }
+                        cells[ptr] = value + code[pc + 1];
+                        dataWrite += code[pc + 2];
+                        execMove += code[pc + 2] - 1;
+                        pc += 6;
+                        break;
+                    }
+                    case MOVE:
+                        if (ptr + code[pc + 3] < lower || ptr + code[pc + 4] > upper) {
+                            throw ((Move) program.getConstant(code[pc + 5])).invalidIndex(ptr, lower, upper);
+                        }
+                        ptr += code[pc + 1];
+                        if (ptr > reach) {
+                            reach = ptr;
+                        }
+                        dataMove += code[pc + 2];
+                        execMove += code[pc + 2] - 1;
+                        pc += 6;
+                        break;
+                    case BLOCK: {
+                        OffsetBlock block = (OffsetBlock) program.getConstant(code[pc + 1]);
+                        if (ptr + block.getLowest() < lower || ptr + block.getHighest() > upper) {
+                            memory.reached(reach);
+                            memory.setCurrentIndex(ptr);
+                            block.replay();
+                            reach = ptr = memory.getCurrentIndex();
+                        } else {
+                            reach = Math.max(reach, ptr + block.getHighest());
+                            block.apply(cells, ptr, output);
+                            ptr += block.getValue();
+                        }
+                        execMove += block.getCount() - 1;
+                        dataMove += block.getMoves();
+                        dataWrite += block.getWrites();
+                        dataRead += block.getReads();
+                        pc += 2;
+                        break;
+                    }
+                    case CLEAR: {
+                        long iterations = cells[ptr];
+                        int size = code[pc + 1];
+                        cells[ptr] = 0;
+                        dataRead++;
+                        dataWrite += iterations;
+                        execMove += iterations * (size + 1);
+                        stepOffset += size * (1 - iterations);
+                        pc += 2;
+                        break;
+                    }
+                    case SCAN: {
+                        int stride = code[pc + 1];
+                        int size = code[pc + 2];
+                        int end = Scan.scan(cells, ptr, stride, lower, upper);
+                        long iterations = (end - ptr) / stride;
+                        ptr = end;
+                        if (ptr > reach) {
+                            reach = ptr;
+                        }
+                        dataRead++;
+                        dataMove += iterations * Math.abs(stride);
+                        execMove += iterations * (size + 1);
+                        stepOffset += size * (1 - iterations);
+                        pc += 3;
+                        break;
+                    }
+                    case MULADD: {
+                        MulAdd mulAdd = (MulAdd) program.getConstant(code[pc + 1]);
+                        long iterations = cells[ptr];
+                        if (iterations == 0 || mulAdd.apply(cells, ptr, lower, upper)) {
+                            reach = Math.max(reach, ptr + mulAdd.getHighest());
+                            int size = mulAdd.getLoop().getSize();
+                            dataRead++;
+                            dataWrite += iterations * mulAdd.getWrites();
+                            dataMove += iterations * mulAdd.getMoves();
+                            execMove += iterations * (size + 1);
+                            stepOffset += size * (1 - iterations);
+                            pc = code[pc + 2];
+                        } else {
+                            execMove--;
+                            pc += 3;
+                        }
+                        break;
+                    }
+                    case IN:
+                        dataWrite++;
+                        cells[ptr] = read();
+                        pc++;
+                        break;
+                    case OUT:
+                        dataRead++;
+                        output.print((char) cells[ptr]);
+                        pc++;
+                        break;
+                    case JUMP:
+                        dataRead++;
+                        if (cells[ptr] == 0) {
+                            stepOffset += code[pc + 2];
+                            pc = code[pc + 1];
+                        } else {
+                            pc += 3;
+                        }
+                        break;
+                    case BACK:
+                        if (cells[ptr] != 0) {
+                            stepOffset -= code[pc + 2];
+                            pc = code[pc + 1];
+                            if (execMove > limit && inlineDepth == 0) {
+                                halt = pc;
+                                haltIndex = ptr;
+                                haltDepth = depth;
+                                return;
+                            }
+                        } else {
+                            pc += 3;
+                        }
+                        break;
+                    case CALL: {
+                        Procedure procedure = (Procedure) program.getConstant(code[pc + 1]);
+                        int body = code[pc + 2];
+                        memory.reached(reach);
+                        memory.setCurrentIndex(ptr);
+                        if (resumed != null && restoredFrames < resumed.getFrameCount()) {
+                            Checkpoint.Frame frame = resumed.getFrame(restoredFrames++);
+                            procedure.restore(frame.getPrevIndex(), frame.getStartIndex());
+                            body = resumeAddress();
+                            execMove--;
+                        } else if (procedure.lookup()) {
+                            reach = ptr = memory.getCurrentIndex();
+                            pc += 3;
+                            break;
+                        } else {
+                            procedure.enter();
+                        }
+                        if (depth == calls.length) {
+                            calls = Arrays.copyOf(calls, depth * 2);
+                        }
+                        calls[depth++] = pc;
+                        try {
+                            execute(body, Long.MAX_VALUE);
+                        } catch (BrainfuckIndexOutOfBoundsException e) {
+                            throw procedure.outOfFrame(e);
+                        }
+                        depth--;
+                        if (halt >= 0) {
+                            // suspended, the frame is kept for the checkpoint and the call entered again on resuming
+                            return;
+                        }
+                        procedure.free();
+                        reach = ptr = memory.getCurrentIndex();
+                        pc += 3;
+                        break;
+                    }
+                    case ENTER: {
+                        memory.reached(reach);
+                        memory.setCurrentIndex(ptr);
+                        ((Procedure) program.getConstant(code[pc + 1])).enter();
+                        reach = ptr = memory.getCurrentIndex();
+                        lower = memory.getLowerBound();
+                        upper = memory.getUpperBound();
+                        if (inlineDepth == inlined.length) {
+                            inlined = Arrays.copyOf(inlined, inlineDepth * 2);
+                        }
+                        inlined[inlineDepth++] = code[pc + 1];
+                        pc += 2;
+                        break;
+                    }
+                    case LEAVE:
+                        execMove--;
+                        memory.reached(reach);
+                        memory.setCurrentIndex(ptr);
+                        ((Procedure) program.getConstant(code[pc + 1])).free();
+                        reach = ptr = memory.getCurrentIndex();
+                        lower = memory.getLowerBound();
+                        upper = memory.getUpperBound();
+                        inlineDepth--;
+                        pc += 2;
+                        break;
+                    case EXEC:
+                        memory.reached(reach);
+                        memory.setCurrentIndex(ptr);
+                        program.getConstant(code[pc + 1]).interpret();
+                        reach = ptr = memory.getCurrentIndex();
+                        pc += 2;
+                        break;
+                    case RET:
+                        execMove--;
+                        return;
+                    case HALT:
+                        halt = pc;
+                        execMove--;
+                        return;
+                    default:
+                        throw new IllegalStateException("Unknown opcode " + code[pc] + " at " + pc);
+                }
+            }
+        } catch (BrainfuckIndexOutOfBoundsException e) {
+            while (inlineDepth > inlineBase) {
+                e = ((Procedure) program.getConstant(inlined[--inlineDepth])).outOfFrame(e);
+            }
+            throw e;
+        } finally {
+            memory.reached(reach);
+            memory.setCurrentIndex(ptr);
+            flush(execMove, stepOffset, dataMove, dataWrite, dataRead);
+        }
+    }
+
+    /**
+     * Adds the metrics counted by the dispatch loop to the {@link Metrics}.
+     */
+    private static void flush(long execMove, long stepOffset, long dataMove, long dataWrite, long dataRead) {
+        Metrics.incrExecMove(execMove);
+        Metrics.incrExecPos(execMove + stepOffset);
+        Metrics.incrDataMove(dataMove);
+        Metrics.incrDataWrite(dataWrite);
+        Metrics.incrDataRead(dataRead);
+    }
+
+    /**
+     * Reads the next byte of the input, as the Input instruction does.
+     *
+     * @return value to store in the current cell
+     * @throws InstructionException if the input cannot be read or the value is invalid
+     */
+    static int read() throws InstructionException {
+        int c;
+        try {
+            c = Input.read();
+        } catch (IOException e) {
+            throw new InvalidInputFileException(e.getMessage());
+        }
+        if (c < MIN_CELL_VALUE || c > MAX_CELL_VALUE) {
+            throw new InvalidValueException(c);
+        }
+        return c;
+    }
+}
@@ -0,0 +1,19 @@
+package mcga.brainfuck.engine.classfile;
+
+/**
+ * Exception thrown when a class exceeds a limit of the class file format, such as the size of the code of a method
+ * or the number of constants, so that the program it holds has to be run otherwise.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class ClassTooLargeException extends RuntimeException {
+
+    /**
+     * Constructor of the ClassTooLargeException class.
+     *
+     * @param message limit exceeded
+     */
+    public ClassTooLargeException(String message) {
+        super(message);
+    }
+}
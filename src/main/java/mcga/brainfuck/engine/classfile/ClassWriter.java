@@ -0,0 +1,200 @@
+package mcga.brainfuck.engine.classfile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a class file containing static methods only.
+ * The class file version predates the stack map frames, so that the methods can be written without computing them.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class ClassWriter {
+    public static final int ACC_PUBLIC = 0x0001;
+    public static final int ACC_PRIVATE = 0x0002;
+    public static final int ACC_STATIC = 0x0008;
+    public static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int VERSION = 49;
+    private static final int MAX_CONSTANTS = 65535;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+    private final DataOutputStream poolOut = new DataOutputStream(pool);
+    private final Map<String, Integer> constants = new HashMap<>();
+    private int poolSize = 1;
+    private final List<Object[]> methods = new ArrayList<>();
+    private final int thisClass;
+    private final int superClass;
+
+    /**
+     * Constructor of the ClassWriter class.
+     *
+     * @param name internal name of the class, such as "mcga/brainfuck/engine/CompiledProgram"
+     */
+    public ClassWriter(String name) {
+        thisClass = classRef(name);
+        superClass = classRef("java/lang/Object");
+    }
+
+    /**
+     * Adds a method to the class.
+     *
+     * @param access     access flags of the method
+     * @param name       name of the method
+     * @param descriptor descriptor of the method
+     * @param maxStack   maximum depth of the operand stack
+     * @param maxLocals  number of local variable slots, parameters included
+     * @return writer of the code of the method
+     */
+    public CodeWriter method(int access, String name, String descriptor, int maxStack, int maxLocals) {
+        CodeWriter code = new CodeWriter(this, maxStack, maxLocals);
+        methods.add(new Object[]{access, utf8(name), utf8(descriptor), code});
+        return code;
+    }
+
+    /**
+     * Builds the class file.
+     *
+     * @return bytes of the class file
+     * @throws ClassTooLargeException if the class exceeds a limit of the class file format
+     */
+    public byte[] toByteArray() {
+        int codeName = utf8("Code");
+        List<byte[]> attributes = new ArrayList<>();
+        for (Object[] method : methods) {
+            attributes.add(((CodeWriter) method[3]).toAttribute());
+        }
+        if (poolSize > MAX_CONSTANTS) {
+            throw new ClassTooLargeException("Too many constants: " + poolSize);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeShort(0);
+            out.writeShort(VERSION);
+            out.writeShort(poolSize);
+            pool.writeTo(out);
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0);
+            out.writeShort(0);
+            out.writeShort(methods.size());
+            for (int i = 0; i < methods.size(); i++) {
+                Object[] method = methods.get(i);
+                byte[] attribute = attributes.get(i);
+                out.writeShort((Integer) method[0]);
+                out.writeShort((Integer) method[1]);
+                out.writeShort((Integer) method[2]);
+                out.writeShort(1);
+                out.writeShort(codeName);
+                out.writeInt(attribute.length);
+                out.write(attribute);
+            }
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    int utf8(String value) {
+        Integer index = constants.get("U" + value);
+        if (index == null) {
+            index = add("U" + value, 1);
+            write(CONSTANT_UTF8);
+            try {
+                poolOut.writeUTF(value);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return index;
+    }
+
+    int constant(int value) {
+        Integer index = constants.get("I" + value);
+        if (index == null) {
+            index = add("I" + value, 1);
+            write(CONSTANT_INTEGER);
+            writeInt(value);
+        }
+        return index;
+    }
+
+    int constant(long value) {
+        Integer index = constants.get("J" + value);
+        if (index == null) {
+            index = add("J" + value, 2);
+            write(CONSTANT_LONG);
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+        return index;
+    }
+
+    int classRef(String name) {
+        Integer index = constants.get("C" + name);
+        if (index == null) {
+            int nameIndex = utf8(name);
+            index = add("C" + name, 1);
+            write(CONSTANT_CLASS);
+            writeShort(nameIndex);
+        }
+        return index;
+    }
+
+    int methodRef(String owner, String name, String descriptor) {
+        String key = "M" + owner + '.' + name + descriptor;
+        Integer index = constants.get(key);
+        if (index == null) {
+            int ownerIndex = classRef(owner);
+            int nameIndex = utf8(name);
+            int descriptorIndex = utf8(descriptor);
+            int nameAndType = poolSize;
+            poolSize++;
+            write(CONSTANT_NAME_AND_TYPE);
+            writeShort(nameIndex);
+            writeShort(descriptorIndex);
+            index = add(key, 1);
+            write(CONSTANT_METHODREF);
+            writeShort(ownerIndex);
+            writeShort(nameAndType);
+        }
+        return index;
+    }
+
+    private int add(String key, int slots) {
+        int index = poolSize;
+        constants.put(key, index);
+        poolSize += slots;
+        return index;
+    }
+
+    private void write(int tag) {
+        pool.write(tag);
+    }
+
+    private void writeShort(int value) {
+        pool.write(value >> 8);
+        pool.write(value);
+    }
+
+    private void writeInt(int value) {
+        writeShort(value >>> 16);
+        writeShort(value & 0xFFFF);
+    }
+}
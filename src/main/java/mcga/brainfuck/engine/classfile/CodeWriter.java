@@ -0,0 +1,292 @@
+package mcga.brainfuck.engine.classfile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes the bytecode of a method. Only the instructions needed by the compiler are provided.
+ * A branch whose offset does not fit in 16 bits is written as a GOTO_W, preceded by the opposite condition for a
+ * conditional branch. The offset of a backward branch is known when it is written; a forward branch is written in
+ * 16 bits until the method is written again by {@link #widen()}, the offsets which did not fit being reported by
+ * {@link #hasOverflow()}.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class CodeWriter {
+    public static final int ICONST_0 = 0x03;
+    public static final int ILOAD = 0x15;
+    public static final int LLOAD = 0x16;
+    public static final int ALOAD = 0x19;
+    public static final int ISTORE = 0x36;
+    public static final int LSTORE = 0x37;
+    public static final int ASTORE = 0x3a;
+    public static final int IALOAD = 0x2e;
+    public static final int IASTORE = 0x4f;
+    public static final int POP = 0x57;
+    public static final int DUP = 0x59;
+    public static final int IADD = 0x60;
+    public static final int LADD = 0x61;
+    public static final int ISUB = 0x64;
+    public static final int LSUB = 0x65;
+    public static final int LMUL = 0x69;
+    public static final int IDIV = 0x6c;
+    public static final int I2L = 0x85;
+    public static final int IFEQ = 0x99;
+    public static final int IFNE = 0x9a;
+    public static final int IF_ICMPLT = 0xa1;
+    public static final int IF_ICMPGE = 0xa2;
+    public static final int IF_ICMPGT = 0xa3;
+    public static final int IF_ICMPLE = 0xa4;
+    public static final int GOTO = 0xa7;
+    public static final int GOTO_W = 0xc8;
+    public static final int IRETURN = 0xac;
+    public static final int RETURN = 0xb1;
+    public static final int INVOKEVIRTUAL = 0xb6;
+    public static final int INVOKESTATIC = 0xb8;
+    public static final int ATHROW = 0xbf;
+
+    private static final int MAX_CODE_SIZE = 65535;
+
+    private final ClassWriter owner;
+    private byte[] code = new byte[256];
+    private int length = 0;
+    private final List<int[]> handlers = new ArrayList<>();
+    private final List<Label[]> handlerLabels = new ArrayList<>();
+    private final int maxStack;
+    private final int maxLocals;
+    private boolean wideBranches = false;
+    private boolean overflow = false;
+
+    CodeWriter(ClassWriter owner, int maxStack, int maxLocals) {
+        this.owner = owner;
+        this.maxStack = maxStack;
+        this.maxLocals = maxLocals;
+    }
+
+    public CodeWriter op(int opcode) {
+        write(opcode);
+        return this;
+    }
+
+    /**
+     * Writes an instruction working on a local variable.
+     *
+     * @param opcode load or store instruction
+     * @param local  index of the local variable
+     * @return this writer
+     */
+    public CodeWriter var(int opcode, int local) {
+        if (local > 255) {
+            write(0xc4);
+            write(opcode);
+            writeShort(local);
+        } else {
+            write(opcode);
+            write(local);
+        }
+        return this;
+    }
+
+    /**
+     * Pushes an int constant with the shortest instruction available.
+     *
+     * @param value constant to push
+     * @return this writer
+     */
+    public CodeWriter iconst(int value) {
+        if (value >= -1 && value <= 5) {
+            write(ICONST_0 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            write(0x10);
+            write(value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            write(0x11);
+            writeShort(value);
+        } else {
+            write(0x13);
+            writeShort(owner.constant(value));
+        }
+        return this;
+    }
+
+    /**
+     * Pushes a long constant.
+     *
+     * @param value constant to push
+     * @return this writer
+     */
+    public CodeWriter lconst(long value) {
+        if (value == 0 || value == 1) {
+            write(0x09 + (int) value);
+        } else {
+            write(0x14);
+            writeShort(owner.constant(value));
+        }
+        return this;
+    }
+
+    /**
+     * Writes a method invocation.
+     *
+     * @param opcode     INVOKESTATIC or INVOKEVIRTUAL
+     * @param owner      internal name of the class declaring the method
+     * @param name       name of the method
+     * @param descriptor descriptor of the method
+     * @return this writer
+     */
+    public CodeWriter invoke(int opcode, String owner, String name, String descriptor) {
+        write(opcode);
+        writeShort(this.owner.methodRef(owner, name, descriptor));
+        return this;
+    }
+
+    /**
+     * Writes a branch to a label, bound or not.
+     *
+     * @param opcode branch instruction
+     * @param label  target of the branch
+     * @return this writer
+     */
+    public CodeWriter jump(int opcode, Label label) {
+        int position = length;
+        if (label.isBound() ? label.position - position >= Short.MIN_VALUE : !wideBranches) {
+            write(opcode);
+            if (label.isBound()) {
+                writeShort(label.position - position);
+            } else {
+                label.references.add(new int[]{position, position + 1, 2});
+                writeShort(0);
+            }
+            return this;
+        }
+        if (opcode != GOTO) {
+            // the opposite condition skips the GOTO_W
+            write(((opcode - IFEQ) ^ 1) + IFEQ);
+            writeShort(8);
+        }
+        position = length;
+        write(GOTO_W);
+        if (label.isBound()) {
+            writeInt(label.position - position);
+        } else {
+            label.references.add(new int[]{position, position + 1, 4});
+            writeInt(0);
+        }
+        return this;
+    }
+
+    /**
+     * Binds a label to the current position and patches the branches already referencing it.
+     *
+     * @param label label to bind
+     * @return this writer
+     */
+    public CodeWriter bind(Label label) {
+        label.position = length;
+        for (int[] reference : label.references) {
+            int offset = label.position - reference[0];
+            if (reference[2] == 2 && offset > Short.MAX_VALUE) {
+                overflow = true;
+                continue;
+            }
+            for (int k = 0; k < reference[2]; k++) {
+                code[reference[1] + k] = (byte) (offset >> 8 * (reference[2] - 1 - k));
+            }
+        }
+        label.references.clear();
+        return this;
+    }
+
+    /**
+     * Checks if a forward branch has been written whose offset does not fit in 16 bits, the method having then to
+     * be written again after {@link #widen()}.
+     *
+     * @return true if an offset is missing
+     */
+    public boolean hasOverflow() {
+        return overflow;
+    }
+
+    /**
+     * Discards the code written so far, the forward branches written from now on being GOTO_W ones.
+     */
+    public void widen() {
+        length = 0;
+        handlers.clear();
+        handlerLabels.clear();
+        wideBranches = true;
+        overflow = false;
+    }
+
+    /**
+     * Declares an exception handler.
+     *
+     * @param start     first instruction protected
+     * @param end       first instruction not protected
+     * @param handler   start of the handler
+     * @param exception internal name of the caught exception class
+     */
+    public void handler(Label start, Label end, Label handler, String exception) {
+        handlers.add(new int[]{owner.classRef(exception)});
+        handlerLabels.add(new Label[]{start, end, handler});
+    }
+
+    public int size() {
+        return length;
+    }
+
+    /**
+     * Builds the Code attribute of the method.
+     *
+     * @return content of the attribute
+     * @throws ClassTooLargeException if the method is too large for the JVM
+     */
+    byte[] toAttribute() {
+        if (length > MAX_CODE_SIZE) {
+            throw new ClassTooLargeException("Method too large: " + length + " bytes");
+        }
+        if (overflow) {
+            throw new IllegalStateException("Branch offset out of 16 bits");
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(length);
+            out.write(code, 0, length);
+            out.writeShort(handlers.size());
+            for (int i = 0; i < handlers.size(); i++) {
+                Label[] labels = handlerLabels.get(i);
+                out.writeShort(labels[0].position);
+                out.writeShort(labels[1].position);
+                out.writeShort(labels[2].position);
+                out.writeShort(handlers.get(i)[0]);
+            }
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private void write(int b) {
+        if (length == code.length) {
+            code = Arrays.copyOf(code, length * 2);
+        }
+        code[length++] = (byte) b;
+    }
+
+    private void writeShort(int value) {
+        write(value >> 8);
+        write(value);
+    }
+
+    private void writeInt(int value) {
+        writeShort(value >> 16);
+        writeShort(value);
+    }
+}
@@ -0,0 +1,18 @@
+package mcga.brainfuck.engine.classfile;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Position in the bytecode of a method, which can be the target of a branch before being bound.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class Label {
+    int position = -1;
+    final List<int[]> references = new ArrayList<>();
+
+    public boolean isBound() {
+        return position >= 0;
+    }
+}
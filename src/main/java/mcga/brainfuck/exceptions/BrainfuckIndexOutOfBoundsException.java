@@ -1,6 +1,6 @@
 package mcga.brainfuck.exceptions;
 
-import mcga.brainfuck.Memory;
+import mcga.brainfuck.Brainfuck;
 
 /**
  * This exception is called if the pointer of the memory points on a cell not in the possible values :
@@ -19,7 +19,7 @@ public class BrainfuckIndexOutOfBoundsException extends InstructionException {
         super("invalid Index: " + e.index + " ,value must be between " + min + " and " + max + " " + msg);
     }
     public BrainfuckIndexOutOfBoundsException(int i) {
-        super("invalid Index: " + i + " ,value must be between " + 0 + " and " + Memory.MAX_SIZE);
+        super("invalid Index: " + i + " ,value must be between " + 0 + " and " + Brainfuck.getMemory().getSize());
     }
     
     @Override
@@ -0,0 +1,103 @@
+package mcga.brainfuck.instructions;
+
+import mcga.brainfuck.Brainfuck;
+import mcga.brainfuck.Memory;
+import mcga.brainfuck.Metrics;
+import mcga.brainfuck.exceptions.InvalidValueException;
+
+import static mcga.brainfuck.Memory.MAX_CELL_VALUE;
+import static mcga.brainfuck.Memory.MIN_CELL_VALUE;
+
+/**
+ * Class defining a run of increments and decrements folded into a single addition to the current cell.
+ * The value is checked once against the lowest and the highest value reached during the run, and the
+ * metrics are the ones of the instructions it replaces.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class Add extends Operation {
+    private final int value;
+    private final int count;
+    private final int lowest;
+    private final int highest;
+    private final byte[] steps;
+
+    /**
+     * Constructor of the Add class.
+     *
+     * @param steps +1 for each increment and -1 for each decrement of the run, in order
+     */
+    public Add(byte[] steps) {
+        int sum = 0;
+        int min = 0;
+        int max = 0;
+        boolean up = false;
+        boolean down = false;
+        for (byte step : steps) {
+            sum += step;
+            min = Math.min(min, sum);
+            max = Math.max(max, sum);
+            up |= step > 0;
+            down |= step < 0;
+        }
+        this.value = sum;
+        this.count = steps.length;
+        this.lowest = min;
+        this.highest = max;
+        this.steps = up && down ? steps : null;
+    }
+
+    /**
+     * Overrides the method defined in the Instruction interface to add the value to the current cell.
+     * The values reached by the replaced instructions are only checked when the cells do not wrap around.
+     *
+     * @throws InvalidValueException if one of the replaced instructions would have made the value invalid
+     */
+    @Override
+    public void interpret() throws InvalidValueException {
+        Metrics.incrDataWrite(count);
+        Metrics.incrExecMove(count - 1);
+        Metrics.incrExecPos(count - 1);
+        Memory memory = Brainfuck.getMemory();
+        int current = memory.getCurrentCellValue();
+        if (memory.getTape().isChecked() && (current + lowest < MIN_CELL_VALUE || current + highest > MAX_CELL_VALUE)) {
+            throw invalidValue(current);
+        }
+        memory.addCurrentCellValue(value);
+    }
+
+    /**
+     * Builds the exception the first invalid increment or decrement of the run would have thrown.
+     *
+     * @param current value of the cell before the run
+     * @return exception to throw
+     */
+    public InvalidValueException invalidValue(int current) {
+        if (steps == null) {
+            return new InvalidValueException(value > 0 ? MAX_CELL_VALUE + 1 : MIN_CELL_VALUE - 1);
+        }
+        for (byte step : steps) {
+            current += step;
+            if (current < MIN_CELL_VALUE || current > MAX_CELL_VALUE) {
+                break;
+            }
+        }
+        return new InvalidValueException(current);
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getLowest() {
+        return lowest;
+    }
+
+    public int getHighest() {
+        return highest;
+    }
+}
@@ -33,6 +33,8 @@ public class Back extends Loop {
     
     /**
      * Overrides the method defined in the Instruction interface to execute the back action.
+     * The next iteration itself is run by the bound Jump, so that the depth of the Java stack does not
+     * depend on the number of iterations.
      *
      * @throws InvalidValueException
      */
@@ -41,7 +43,6 @@ public class Back extends Loop {
         super.interpret();
         if (getMemory().getCurrentCellValue() != 0) {
             Metrics.incrExecPos(-1 * boundLoop.size);
-            getInterpreter().interpretList(boundLoop.jumpInstructions);
         }
     }
     
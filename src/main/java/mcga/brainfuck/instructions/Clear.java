@@ -0,0 +1,32 @@
+package mcga.brainfuck.instructions;
+
+import mcga.brainfuck.Brainfuck;
+import mcga.brainfuck.Memory;
+
+/**
+ * Class defining the "[-]" loop, which sets the current cell to zero.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class Clear extends LoopIdiom {
+
+    /**
+     * Constructor of the Clear class.
+     *
+     * @param loop loop replaced by the instruction
+     */
+    public Clear(Jump loop) {
+        super(loop);
+    }
+
+    /**
+     * Overrides the method defined in the Instruction interface to clear the current cell.
+     */
+    @Override
+    public void interpret() {
+        Memory memory = Brainfuck.getMemory();
+        int iterations = memory.getCurrentCellValue();
+        memory.clearCurrentCell();
+        account(iterations, 1, 0);
+    }
+}
@@ -1,5 +1,7 @@
 package mcga.brainfuck.instructions;
 
+import mcga.brainfuck.Memory;
+import mcga.brainfuck.Metrics;
 import mcga.brainfuck.exceptions.InstructionException;
 import mcga.brainfuck.exceptions.InvalidParametersException;
 
@@ -9,9 +11,12 @@ import static mcga.brainfuck.Brainfuck.getMemory;
 
 /**
  * This class defines a function;
+ * The results of a pure function may be kept in a {@link ResultCache}, shared by its call sites, which answers
+ * the calls whose parameters have already been seen.
  * @author Team Make Coding Great Again
  */
 public class Function extends Procedure {
+    private final ResultCache cache;
 
     /**
      * Constructor of the Function class.
@@ -23,7 +28,72 @@ public class Function extends Procedure {
      * @throws InvalidParametersException is a parameter is invalid
      */
     public Function(String name, List<Instruction> instructions, int size, int[] paramDeclaration, String[] params) throws InvalidParametersException {
+        this(name, instructions, size, paramDeclaration, params, null);
+    }
+
+    /**
+     * Constructor of the Function class caching its results.
+     * @param name name of the function
+     * @param instructions instructions of the function
+     * @param size size of the function
+     * @param paramDeclaration parameters of the declaration of the function
+     * @param params parameters of the function
+     * @param cache results of the function, null if they are not cached
+     * @throws InvalidParametersException is a parameter is invalid
+     */
+    public Function(String name, List<Instruction> instructions, int size, int[] paramDeclaration, String[] params, ResultCache cache) throws InvalidParametersException {
         super(name, instructions, size, paramDeclaration, params);
+        this.cache = cache;
+    }
+
+    /**
+     * Writes the cached result of the call in the current cell, if the values of the parameters have been seen and
+     * the frame of the function still fits in the memory, so that a call answered by the cache fails as the
+     * execution of the function does.
+     * @return true if the call is complete
+     * @throws InstructionException if a parameter cannot be read
+     */
+    @Override
+    public boolean lookup() throws InstructionException {
+        if (cache == null) {
+            return false;
+        }
+        Memory memory = getMemory();
+        if (memory.allocateFrame(getSize()) < 0) {
+            return false;
+        }
+        readArguments();
+        int entry = cache.find(getArguments());
+        if (entry < 0) {
+            Metrics.incrMemoMiss();
+            return false;
+        }
+        Metrics.incrMemoHit();
+        int value = cache.hit(entry);
+        memory.clearCurrentCell();
+        memory.addCurrentCellValue(value);
+        return true;
+    }
+
+    @Override
+    public boolean isMemoized() {
+        return cache != null;
+    }
+
+    @Override
+    public void enter() throws InstructionException {
+        super.enter();
+        if (cache != null) {
+            cache.start(getMemory().getFrameCount() - 1, getArguments());
+        }
+    }
+
+    @Override
+    public void restore(int prevIndex, int startIndex) {
+        super.restore(prevIndex, startIndex);
+        if (cache != null) {
+            cache.abandon(getMemory().getFrameCount() - 1);
+        }
     }
 
     /**
@@ -33,6 +103,9 @@ public class Function extends Procedure {
     @Override
     public void free() throws InstructionException {
         int value = getMemory().getCurrentCellValue();
+        if (cache != null) {
+            cache.finish(getMemory().getFrameCount() - 1, value);
+        }
         super.free();
         getMemory().clearCurrentCell();
         getMemory().addCurrentCellValue(value);
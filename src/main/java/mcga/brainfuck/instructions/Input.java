@@ -3,12 +3,14 @@ package mcga.brainfuck.instructions;
 
 import mcga.brainfuck.Brainfuck;
 import mcga.brainfuck.Metrics;
+import mcga.brainfuck.OutputSink;
 import mcga.brainfuck.exceptions.InstructionException;
 import mcga.brainfuck.exceptions.InvalidInputFileException;
 import mcga.brainfuck.exceptions.InvalidValueException;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.PrintStream;
 
 /**
  * Class defining the action corresponding to the reading of a byte in the file specified by the -i argument.
@@ -30,7 +32,7 @@ public class Input extends DataIO {
         Metrics.setDataWrite(Metrics.getDataWrite() + 1);
         int c = 0;
         try {
-            c = stream.read();
+            c = read();
         } catch (IOException e) {
             throw new InvalidInputFileException(e.getMessage());
         }
@@ -38,5 +40,19 @@ public class Input extends DataIO {
         Brainfuck.getMemory().addCurrentCellValue(c);
         
     }
+
+    /**
+     * Reads the next byte of the input, the output gathered so far being written first.
+     *
+     * @return byte read, -1 at the end of the input
+     * @throws IOException if the input cannot be read
+     */
+    public static int read() throws IOException {
+        PrintStream output = Brainfuck.getMainOutput();
+        if (output instanceof OutputSink) {
+            ((OutputSink) output).beforeInput();
+        }
+        return stream.read();
+    }
     
 }
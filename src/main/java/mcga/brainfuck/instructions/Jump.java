@@ -1,9 +1,11 @@
 package mcga.brainfuck.instructions;
 
 import mcga.brainfuck.Brainfuck;
+import mcga.brainfuck.Memory;
 import mcga.brainfuck.Metrics;
 import mcga.brainfuck.exceptions.InstructionException;
 import mcga.brainfuck.exceptions.InvalidValueException;
+import mcga.brainfuck.processing.Interpreter;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
@@ -21,6 +23,10 @@ import static mcga.brainfuck.Brainfuck.getInterpreter;
 public class Jump extends Loop {
     private static Deque<Jump> jummpStack = new ArrayDeque<>();
     int size;
+    private int position;
+    private boolean bounded = false;
+    private int lowest;
+    private int highest;
     List<Instruction> jumpInstructions = new ArrayList<>();
     
     /**
@@ -30,6 +36,7 @@ public class Jump extends Loop {
     public Jump() {
         jummpStack.push(this);
         size = getInterpreter().getIndex();
+        position = size;
         getInterpreter().pushInstructions(jumpInstructions);
     }
     
@@ -50,18 +57,90 @@ public class Jump extends Loop {
         return jummpStack.peek();
     }
     
+    /**
+     * Gets the number of instructions between this Jump and its Back.
+     *
+     * @return size of the loop body
+     */
+    public int getSize() {
+        return size;
+    }
+    
+    /**
+     * Gets the position of the Jump among the instructions of the program.
+     *
+     * @return index of the Jump, starting from 1
+     */
+    public int getPosition() {
+        return position;
+    }
+    
+    /**
+     * Gets the instructions of the loop body, the bound Back being the last one.
+     *
+     * @return List of instructions of the loop
+     */
+    public List<Instruction> getInstructions() {
+        return jumpInstructions;
+    }
+    
+    /**
+     * Sets the range of the cells reached by the loop, which is balanced, proven by the
+     * {@link mcga.brainfuck.optimization.BoundsAnalysis}.
+     *
+     * @param lowest  lowest offset from the cell the loop starts on
+     * @param highest highest offset from the cell the loop starts on
+     */
+    public void setBounds(int lowest, int highest) {
+        this.bounded = true;
+        this.lowest = lowest;
+        this.highest = highest;
+    }
+
+    public boolean isBounded() {
+        return bounded;
+    }
+
+    public int getLowest() {
+        return lowest;
+    }
+
+    public int getHighest() {
+        return highest;
+    }
+
     /**
      * Overrides the method defined in the Instruction interface to execute the jump action.
+     * The body, ended by the bound Back, is interpreted as long as the current cell is not zero, unless the
+     * interpreter runs the loop once it is hot. When the range of the loop is known and within the bounds, the
+     * moves of its iterations are not checked; otherwise they are, so that a move out of the bounds fails as usual.
      *
      * @throws InvalidValueException
+     * @see Interpreter#backEdge(Jump)
      */
     @Override
     public void interpret() throws InstructionException {
         Metrics.incrDataRead();
-        if (Brainfuck.getMemory().getCurrentCellValue() != 0) {
-            getInterpreter().interpretList(jumpInstructions);
-        } else {
+        Interpreter interpreter = getInterpreter();
+        if (Brainfuck.getMemory().getCurrentCellValue() == 0) {
             Metrics.incrExecPos(size);
+        } else if (!interpreter.enterLoop(this)) {
+            Memory memory = Brainfuck.getMemory();
+            int current = memory.getCurrentIndex();
+            boolean unchecked = bounded && memory.checksBounds() && current + lowest >= memory.getLowerBound()
+                    && current + highest <= memory.getUpperBound();
+            if (unchecked) {
+                memory.setChecksBounds(false);
+            }
+            try {
+                do {
+                    interpreter.interpretList(jumpInstructions);
+                } while (memory.getCurrentCellValue() != 0 && !interpreter.backEdge(this));
+            } finally {
+                if (unchecked) {
+                    memory.setChecksBounds(true);
+                }
+            }
         }
     }
 }
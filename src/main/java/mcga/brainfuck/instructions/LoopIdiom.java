@@ -0,0 +1,42 @@
+package mcga.brainfuck.instructions;
+
+import mcga.brainfuck.Metrics;
+
+/**
+ * Superclass of the instructions replacing a whole loop whose effect can be computed without running its
+ * iterations one by one. The replaced loop is kept so that the metrics of its iterations can be accounted
+ * for, and so that it can be interpreted whenever the shortcut would not behave exactly like it.
+ *
+ * @author Team Make Coding Great Again
+ */
+public abstract class LoopIdiom extends Loop {
+    protected final Jump loop;
+
+    /**
+     * Constructor of the LoopIdiom class.
+     *
+     * @param loop loop replaced by the idiom
+     */
+    LoopIdiom(Jump loop) {
+        this.loop = loop;
+    }
+
+    /**
+     * Accounts for the metrics of the replaced loop, as if it had been interpreted.
+     *
+     * @param iterations number of iterations of the loop
+     * @param writes     number of increments and decrements of an iteration
+     * @param moves      number of shifts of an iteration
+     */
+    protected void account(long iterations, int writes, int moves) {
+        Metrics.incrDataRead();
+        Metrics.incrDataWrite(iterations * writes);
+        Metrics.incrDataMove(iterations * moves);
+        Metrics.incrExecMove(iterations * (loop.getSize() + 1));
+        Metrics.incrExecPos(loop.getSize() + iterations);
+    }
+
+    public Jump getLoop() {
+        return loop;
+    }
+}
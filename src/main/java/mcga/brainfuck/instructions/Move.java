@@ -0,0 +1,101 @@
+package mcga.brainfuck.instructions;
+
+import mcga.brainfuck.Brainfuck;
+import mcga.brainfuck.Memory;
+import mcga.brainfuck.Metrics;
+import mcga.brainfuck.exceptions.BrainfuckIndexOutOfBoundsException;
+
+/**
+ * Class defining a run of shifts to the left and to the right folded into a single shift of the memory pointer.
+ * The index is checked once against the lowest and the highest index reached during the run, and the
+ * metrics are the ones of the instructions it replaces.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class Move extends Movement {
+    private final int value;
+    private final int count;
+    private final int lowest;
+    private final int highest;
+    private final byte[] steps;
+
+    /**
+     * Constructor of the Move class.
+     *
+     * @param steps +1 for each shift to the right and -1 for each shift to the left of the run, in order
+     */
+    public Move(byte[] steps) {
+        int sum = 0;
+        int min = 0;
+        int max = 0;
+        boolean right = false;
+        boolean left = false;
+        for (byte step : steps) {
+            sum += step;
+            min = Math.min(min, sum);
+            max = Math.max(max, sum);
+            right |= step > 0;
+            left |= step < 0;
+        }
+        this.value = sum;
+        this.count = steps.length;
+        this.lowest = min;
+        this.highest = max;
+        this.steps = right && left ? steps : null;
+    }
+
+    /**
+     * Overrides the method defined in the Instruction interface to shift the memory pointer.
+     *
+     * @throws BrainfuckIndexOutOfBoundsException if one of the replaced instructions would have left the memory
+     */
+    @Override
+    public void interpret() throws BrainfuckIndexOutOfBoundsException {
+        Metrics.incrDataMove(count);
+        Metrics.incrExecMove(count - 1);
+        Metrics.incrExecPos(count - 1);
+        Memory memory = Brainfuck.getMemory();
+        int current = memory.getCurrentIndex();
+        if (memory.checksBounds() && (current + lowest < memory.getLowerBound() || current + highest > memory.getUpperBound())) {
+            throw invalidIndex(current, memory.getLowerBound(), memory.getUpperBound());
+        }
+        memory.setCurrentIndex(current + value);
+    }
+
+    /**
+     * Builds the exception the first invalid shift of the run would have thrown.
+     *
+     * @param current index before the run
+     * @param lower   lowest valid index
+     * @param upper   highest valid index
+     * @return exception to throw
+     */
+    public BrainfuckIndexOutOfBoundsException invalidIndex(int current, int lower, int upper) {
+        if (steps == null) {
+            return new BrainfuckIndexOutOfBoundsException(value > 0 ? upper + 1 : lower - 1);
+        }
+        for (byte step : steps) {
+            current += step;
+            if (current < lower || current > upper) {
+                break;
+            }
+        }
+        return new BrainfuckIndexOutOfBoundsException(current);
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getLowest() {
+        return lowest;
+    }
+
+    public int getHighest() {
+        return highest;
+    }
+}
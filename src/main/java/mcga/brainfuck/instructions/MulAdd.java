@@ -0,0 +1,108 @@
+package mcga.brainfuck.instructions;
+
+import mcga.brainfuck.Brainfuck;
+import mcga.brainfuck.Memory;
+import mcga.brainfuck.exceptions.InstructionException;
+
+import static mcga.brainfuck.Memory.MAX_CELL_VALUE;
+import static mcga.brainfuck.Memory.MIN_CELL_VALUE;
+
+/**
+ * Class defining the balanced loops such as "[-&gt;+&gt;++&lt;&lt;]", which decrement the current cell once
+ * per iteration and add a multiple of its value to other cells.
+ * When a cell would become invalid or the pointer would leave the memory, the loop is interpreted instead
+ * so that the same exception is thrown.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class MulAdd extends LoopIdiom {
+    private final int[] offsets;
+    private final int[] factors;
+    private final int lowest;
+    private final int highest;
+    private final int writes;
+    private final int moves;
+
+    /**
+     * Constructor of the MulAdd class.
+     *
+     * @param loop    loop replaced by the instruction
+     * @param offsets offsets of the modified cells from the current cell
+     * @param factors value added to each modified cell at each iteration
+     * @param lowest  lowest offset reached by the pointer during an iteration
+     * @param highest highest offset reached by the pointer during an iteration
+     * @param writes  number of increments and decrements of an iteration
+     * @param moves   number of shifts of an iteration
+     */
+    public MulAdd(Jump loop, int[] offsets, int[] factors, int lowest, int highest, int writes, int moves) {
+        super(loop);
+        this.offsets = offsets;
+        this.factors = factors;
+        this.lowest = lowest;
+        this.highest = highest;
+        this.writes = writes;
+        this.moves = moves;
+    }
+
+    /**
+     * Adds the multiples of the current cell to the modified cells and clears the current cell, provided that
+     * every iteration of the loop would have succeeded.
+     *
+     * @param cells cells of the memory
+     * @param index index of the current cell
+     * @param lower lowest valid index
+     * @param upper highest valid index
+     * @return false if the loop has to be interpreted, the cells being left untouched
+     */
+    public boolean apply(int[] cells, int index, int lower, int upper) {
+        long iterations = cells[index];
+        if (index + lowest < lower || index + highest > upper) {
+            return false;
+        }
+        for (int i = 0; i < offsets.length; i++) {
+            long value = cells[index + offsets[i]] + iterations * factors[i];
+            if (value < MIN_CELL_VALUE || value > MAX_CELL_VALUE) {
+                return false;
+            }
+        }
+        for (int i = 0; i < offsets.length; i++) {
+            cells[index + offsets[i]] += (int) iterations * factors[i];
+        }
+        cells[index] = 0;
+        return true;
+    }
+
+    /**
+     * Overrides the method defined in the Instruction interface to execute the whole loop at once.
+     *
+     * @throws InstructionException if the interpreted loop throws it
+     */
+    @Override
+    public void interpret() throws InstructionException {
+        Memory memory = Brainfuck.getMemory();
+        int iterations = memory.getCurrentCellValue();
+        if (iterations == 0 || memory.hasIntCells() && apply(memory.openCells(), memory.getCurrentIndex(), memory.getLowerBound(), memory.getUpperBound())) {
+            memory.reached(memory.getCurrentIndex() + highest);
+            account(iterations, writes, moves);
+        } else {
+            loop.interpret();
+        }
+    }
+
+    /**
+     * Gets the highest offset reached by the pointer during an iteration, which no modified cell exceeds.
+     *
+     * @return highest offset
+     */
+    public int getHighest() {
+        return highest;
+    }
+
+    public int getWrites() {
+        return writes;
+    }
+
+    public int getMoves() {
+        return moves;
+    }
+}
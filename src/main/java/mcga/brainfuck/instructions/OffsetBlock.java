@@ -0,0 +1,245 @@
+package mcga.brainfuck.instructions;
+
+import mcga.brainfuck.Brainfuck;
+import mcga.brainfuck.Memory;
+import mcga.brainfuck.Metrics;
+import mcga.brainfuck.exceptions.InstructionException;
+import mcga.brainfuck.exceptions.InvalidValueException;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static mcga.brainfuck.Memory.MAX_CELL_VALUE;
+import static mcga.brainfuck.Memory.MIN_CELL_VALUE;
+
+/**
+ * Class defining a straight-line block of additions, shifts and outputs executed without moving the pointer:
+ * each addition and output works on the cell at its offset from the pointer, the pointer being moved once by
+ * the net shift of the block. The cells reached by the block are checked once against the bounds, and the
+ * metrics are the ones of the instructions it replaces.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class OffsetBlock implements Instruction {
+    private final List<Instruction> instructions;
+    private final int[] offsets;
+    // null for an output
+    private final Add[] adds;
+    private final int value;
+    private final int lowest;
+    private final int highest;
+    private final int count;
+    private final int moves;
+    private final int writes;
+    private final int reads;
+
+    /**
+     * Constructor of the OffsetBlock class.
+     *
+     * @param instructions increments, decrements, shifts, outputs and folded runs of them, in order
+     */
+    public OffsetBlock(List<Instruction> instructions) {
+        this.instructions = new ArrayList<>(instructions);
+        List<Integer> offsets = new ArrayList<>();
+        List<Add> adds = new ArrayList<>();
+        int position = 0;
+        int min = 0;
+        int max = 0;
+        int count = 0;
+        int moves = 0;
+        int writes = 0;
+        int reads = 0;
+        for (Instruction instruction : instructions) {
+            Move move = toMove(instruction);
+            if (move != null) {
+                min = Math.min(min, position + move.getLowest());
+                max = Math.max(max, position + move.getHighest());
+                position += move.getValue();
+                moves += move.getCount();
+                count += move.getCount();
+                continue;
+            }
+            Add add = toAdd(instruction);
+            if (add != null) {
+                writes += add.getCount();
+                count += add.getCount();
+            } else if (instruction instanceof Output) {
+                reads++;
+                count++;
+            } else {
+                throw new IllegalArgumentException("Not a straight-line instruction: " + instruction);
+            }
+            offsets.add(position);
+            adds.add(add);
+        }
+        this.offsets = new int[offsets.size()];
+        for (int k = 0; k < this.offsets.length; k++) {
+            this.offsets[k] = offsets.get(k);
+        }
+        this.adds = adds.toArray(new Add[0]);
+        this.value = position;
+        this.lowest = min;
+        this.highest = max;
+        this.count = count;
+        this.moves = moves;
+        this.writes = writes;
+        this.reads = reads;
+    }
+
+    /**
+     * Checks if an instruction can be part of a block.
+     *
+     * @param instruction instruction to check
+     * @return true if it is an increment, a decrement, a shift, an output or a folded run
+     */
+    public static boolean isStraightLine(Instruction instruction) {
+        return toMove(instruction) != null || toAdd(instruction) != null || instruction instanceof Output;
+    }
+
+    /**
+     * Checks if an instruction moves the pointer.
+     *
+     * @param instruction instruction to check
+     * @return true if it is a shift or a folded run of shifts
+     */
+    public static boolean isMovement(Instruction instruction) {
+        return toMove(instruction) != null;
+    }
+
+    private static Move toMove(Instruction instruction) {
+        if (instruction instanceof Right) {
+            return new Move(new byte[]{1});
+        } else if (instruction instanceof Left) {
+            return new Move(new byte[]{-1});
+        }
+        return instruction instanceof Move ? (Move) instruction : null;
+    }
+
+    private static Add toAdd(Instruction instruction) {
+        if (instruction instanceof Increment) {
+            return new Add(new byte[]{1});
+        } else if (instruction instanceof Decrement) {
+            return new Add(new byte[]{-1});
+        }
+        return instruction instanceof Add ? (Add) instruction : null;
+    }
+
+    /**
+     * Overrides the method defined in the Instruction interface to execute the block. The replaced instructions
+     * are interpreted instead when the cells are not the 32 bits ones.
+     *
+     * @throws InstructionException if one of the replaced instructions would have thrown it
+     */
+    @Override
+    public void interpret() throws InstructionException {
+        Memory memory = Brainfuck.getMemory();
+        if (!memory.hasIntCells()) {
+            // the folded runs count their own instructions
+            Metrics.incrExecMove(instructions.size() - 1);
+            Metrics.incrExecPos(instructions.size() - 1);
+            replay();
+            return;
+        }
+        Metrics.incrExecMove(count - 1);
+        Metrics.incrExecPos(count - 1);
+        Metrics.incrDataMove(moves);
+        Metrics.incrDataWrite(writes);
+        Metrics.incrDataRead(reads);
+        int ptr = memory.getCurrentIndex();
+        if (ptr + lowest < memory.getLowerBound() || ptr + highest > memory.getUpperBound()) {
+            replay();
+            return;
+        }
+        apply(memory.openCells(), ptr, Brainfuck.getMainOutput());
+        memory.reached(ptr + highest);
+        memory.setCurrentIndex(ptr + value);
+    }
+
+    /**
+     * Executes the additions and the outputs of the block, the cells it reaches being within the bounds.
+     * The pointer is not moved.
+     *
+     * @param cells  cells of the memory
+     * @param ptr    index of the pointer at the start of the block
+     * @param output stream the outputs are written to
+     * @throws InvalidValueException if one of the additions makes a value invalid
+     */
+    public void apply(int[] cells, int ptr, PrintStream output) throws InvalidValueException {
+        for (int k = 0; k < offsets.length; k++) {
+            int index = ptr + offsets[k];
+            int current = cells[index];
+            Add add = adds[k];
+            if (add == null) {
+                output.print((char) current);
+            } else if (current + add.getLowest() < MIN_CELL_VALUE || current + add.getHighest() > MAX_CELL_VALUE) {
+                throw add.invalidValue(current);
+            } else {
+                cells[index] = current + add.getValue();
+            }
+        }
+    }
+
+    /**
+     * Interprets the replaced instructions one by one from the current index of the memory. This is done when
+     * the block leaves the bounds, so that the first invalid instruction raises its own exception.
+     *
+     * @throws InstructionException raised by the first invalid instruction
+     */
+    public void replay() throws InstructionException {
+        for (Instruction instruction : instructions) {
+            instruction.interpret();
+        }
+    }
+
+    /**
+     * Gets the number of additions and outputs of the block.
+     *
+     * @return number of operations at an offset
+     */
+    public int getLength() {
+        return offsets.length;
+    }
+
+    public int getOffset(int k) {
+        return offsets[k];
+    }
+
+    /**
+     * Gets the addition of an operation of the block.
+     *
+     * @param k index of the operation
+     * @return the addition, null if the operation is an output
+     */
+    public Add getAdd(int k) {
+        return adds[k];
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    public int getLowest() {
+        return lowest;
+    }
+
+    public int getHighest() {
+        return highest;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getMoves() {
+        return moves;
+    }
+
+    public int getWrites() {
+        return writes;
+    }
+
+    public int getReads() {
+        return reads;
+    }
+}
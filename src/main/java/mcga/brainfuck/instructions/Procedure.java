@@ -1,5 +1,6 @@
 package mcga.brainfuck.instructions;
 
+import mcga.brainfuck.Memory;
 import mcga.brainfuck.exceptions.BrainfuckIndexOutOfBoundsException;
 import mcga.brainfuck.exceptions.InstructionException;
 import mcga.brainfuck.exceptions.InvalidParametersException;
@@ -15,16 +16,19 @@ import static mcga.brainfuck.Memory.*;
 
 /**
  * This method defines a procedure.
+ * The state of a call, the index of the cell it was made from and the bounds of its frame, is kept on the stack of
+ * frames of the {@link Memory}, so that the same procedure can be called again while it runs.
+ * The cells of the arguments form a window whose offsets from the cell of the call are known when the call is
+ * parsed, so that a call checks the window once and reads the arguments without moving the pointer. The arguments
+ * are still copied into the frame.
  */
 public class Procedure implements Instruction {
-    private List<Integer> paramsCells = new ArrayList<>();
-    private int startIndex;
-    private int endIndex;
     private int size = 1;
-    private int prevIndex;
     private int[] paramDeclaration;
     private String name;
-    private List<Integer> paramsCall = new ArrayList<>();
+    private int[] paramsCall;
+    private int[] paramsWindow;
+    private int[] arguments;
     private List<Instruction> instructions = new ArrayList<>();
 
     /**
@@ -45,7 +49,11 @@ public class Procedure implements Instruction {
         this.paramDeclaration = paramDeclaration;
         this.size = size;
         getInterpreter().incrIndex(instructions.size());
-        for (String param : params) {
+        this.paramsCall = new int[params.length];
+        this.paramsWindow = new int[params.length];
+        this.arguments = new int[params.length];
+        for (int p = 0; p < params.length; p++) {
+            String param = params[p];
             int address = 0;
             for (int i = 0; i < param.length(); i++) {
                 String s1 = param.substring(i, i + 1);
@@ -57,10 +65,11 @@ public class Procedure implements Instruction {
                     throw new InvalidParametersException(name);
                 }
             }
-            if (address < 0 || address > MAX_SIZE) {
+            if (address < 0 || address > getMemory().getSize()) {
                 throw new InvalidParametersException(name);
             }
-            this.paramsCall.add(address);
+            this.paramsCall[p] = address;
+            this.paramsWindow[p] = p == 0 ? address : paramsWindow[p - 1] + address;
         }
     }
 
@@ -70,47 +79,109 @@ public class Procedure implements Instruction {
      */
     @Override
     public void interpret() throws InstructionException {
-        prevIndex = getMemory().getCurrentIndex();
-        for (int i = 0; i < paramsCall.size(); i++) {
-            getMemory().changeCurrentIndex(paramsCall.get(i));
-            paramsCells.add(i, getMemory().getCurrentCellValue());
+        if (lookup()) {
+            return;
         }
-        memoryAllocation();
+        enter();
         try {
             getInterpreter().interpretList(instructions);
         } catch (BrainfuckIndexOutOfBoundsException e) {
-            throw new BrainfuckIndexOutOfBoundsException(e, startIndex, endIndex, "in function " + name);
+            throw outOfFrame(e);
         }
         free();
     }
 
     /**
-     * Checks if there is enough space in the memory to declare a procedure.
+     * Reads the parameters, allocates the frame of the procedure and moves the pointer at its start.
      * @throws InstructionException if an instruction can cause an issue during the execution
      */
-    private void memoryAllocation() throws InstructionException {
-        int i = MAX_SIZE - 1;
-        getMemory().setCurrentIndex(i);
-        if (getMemory().isProcedureStackEmpty()) {
-            while (i >= 0 && getMemory().getCurrentCellValue() == 0) {
-                getMemory().setCurrentIndex(--i);
+    public void enter() throws InstructionException {
+        int prevIndex = getMemory().getCurrentIndex();
+        readArguments();
+        memoryAllocation(prevIndex);
+    }
+
+    /**
+     * Reads the values of the parameters, the pointer being left on the cell of the call. The offsets of the window
+     * only grow, so it is within the bounds if its last cell is; otherwise the parameters are walked to in order to
+     * report the first one out of the bounds.
+     * @throws BrainfuckIndexOutOfBoundsException if a parameter is out of the bounds
+     */
+    void readArguments() throws BrainfuckIndexOutOfBoundsException {
+        Memory memory = getMemory();
+        int prevIndex = memory.getCurrentIndex();
+        int last = paramsWindow.length - 1;
+        if (last >= 0 && memory.checksBounds() && prevIndex + paramsWindow[last] > memory.getUpperBound()) {
+            for (int i = 0; i < paramsCall.length; i++) {
+                memory.changeCurrentIndex(paramsCall[i]);
             }
-        } else {
-            i = getMemory().peekProcedure().endIndex;
         }
-        i++;
-        if (MAX_SIZE - (i) < size) {
+        memory.readCells(prevIndex, paramsWindow, arguments);
+    }
+
+    int[] getArguments() {
+        return arguments;
+    }
+
+    /**
+     * Answers the call without running the body, when its result is already known. A procedure never is.
+     * @return true if the call is complete, the pointer being back on the cell it was made from
+     * @throws InstructionException if a parameter cannot be read
+     */
+    public boolean lookup() throws InstructionException {
+        return false;
+    }
+
+    /**
+     * Checks if the results of the calls are cached, in which case {@link #lookup()} must be tried before entering
+     * the procedure.
+     * @return true if the calls may be answered without running the body
+     */
+    public boolean isMemoized() {
+        return false;
+    }
+
+    /**
+     * Allocates again the frame of a call which was in progress when a checkpoint was written, its cells being
+     * already restored.
+     * @param prevIndex index of the current cell when the procedure was called
+     * @param startIndex index of the first cell of the frame
+     */
+    public void restore(int prevIndex, int startIndex) {
+        getMemory().pushFrame(this, prevIndex, startIndex);
+    }
+
+    /**
+     * Wraps an index error raised by the body so that it reports the frame of the procedure, which is popped since
+     * the call is abandoned.
+     * @param e exception raised while executing the body
+     * @return exception to throw
+     */
+    public BrainfuckIndexOutOfBoundsException outOfFrame(BrainfuckIndexOutOfBoundsException e) {
+        Memory memory = getMemory();
+        BrainfuckIndexOutOfBoundsException exception = new BrainfuckIndexOutOfBoundsException(e,
+                memory.getLowerBound(), memory.getUpperBound(), "in function " + name);
+        memory.popFrame();
+        return exception;
+    }
+
+    /**
+     * Allocates the frame of the procedure, exiting if there is not enough space in the memory, and copies the
+     * parameters into it.
+     * @param prevIndex index of the current cell when the procedure is called
+     * @throws InstructionException if an instruction can cause an issue during the execution
+     */
+    private void memoryAllocation(int prevIndex) throws InstructionException {
+        int startIndex = getMemory().allocateFrame(size);
+        if (startIndex < 0) {
             System.err.println(NOT_ENOUGH_MESSAGE);
             System.exit(NOT_ENOUGH_CODE);
         } else {
-            getMemory().setCurrentIndex(i);
-            getMemory().pushProcedure(this);
-            startIndex = i;
-            endIndex = startIndex + size - 1;
+            getMemory().pushFrame(this, prevIndex, startIndex);
             for (int k = 0; k < paramDeclaration.length; k++) {
                 int index = startIndex + paramDeclaration[k];
                 getMemory().setCurrentIndex(index);
-                getMemory().addCurrentCellValue(paramsCells.get(k));
+                getMemory().addCurrentCellValue(arguments[k]);
             }
         }
         getMemory().setCurrentIndex(startIndex);
@@ -120,25 +191,29 @@ public class Procedure implements Instruction {
      * Frees the cells occupied by the procedure in the memory.
      * @throws InstructionException if an instruction can cause an issue during the execution
      */
-    protected void free() throws InstructionException {
-        int i = endIndex;
-        while (i >= startIndex) {
-            getMemory().setCurrentIndex(i--);
-            getMemory().clearCurrentCell();
-        }
-        getMemory().popProcedure();
-        getMemory().setCurrentIndex(prevIndex);
+    public void free() throws InstructionException {
+        getMemory().freeFrame(getMemory().getLowerBound(), getMemory().getUpperBound());
+        getMemory().setCurrentIndex(getMemory().popFrame());
     }
-    
-    public int getStartIndex() {
-        return startIndex;
+
+
+    public int getSize() {
+        return size;
     }
     
-    public int getEndIndex() {
-        return endIndex;
+    public String getName() {
+        return name;
     }
     
-    public int getSize() {
-        return size;
+    public List<Instruction> getInstructions() {
+        return instructions;
+    }
+
+    /**
+     * Gets the offsets, from the start of the frame, of the cells receiving the parameters.
+     * @return offsets of the parameters
+     */
+    public int[] getParamDeclaration() {
+        return paramDeclaration;
     }
 }
\ No newline at end of file
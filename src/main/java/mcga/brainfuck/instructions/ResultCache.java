@@ -0,0 +1,189 @@
+package mcga.brainfuck.instructions;
+
+import mcga.brainfuck.Metrics;
+
+import java.util.Arrays;
+
+/**
+ * Results of a pure function, which neither reads nor writes, for the values of its parameters. Each result is
+ * kept with the metrics of the call which computed it, so that a call answered by the cache is accounted as if the
+ * body had run. The values are stored in arrays indexed by entry and chained in a hash table, and once the cache is
+ * full the entry to replace is chosen by the CLOCK algorithm: a hit marks its entry, and the hand replaces the
+ * first entry it finds unmarked, unmarking the ones it passes.
+ * The calls in progress are recorded by the depth of their frame, so that a function may be active several times.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class ResultCache {
+    public static final int DEFAULT_SIZE = 1024;
+    private static final int METRICS = 5;
+    private final int arity;
+    private final int capacity;
+    private final int[] keys;
+    private final int[] results;
+    private final long[] metrics;
+    private final boolean[] referenced;
+    private final int[] next;
+    private final int[] heads;
+    private int size = 0;
+    private int hand = 0;
+    private int[] pendingKeys = new int[0];
+    private long[] pendingMetrics = new long[0];
+    private boolean[] pending = new boolean[0];
+
+    /**
+     * Constructor of the ResultCache class.
+     *
+     * @param arity    number of parameters of the function
+     * @param capacity number of results kept
+     */
+    public ResultCache(int arity, int capacity) {
+        this.arity = arity;
+        this.capacity = capacity;
+        this.keys = new int[capacity * arity];
+        this.results = new int[capacity];
+        this.metrics = new long[capacity * METRICS];
+        this.referenced = new boolean[capacity];
+        this.next = new int[capacity];
+        this.heads = new int[Integer.highestOneBit(Math.max(1, capacity * 2 - 1)) << 1];
+        Arrays.fill(heads, -1);
+    }
+
+    /**
+     * Finds the result of a call.
+     *
+     * @param arguments values of the parameters
+     * @return index of the entry, -1 if the call has not been cached
+     */
+    public int find(int[] arguments) {
+        for (int entry = heads[hash(arguments, 0)]; entry >= 0; entry = next[entry]) {
+            if (matches(entry, arguments)) {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Answers a call from the cache, its metrics being added to the {@link Metrics}.
+     *
+     * @param entry index of the entry found
+     * @return result of the call
+     */
+    public int hit(int entry) {
+        referenced[entry] = true;
+        int offset = entry * METRICS;
+        Metrics.incrExecMove(metrics[offset]);
+        Metrics.incrExecPos(metrics[offset + 1]);
+        Metrics.incrDataMove(metrics[offset + 2]);
+        Metrics.incrDataRead(metrics[offset + 3]);
+        Metrics.incrDataWrite(metrics[offset + 4]);
+        return results[entry];
+    }
+
+    /**
+     * Records the start of a call whose body runs, with the metrics counted so far.
+     *
+     * @param depth     index of the frame of the call
+     * @param arguments values of the parameters
+     */
+    public void start(int depth, int[] arguments) {
+        if (depth >= pending.length) {
+            int length = Math.max(depth + 1, pending.length * 2);
+            pendingKeys = Arrays.copyOf(pendingKeys, length * arity);
+            pendingMetrics = Arrays.copyOf(pendingMetrics, length * METRICS);
+            pending = Arrays.copyOf(pending, length);
+        }
+        System.arraycopy(arguments, 0, pendingKeys, depth * arity, arity);
+        long[] current = current();
+        System.arraycopy(current, 0, pendingMetrics, depth * METRICS, METRICS);
+        pending[depth] = true;
+    }
+
+    /**
+     * Forgets a call which was not started by {@link #start(int, int[])}, such as a call entered again when a
+     * checkpoint is resumed, so that its result is not cached.
+     *
+     * @param depth index of the frame of the call
+     */
+    public void abandon(int depth) {
+        if (depth < pending.length) {
+            pending[depth] = false;
+        }
+    }
+
+    /**
+     * Caches the result of a call which returns, with the metrics counted since it started.
+     *
+     * @param depth  index of the frame of the call
+     * @param result value returned by the function
+     */
+    public void finish(int depth, int result) {
+        if (depth >= pending.length || !pending[depth]) {
+            return;
+        }
+        pending[depth] = false;
+        int hash = hash(pendingKeys, depth * arity);
+        int entry;
+        if (size < capacity) {
+            entry = size++;
+        } else {
+            while (referenced[hand]) {
+                referenced[hand] = false;
+                hand = (hand + 1) % capacity;
+            }
+            entry = hand;
+            hand = (hand + 1) % capacity;
+            unlink(entry);
+        }
+        System.arraycopy(pendingKeys, depth * arity, keys, entry * arity, arity);
+        results[entry] = result;
+        long[] current = current();
+        for (int i = 0; i < METRICS; i++) {
+            metrics[entry * METRICS + i] = current[i] - pendingMetrics[depth * METRICS + i];
+        }
+        referenced[entry] = false;
+        next[entry] = heads[hash];
+        heads[hash] = entry;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    private void unlink(int entry) {
+        int hash = hash(keys, entry * arity);
+        if (heads[hash] == entry) {
+            heads[hash] = next[entry];
+            return;
+        }
+        for (int previous = heads[hash]; previous >= 0; previous = next[previous]) {
+            if (next[previous] == entry) {
+                next[previous] = next[entry];
+                return;
+            }
+        }
+    }
+
+    private boolean matches(int entry, int[] arguments) {
+        for (int i = 0; i < arity; i++) {
+            if (keys[entry * arity + i] != arguments[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int hash(int[] values, int offset) {
+        int h = 0;
+        for (int i = 0; i < arity; i++) {
+            h = 31 * h + values[offset + i];
+        }
+        return (h ^ (h >>> 16)) & (heads.length - 1);
+    }
+
+    private static long[] current() {
+        return new long[]{Metrics.getExecMove(), Metrics.getExecStep(), Metrics.getDataMove(), Metrics.getDataRead(),
+                Metrics.getDataWrite()};
+    }
+}
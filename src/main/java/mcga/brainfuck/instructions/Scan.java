@@ -0,0 +1,94 @@
+package mcga.brainfuck.instructions;
+
+import mcga.brainfuck.Brainfuck;
+import mcga.brainfuck.Memory;
+import mcga.brainfuck.exceptions.BrainfuckIndexOutOfBoundsException;
+import mcga.brainfuck.exceptions.InstructionException;
+
+/**
+ * Superclass of the ScanLeft and ScanRight classes, defining the loops such as "[&gt;]" or "[&lt;&lt;]" which
+ * move the pointer by a constant stride until they reach a cell equal to zero.
+ *
+ * @author Team Make Coding Great Again
+ */
+public abstract class Scan extends LoopIdiom {
+    static final int LANES = 8;
+    private final int stride;
+
+    /**
+     * Constructor of the Scan class.
+     *
+     * @param loop   loop replaced by the instruction
+     * @param stride shift of the pointer at each iteration, negative to the left
+     */
+    Scan(Jump loop, int stride) {
+        super(loop);
+        this.stride = stride;
+    }
+
+    /**
+     * Searches the first cell equal to zero, starting from the given index.
+     * The cells are tested by chunks of {@link #LANES} cells, whatever the stride: since the cells are never
+     * negative, a chunk contains a zero cell if and only if the or of its cells minus one is negative, which
+     * costs a single branch per chunk. The chunk containing the zero cell, and the cells near the bounds of the
+     * memory, are then tested one by one.
+     *
+     * @param cells  cells of the memory
+     * @param index  index of the first cell to test
+     * @param stride shift between two tested cells
+     * @param lower  lowest valid index
+     * @param upper  highest valid index
+     * @return index of the cell equal to zero
+     * @throws BrainfuckIndexOutOfBoundsException if the pointer leaves the memory before finding it, with the
+     *                                            index the shifts of the loop would have reached
+     */
+    public static int scan(int[] cells, int index, int stride, int lower, int upper) throws BrainfuckIndexOutOfBoundsException {
+        if (stride > 0) {
+            for (int limit = upper - LANES * stride; index <= limit && !containsZero(cells, index, stride); ) {
+                index += LANES * stride;
+            }
+        } else {
+            for (int limit = lower - LANES * stride; index >= limit && !containsZero(cells, index, stride); ) {
+                index += LANES * stride;
+            }
+        }
+        while (cells[index] != 0) {
+            index += stride;
+            if (index > upper) {
+                throw new BrainfuckIndexOutOfBoundsException(upper + 1);
+            } else if (index < lower) {
+                throw new BrainfuckIndexOutOfBoundsException(lower - 1);
+            }
+        }
+        return index;
+    }
+
+    private static boolean containsZero(int[] cells, int index, int stride) {
+        return (cells[index] - 1 | cells[index + stride] - 1 | cells[index + 2 * stride] - 1
+                | cells[index + 3 * stride] - 1 | cells[index + 4 * stride] - 1 | cells[index + 5 * stride] - 1
+                | cells[index + 6 * stride] - 1 | cells[index + 7 * stride] - 1) < 0;
+    }
+
+    /**
+     * Overrides the method defined in the Instruction interface to move the pointer to the first cell equal to zero.
+     * The loop is interpreted instead when the cells are not the 32 bits ones.
+     *
+     * @throws InstructionException if the pointer leaves the memory
+     */
+    @Override
+    public void interpret() throws InstructionException {
+        Memory memory = Brainfuck.getMemory();
+        if (!memory.hasIntCells()) {
+            loop.interpret();
+            return;
+        }
+        int start = memory.getCurrentIndex();
+        int end = scan(memory.openCells(), start, stride, memory.getLowerBound(), memory.getUpperBound());
+        memory.setCurrentIndex(end);
+        account((end - start) / stride, 0, Math.abs(stride));
+    }
+
+    public int getStride() {
+        return stride;
+    }
+}
@@ -0,0 +1,19 @@
+package mcga.brainfuck.instructions;
+
+/**
+ * Class defining the loops such as "[&lt;]" moving the pointer to the left until a cell equal to zero.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class ScanLeft extends Scan {
+
+    /**
+     * Constructor of the ScanLeft class.
+     *
+     * @param loop   loop replaced by the instruction
+     * @param stride number of shifts to the left of an iteration
+     */
+    public ScanLeft(Jump loop, int stride) {
+        super(loop, -stride);
+    }
+}
@@ -0,0 +1,19 @@
+package mcga.brainfuck.instructions;
+
+/**
+ * Class defining the loops such as "[&gt;]" moving the pointer to the right until a cell equal to zero.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class ScanRight extends Scan {
+
+    /**
+     * Constructor of the ScanRight class.
+     *
+     * @param loop   loop replaced by the instruction
+     * @param stride number of shifts to the right of an iteration
+     */
+    public ScanRight(Jump loop, int stride) {
+        super(loop, stride);
+    }
+}
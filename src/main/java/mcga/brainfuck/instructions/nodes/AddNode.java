@@ -0,0 +1,44 @@
+package mcga.brainfuck.instructions.nodes;
+
+import mcga.brainfuck.exceptions.InvalidValueException;
+import mcga.brainfuck.instructions.Add;
+
+import static mcga.brainfuck.Memory.MAX_CELL_VALUE;
+import static mcga.brainfuck.Memory.MIN_CELL_VALUE;
+
+/**
+ * Node adding a value to the current cell, for an increment, a decrement or a folded run of them.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class AddNode extends Node {
+    final Add add;
+    private final int value;
+    private final int count;
+    private final int lowest;
+    private final int highest;
+
+    /**
+     * Constructor of the AddNode class.
+     *
+     * @param add run of increments and decrements
+     */
+    public AddNode(Add add) {
+        this.add = add;
+        this.value = add.getValue();
+        this.count = add.getCount();
+        this.lowest = add.getLowest();
+        this.highest = add.getHighest();
+    }
+
+    @Override
+    public void execute(NodeState state) throws InvalidValueException {
+        int current = state.cells[state.ptr];
+        if (current + lowest < MIN_CELL_VALUE || current + highest > MAX_CELL_VALUE) {
+            throw add.invalidValue(current);
+        }
+        state.cells[state.ptr] = current + value;
+        state.execMove += count;
+        state.dataWrite += count;
+    }
+}
@@ -0,0 +1,127 @@
+package mcga.brainfuck.instructions.nodes;
+
+import mcga.brainfuck.Brainfuck;
+import mcga.brainfuck.exceptions.InstructionException;
+import mcga.brainfuck.instructions.Add;
+import mcga.brainfuck.instructions.Move;
+
+import java.io.PrintStream;
+
+import static mcga.brainfuck.Memory.MAX_CELL_VALUE;
+import static mcga.brainfuck.Memory.MIN_CELL_VALUE;
+
+/**
+ * Node of a loop whose body only adds values and prints cells, the pointer being the same at the end of each
+ * iteration. The bounds of the cells reached by the body are checked once when the loop is entered, then each
+ * iteration runs over arrays of offsets from the pointer, without moving it nor calling other nodes.
+ * If the check fails, the iterations are run by the nodes of the body so that the same exception is raised.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class BalancedLoopNode extends LoopNode {
+    private final int[] offsets;
+    private final int[] values;
+    private final int[] lowests;
+    private final int[] highests;
+    // null for an output
+    private final Add[] adds;
+    private final int lowest;
+    private final int highest;
+    private final long moves;
+    private final long writes;
+    private final long reads;
+    private final long instructions;
+
+    /**
+     * Constructor of the BalancedLoopNode class.
+     *
+     * @param body nodes of the body of the loop, only AddNode, MoveNode and OutputNode with a net move of zero
+     * @param size number of instructions between the Jump and the Back
+     */
+    public BalancedLoopNode(BlockNode body, int size) {
+        super(body, size);
+        Node[] children = body.getChildren();
+        int length = 0;
+        for (Node node : children) {
+            if (!(node instanceof MoveNode)) {
+                length++;
+            }
+        }
+        offsets = new int[length];
+        values = new int[length];
+        lowests = new int[length];
+        highests = new int[length];
+        adds = new Add[length];
+        int position = 0;
+        int min = 0;
+        int max = 0;
+        long moves = 0;
+        long writes = 0;
+        long reads = 0;
+        long instructions = 1;
+        int k = 0;
+        for (Node node : children) {
+            if (node instanceof MoveNode) {
+                Move move = ((MoveNode) node).move;
+                min = Math.min(min, position + move.getLowest());
+                max = Math.max(max, position + move.getHighest());
+                position += move.getValue();
+                moves += move.getCount();
+                instructions += move.getCount();
+                continue;
+            }
+            offsets[k] = position;
+            if (node instanceof AddNode) {
+                Add add = ((AddNode) node).add;
+                adds[k] = add;
+                values[k] = add.getValue();
+                lowests[k] = add.getLowest();
+                highests[k] = add.getHighest();
+                writes += add.getCount();
+                instructions += add.getCount();
+            } else {
+                reads++;
+                instructions++;
+            }
+            k++;
+        }
+        this.lowest = min;
+        this.highest = max;
+        this.moves = moves;
+        this.writes = writes;
+        this.reads = reads;
+        this.instructions = instructions;
+    }
+
+    @Override
+    void iterate(NodeState state) throws InstructionException {
+        int ptr = state.ptr;
+        if (ptr + lowest < state.lower || ptr + highest > state.upper) {
+            super.iterate(state);
+            return;
+        }
+        state.reach(ptr + highest);
+        int[] cells = state.cells;
+        PrintStream output = Brainfuck.getMainOutput();
+        long iterations = 0;
+        do {
+            for (int k = 0; k < offsets.length; k++) {
+                int index = ptr + offsets[k];
+                int current = cells[index];
+                if (adds[k] == null) {
+                    output.print((char) current);
+                } else if (current + lowests[k] < MIN_CELL_VALUE || current + highests[k] > MAX_CELL_VALUE) {
+                    throw adds[k].invalidValue(current);
+                } else {
+                    cells[index] = current + values[k];
+                }
+            }
+            iterations++;
+        } while (cells[ptr] != 0);
+        state.execMove += iterations * instructions;
+        state.stepOffset -= size * (iterations - 1);
+        state.dataMove += iterations * moves;
+        state.dataWrite += iterations * writes;
+        state.dataRead += iterations * reads;
+    }
+}
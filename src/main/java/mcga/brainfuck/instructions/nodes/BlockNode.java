@@ -0,0 +1,47 @@
+package mcga.brainfuck.instructions.nodes;
+
+import mcga.brainfuck.exceptions.InstructionException;
+
+/**
+ * Node executing its children in order.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class BlockNode extends Node {
+    private final Node[] children;
+
+    /**
+     * Constructor of the BlockNode class.
+     *
+     * @param children nodes to execute in order
+     */
+    public BlockNode(Node[] children) {
+        this.children = children;
+        for (int i = 0; i < children.length; i++) {
+            adopt(children[i], i);
+        }
+    }
+
+    /**
+     * Executes the children, the array being read again for each of them so that the replaced nodes are
+     * executed at once.
+     *
+     * @param state pointer, cells and metrics of the execution
+     * @throws InstructionException if an instruction can cause an issue during the execution
+     */
+    @Override
+    public void execute(NodeState state) throws InstructionException {
+        for (int i = 0; i < children.length; i++) {
+            children[i].execute(state);
+        }
+    }
+
+    void adopt(Node node, int slot) {
+        children[slot] = node;
+        node.setParent(this, slot);
+    }
+
+    Node[] getChildren() {
+        return children;
+    }
+}
@@ -0,0 +1,32 @@
+package mcga.brainfuck.instructions.nodes;
+
+import mcga.brainfuck.exceptions.InstructionException;
+import mcga.brainfuck.instructions.Procedure;
+
+/**
+ * Node calling a procedure or a function which has not been called yet from this site.
+ * On its first execution, the body of the procedure is resolved once and for all and the node is replaced by
+ * a {@link ResolvedCallNode}.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class CallNode extends Node {
+    private final Procedure procedure;
+    private final NodeCreator creator;
+
+    /**
+     * Constructor of the CallNode class.
+     *
+     * @param procedure procedure to call
+     * @param creator   creator building the body of the procedure
+     */
+    public CallNode(Procedure procedure, NodeCreator creator) {
+        this.procedure = procedure;
+        this.creator = creator;
+    }
+
+    @Override
+    public void execute(NodeState state) throws InstructionException {
+        replace(new ResolvedCallNode(procedure, creator.createBody(procedure))).execute(state);
+    }
+}
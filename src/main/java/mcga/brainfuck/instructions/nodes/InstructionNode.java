@@ -0,0 +1,31 @@
+package mcga.brainfuck.instructions.nodes;
+
+import mcga.brainfuck.exceptions.InstructionException;
+import mcga.brainfuck.instructions.Instruction;
+
+/**
+ * Node interpreting an instruction which has no dedicated node, such as an input.
+ * The instruction counts its own metrics, the node only counts it as executed.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class InstructionNode extends Node {
+    private final Instruction instruction;
+
+    /**
+     * Constructor of the InstructionNode class.
+     *
+     * @param instruction instruction to interpret
+     */
+    public InstructionNode(Instruction instruction) {
+        this.instruction = instruction;
+    }
+
+    @Override
+    public void execute(NodeState state) throws InstructionException {
+        state.store();
+        instruction.interpret();
+        state.load();
+        state.execMove++;
+    }
+}
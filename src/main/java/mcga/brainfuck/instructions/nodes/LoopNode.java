@@ -0,0 +1,58 @@
+package mcga.brainfuck.instructions.nodes;
+
+import mcga.brainfuck.exceptions.InstructionException;
+
+/**
+ * Node executing a loop whose body can move the pointer, every instruction of the body doing its own checks.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class LoopNode extends Node {
+    final BlockNode body;
+    final int size;
+
+    /**
+     * Constructor of the LoopNode class.
+     *
+     * @param body nodes of the body of the loop
+     * @param size number of instructions between the Jump and the Back
+     */
+    public LoopNode(BlockNode body, int size) {
+        this.body = body;
+        this.size = size;
+    }
+
+    /**
+     * Executes the loop, counting the Jump and the Back as the interpretation of the instructions does.
+     *
+     * @param state pointer, cells and metrics of the execution
+     * @throws InstructionException if an instruction can cause an issue during the execution
+     */
+    @Override
+    public void execute(NodeState state) throws InstructionException {
+        state.execMove++;
+        state.dataRead++;
+        if (state.cells[state.ptr] == 0) {
+            state.stepOffset += size;
+        } else {
+            iterate(state);
+        }
+    }
+
+    /**
+     * Executes the iterations of the loop, the current cell being not zero.
+     *
+     * @param state pointer, cells and metrics of the execution
+     * @throws InstructionException if an instruction can cause an issue during the execution
+     */
+    void iterate(NodeState state) throws InstructionException {
+        while (true) {
+            body.execute(state);
+            state.execMove++;
+            if (state.cells[state.ptr] == 0) {
+                return;
+            }
+            state.stepOffset -= size;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package mcga.brainfuck.instructions.nodes;
+
+import mcga.brainfuck.exceptions.BrainfuckIndexOutOfBoundsException;
+import mcga.brainfuck.instructions.Move;
+
+/**
+ * Node moving the pointer, for a shift to the left, to the right or a folded run of them.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class MoveNode extends Node {
+    final Move move;
+    private final int value;
+    private final int count;
+    private final int lowest;
+    private final int highest;
+
+    /**
+     * Constructor of the MoveNode class.
+     *
+     * @param move run of shifts
+     */
+    public MoveNode(Move move) {
+        this.move = move;
+        this.value = move.getValue();
+        this.count = move.getCount();
+        this.lowest = move.getLowest();
+        this.highest = move.getHighest();
+    }
+
+    @Override
+    public void execute(NodeState state) throws BrainfuckIndexOutOfBoundsException {
+        int ptr = state.ptr;
+        if (ptr + lowest < state.lower || ptr + highest > state.upper) {
+            throw move.invalidIndex(ptr, state.lower, state.upper);
+        }
+        state.ptr = ptr + value;
+        state.reach(state.ptr);
+        state.execMove += count;
+        state.dataMove += count;
+    }
+}
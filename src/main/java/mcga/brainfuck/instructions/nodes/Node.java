@@ -0,0 +1,39 @@
+package mcga.brainfuck.instructions.nodes;
+
+import mcga.brainfuck.exceptions.InstructionException;
+
+/**
+ * Superclass of the nodes of an executable tree built from the parsed instructions.
+ * A node may replace itself in its parent block by a node specialized for what its first execution has
+ * shown, so that the following executions skip the checks which are no longer needed.
+ *
+ * @author Team Make Coding Great Again
+ */
+public abstract class Node {
+    private BlockNode parent;
+    private int slot;
+
+    /**
+     * Executes the node.
+     *
+     * @param state pointer, cells and metrics of the execution
+     * @throws InstructionException if an instruction can cause an issue during the execution
+     */
+    public abstract void execute(NodeState state) throws InstructionException;
+
+    /**
+     * Replaces this node by another one in its parent block.
+     *
+     * @param node node to execute from now on
+     * @return the node given in parameter
+     */
+    protected final <T extends Node> T replace(T node) {
+        parent.adopt(node, slot);
+        return node;
+    }
+
+    final void setParent(BlockNode parent, int slot) {
+        this.parent = parent;
+        this.slot = slot;
+    }
+}
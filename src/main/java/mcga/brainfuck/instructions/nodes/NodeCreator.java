@@ -0,0 +1,81 @@
+package mcga.brainfuck.instructions.nodes;
+
+import mcga.brainfuck.instructions.*;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the nodes corresponding to the parsed instructions.
+ * Loops and calls are built uninitialized and specialize themselves when they are first executed; the body of
+ * a procedure is built once, whatever the number of its call sites.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class NodeCreator {
+    private final Map<List<Instruction>, BlockNode> bodies = new IdentityHashMap<>();
+
+    private NodeCreator() {
+    }
+
+    /**
+     * Builds the nodes of a program.
+     *
+     * @param instructions instructions of the main program
+     * @return block of the nodes of the program
+     */
+    public static BlockNode create(List<Instruction> instructions) {
+        return new NodeCreator().createBlock(instructions);
+    }
+
+    /**
+     * Builds the nodes of the body of a procedure, or returns them if they have already been built.
+     *
+     * @param procedure procedure called
+     * @return block of the nodes of the body
+     */
+    BlockNode createBody(Procedure procedure) {
+        BlockNode body = bodies.get(procedure.getInstructions());
+        if (body == null) {
+            body = createBlock(procedure.getInstructions());
+            bodies.put(procedure.getInstructions(), body);
+        }
+        return body;
+    }
+
+    private BlockNode createBlock(List<Instruction> instructions) {
+        List<Node> nodes = new ArrayList<>();
+        for (Instruction instruction : instructions) {
+            if (!(instruction instanceof Back)) {
+                nodes.add(createNode(instruction));
+            }
+        }
+        return new BlockNode(nodes.toArray(new Node[0]));
+    }
+
+    private Node createNode(Instruction instruction) {
+        if (instruction instanceof Increment) {
+            return new AddNode(new Add(new byte[]{1}));
+        } else if (instruction instanceof Decrement) {
+            return new AddNode(new Add(new byte[]{-1}));
+        } else if (instruction instanceof Right) {
+            return new MoveNode(new Move(new byte[]{1}));
+        } else if (instruction instanceof Left) {
+            return new MoveNode(new Move(new byte[]{-1}));
+        } else if (instruction instanceof Add) {
+            return new AddNode((Add) instruction);
+        } else if (instruction instanceof Move) {
+            return new MoveNode((Move) instruction);
+        } else if (instruction instanceof Output) {
+            return new OutputNode();
+        } else if (instruction instanceof Jump) {
+            Jump jump = (Jump) instruction;
+            return new UninitializedLoopNode(createBlock(jump.getInstructions()), jump.getSize());
+        } else if (instruction instanceof Procedure) {
+            return new CallNode((Procedure) instruction, this);
+        }
+        return new InstructionNode(instruction);
+    }
+}
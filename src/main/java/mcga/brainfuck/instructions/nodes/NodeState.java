@@ -0,0 +1,88 @@
+package mcga.brainfuck.instructions.nodes;
+
+import mcga.brainfuck.Memory;
+import mcga.brainfuck.Metrics;
+import mcga.brainfuck.exceptions.BrainfuckIndexOutOfBoundsException;
+
+/**
+ * State shared by the nodes during an execution: the pointer, the cells and the bounds of the current frame
+ * are copied from the memory, and the metrics are counted here until the execution ends. The highest cell reached
+ * is given to the memory with the pointer, so that the frames are allocated without going through the whole memory.
+ * The instruction count is EXEC_MOVE, EXEC_STEP being EXEC_MOVE shifted by the skipped and repeated loops.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class NodeState {
+    final Memory memory;
+    final int[] cells;
+    int ptr;
+    int reach;
+    int lower;
+    int upper;
+    long execMove = 0;
+    long stepOffset = 0;
+    long dataMove = 0;
+    long dataWrite = 0;
+    long dataRead = 0;
+
+    /**
+     * Constructor of the NodeState class.
+     *
+     * @param memory memory the nodes work on
+     */
+    public NodeState(Memory memory) {
+        this.memory = memory;
+        this.cells = memory.openCells();
+        load();
+    }
+
+    /**
+     * Reads the pointer and the bounds from the memory, after an instruction or a frame change.
+     */
+    void load() {
+        ptr = memory.getCurrentIndex();
+        reach = ptr;
+        lower = memory.getLowerBound();
+        upper = memory.getUpperBound();
+    }
+
+    /**
+     * Writes the pointer and the highest cell reached to the memory, before an instruction uses it.
+     *
+     * @throws BrainfuckIndexOutOfBoundsException if the pointer is out of the memory
+     */
+    void store() throws BrainfuckIndexOutOfBoundsException {
+        memory.reached(reach);
+        memory.setCurrentIndex(ptr);
+    }
+
+    /**
+     * Raises the highest cell reached to a cell which has been written.
+     *
+     * @param index index of the cell
+     */
+    void reach(int index) {
+        if (index > reach) {
+            reach = index;
+        }
+    }
+
+    /**
+     * Writes the pointer to the memory and adds the metrics counted so far to the Metrics.
+     *
+     * @throws BrainfuckIndexOutOfBoundsException if the pointer is out of the memory
+     */
+    public void flush() throws BrainfuckIndexOutOfBoundsException {
+        store();
+        Metrics.incrExecMove(execMove);
+        Metrics.incrExecPos(execMove + stepOffset);
+        Metrics.incrDataMove(dataMove);
+        Metrics.incrDataWrite(dataWrite);
+        Metrics.incrDataRead(dataRead);
+        execMove = 0;
+        stepOffset = 0;
+        dataMove = 0;
+        dataWrite = 0;
+        dataRead = 0;
+    }
+}
@@ -0,0 +1,18 @@
+package mcga.brainfuck.instructions.nodes;
+
+import mcga.brainfuck.Brainfuck;
+
+/**
+ * Node printing the current cell.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class OutputNode extends Node {
+
+    @Override
+    public void execute(NodeState state) {
+        Brainfuck.getMainOutput().print((char) state.cells[state.ptr]);
+        state.execMove++;
+        state.dataRead++;
+    }
+}
@@ -0,0 +1,48 @@
+package mcga.brainfuck.instructions.nodes;
+
+import mcga.brainfuck.exceptions.BrainfuckIndexOutOfBoundsException;
+import mcga.brainfuck.exceptions.InstructionException;
+import mcga.brainfuck.instructions.Procedure;
+
+/**
+ * Node calling a procedure or a function whose body has already been built.
+ * The frame is allocated and freed by the procedure, the body runs within its bounds. The metrics are written
+ * before and after the body, so that a function whose results are cached accounts for the calls it answers.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class ResolvedCallNode extends Node {
+    private final Procedure procedure;
+    private final BlockNode body;
+
+    /**
+     * Constructor of the ResolvedCallNode class.
+     *
+     * @param procedure procedure to call
+     * @param body      nodes of the body of the procedure
+     */
+    public ResolvedCallNode(Procedure procedure, BlockNode body) {
+        this.procedure = procedure;
+        this.body = body;
+    }
+
+    @Override
+    public void execute(NodeState state) throws InstructionException {
+        state.flush();
+        if (procedure.lookup()) {
+            state.execMove++;
+            return;
+        }
+        procedure.enter();
+        state.load();
+        try {
+            body.execute(state);
+        } catch (BrainfuckIndexOutOfBoundsException e) {
+            throw procedure.outOfFrame(e);
+        }
+        state.flush();
+        procedure.free();
+        state.load();
+        state.execMove++;
+    }
+}
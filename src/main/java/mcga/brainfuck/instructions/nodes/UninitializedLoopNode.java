@@ -0,0 +1,43 @@
+package mcga.brainfuck.instructions.nodes;
+
+import mcga.brainfuck.exceptions.InstructionException;
+
+/**
+ * Node of a loop which has not been executed yet.
+ * On its first execution, it replaces itself by a {@link BalancedLoopNode} if its body only adds values and
+ * prints cells around a pointer it brings back to where it started, and by a {@link LoopNode} otherwise.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class UninitializedLoopNode extends LoopNode {
+
+    /**
+     * Constructor of the UninitializedLoopNode class.
+     *
+     * @param body nodes of the body of the loop
+     * @param size number of instructions between the Jump and the Back
+     */
+    public UninitializedLoopNode(BlockNode body, int size) {
+        super(body, size);
+    }
+
+    @Override
+    public void execute(NodeState state) throws InstructionException {
+        replace(specialize()).execute(state);
+    }
+
+    private LoopNode specialize() {
+        int position = 0;
+        for (Node node : body.getChildren()) {
+            if (node instanceof MoveNode) {
+                position += ((MoveNode) node).move.getValue();
+            } else if (!(node instanceof AddNode) && !(node instanceof OutputNode)) {
+                return new LoopNode(body, size);
+            }
+        }
+        if (position != 0) {
+            return new LoopNode(body, size);
+        }
+        return new BalancedLoopNode(body, size);
+    }
+}
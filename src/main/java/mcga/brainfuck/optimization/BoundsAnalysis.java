@@ -0,0 +1,94 @@
+package mcga.brainfuck.optimization;
+
+import mcga.brainfuck.instructions.*;
+
+import java.util.List;
+
+/**
+ * Proves the range of the cells reached by the balanced loops, whose body leaves the pointer where it found it
+ * and only contains moves, operations, inputs and outputs, offset blocks and other balanced loops. The range is
+ * stored in the {@link Jump}, which checks it once when the loop is entered instead of checking each move of
+ * its iterations. Scans and calls of procedures make the range of the loops containing them unknown.
+ * The pass does not change the instructions, hence the metrics.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class BoundsAnalysis extends Pass {
+
+    @Override
+    public String getName() {
+        return "bounds";
+    }
+
+    @Override
+    protected void optimize(List<Instruction> instructions) {
+        for (Instruction instruction : instructions) {
+            if (instruction instanceof Jump) {
+                loopRange((Jump) instruction);
+            }
+        }
+    }
+
+    /**
+     * Gets the range of the cells reached by a loop, relative to the cell it starts on, and stores it in the loop.
+     *
+     * @param jump loop to analyze
+     * @return lowest and highest offsets reached, null if the loop is not balanced or its range is unknown
+     */
+    private static int[] loopRange(Jump jump) {
+        if (jump.isBounded()) {
+            return new int[]{jump.getLowest(), jump.getHighest()};
+        }
+        int[] range = range(jump.getInstructions());
+        if (range == null || range[0] != 0) {
+            return null;
+        }
+        jump.setBounds(range[1], range[2]);
+        return new int[]{range[1], range[2]};
+    }
+
+    /**
+     * Gets the move and the range of the cells reached by a list of instructions.
+     *
+     * @param instructions instructions to analyze
+     * @return net move, lowest and highest offsets reached, null if unknown
+     */
+    private static int[] range(List<Instruction> instructions) {
+        int position = 0;
+        int lowest = 0;
+        int highest = 0;
+        for (Instruction instruction : instructions) {
+            int low = 0;
+            int high = 0;
+            int value = 0;
+            if (instruction instanceof Right) {
+                high = value = 1;
+            } else if (instruction instanceof Left) {
+                low = value = -1;
+            } else if (instruction instanceof Move) {
+                Move move = (Move) instruction;
+                low = move.getLowest();
+                high = move.getHighest();
+                value = move.getValue();
+            } else if (instruction instanceof OffsetBlock) {
+                OffsetBlock block = (OffsetBlock) instruction;
+                low = block.getLowest();
+                high = block.getHighest();
+                value = block.getValue();
+            } else if (instruction instanceof Jump || instruction instanceof LoopIdiom && !(instruction instanceof Scan)) {
+                int[] loop = loopRange(instruction instanceof Jump ? (Jump) instruction : ((LoopIdiom) instruction).getLoop());
+                if (loop == null) {
+                    return null;
+                }
+                low = loop[0];
+                high = loop[1];
+            } else if (!(instruction instanceof Operation || instruction instanceof DataIO || instruction instanceof Back)) {
+                return null;
+            }
+            lowest = Math.min(lowest, position + low);
+            highest = Math.max(highest, position + high);
+            position += value;
+        }
+        return new int[]{position, lowest, highest};
+    }
+}
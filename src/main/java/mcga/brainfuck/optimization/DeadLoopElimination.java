@@ -0,0 +1,107 @@
+package mcga.brainfuck.optimization;
+
+import mcga.brainfuck.Brainfuck;
+import mcga.brainfuck.instructions.*;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Removes the loops which can never be entered because their cell is known to be zero when they are reached:
+ * the loops at the start of the program, where the whole memory is zero unless the tape was loaded, the loops following another loop or a
+ * loop idiom, which only end on a zero cell, and the loops at the start of a procedure whose first cell of the
+ * frame does not receive a parameter, the frames being allocated above the cells in use.
+ * Unlike the other passes, it changes the metrics since the removed loops are not checked anymore, hence it only
+ * runs from -O3 on.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class DeadLoopElimination extends Pass {
+
+    @Override
+    public String getName() {
+        return "deadloops";
+    }
+
+    /**
+     * Applies the pass to the program. The analysis needs to know what is known on entry of each list of
+     * instructions, hence the lists are visited here rather than through {@link #optimize(List)}.
+     *
+     * @param instructions instructions of the main program
+     */
+    @Override
+    public void apply(List<Instruction> instructions) {
+        boolean blank = Brainfuck.getMemory().getLastUsedIndex() < 0;
+        eliminate(instructions, blank, blank, Collections.newSetFromMap(new IdentityHashMap<>()));
+    }
+
+    @Override
+    protected void optimize(List<Instruction> instructions) {
+        eliminate(instructions, false, false, Collections.newSetFromMap(new IdentityHashMap<>()));
+    }
+
+    /**
+     * Removes the dead loops of a list of instructions and of the lists it contains.
+     *
+     * @param instructions list to optimize
+     * @param zero         true if the current cell is known to be zero on entry
+     * @param memoryZero   true if every cell is known to be zero on entry
+     * @param visited      lists already optimized
+     */
+    private static void eliminate(List<Instruction> instructions, boolean zero, boolean memoryZero, Set<List<Instruction>> visited) {
+        if (!visited.add(instructions)) {
+            return;
+        }
+        Iterator<Instruction> iterator = instructions.iterator();
+        while (iterator.hasNext()) {
+            Instruction instruction = iterator.next();
+            if (instruction instanceof Jump || instruction instanceof LoopIdiom) {
+                if (zero) {
+                    iterator.remove();
+                    continue;
+                }
+                if (instruction instanceof Jump) {
+                    eliminate(((Jump) instruction).getInstructions(), false, false, visited);
+                }
+                zero = true;
+                memoryZero = false;
+            } else if (instruction instanceof Procedure) {
+                Procedure procedure = (Procedure) instruction;
+                eliminate(procedure.getInstructions(), !receivesParameter(procedure), false, visited);
+                zero = false;
+                memoryZero = false;
+            } else if (instruction instanceof Movement) {
+                zero = memoryZero;
+            } else if (instruction instanceof OffsetBlock) {
+                OffsetBlock block = (OffsetBlock) instruction;
+                if (block.getWrites() > 0) {
+                    zero = false;
+                    memoryZero = false;
+                } else if (block.getValue() != 0) {
+                    zero = memoryZero;
+                }
+            } else if (!(instruction instanceof Output) && !(instruction instanceof Back)) {
+                zero = false;
+                memoryZero = false;
+            }
+        }
+    }
+
+    /**
+     * Checks if the first cell of the frame of a procedure receives a parameter when the procedure is called.
+     *
+     * @param procedure procedure to check
+     * @return true if a parameter is declared at the start of the frame
+     */
+    private static boolean receivesParameter(Procedure procedure) {
+        for (int offset : procedure.getParamDeclaration()) {
+            if (offset == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,72 @@
+package mcga.brainfuck.optimization;
+
+import mcga.brainfuck.instructions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Folds the runs of increments and decrements into {@link Add} instructions and the runs of shifts into
+ * {@link Move} instructions, runs such as "+-" or "&gt;&lt;" being folded as well.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class Folding extends Pass {
+
+    @Override
+    public String getName() {
+        return "folding";
+    }
+
+    @Override
+    protected void optimize(List<Instruction> instructions) {
+        List<Instruction> folded = new ArrayList<>(instructions.size());
+        int i = 0;
+        while (i < instructions.size()) {
+            Instruction instruction = instructions.get(i);
+            int step = operationStep(instruction);
+            boolean operation = step != 0;
+            if (!operation) {
+                step = movementStep(instruction);
+            }
+            if (step == 0) {
+                folded.add(instruction);
+                i++;
+                continue;
+            }
+            ByteArrayOutputStream steps = new ByteArrayOutputStream();
+            int start = i;
+            while (i < instructions.size() && step != 0) {
+                steps.write(step);
+                i++;
+                if (i < instructions.size()) {
+                    step = operation ? operationStep(instructions.get(i)) : movementStep(instructions.get(i));
+                }
+            }
+            if (i - start == 1) {
+                folded.add(instruction);
+            } else if (operation) {
+                folded.add(new Add(steps.toByteArray()));
+            } else {
+                folded.add(new Move(steps.toByteArray()));
+            }
+        }
+        instructions.clear();
+        instructions.addAll(folded);
+    }
+
+    private static int operationStep(Instruction instruction) {
+        if (instruction instanceof Increment) {
+            return 1;
+        }
+        return instruction instanceof Decrement ? -1 : 0;
+    }
+
+    private static int movementStep(Instruction instruction) {
+        if (instruction instanceof Right) {
+            return 1;
+        }
+        return instruction instanceof Left ? -1 : 0;
+    }
+}
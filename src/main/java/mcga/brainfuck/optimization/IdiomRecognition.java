@@ -0,0 +1,138 @@
+package mcga.brainfuck.optimization;
+
+import mcga.brainfuck.instructions.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces the loops clearing a cell, scanning the memory for a zero cell and multiplying a cell into others by
+ * the {@link Clear}, {@link ScanLeft}, {@link ScanRight} and {@link MulAdd} instructions.
+ * It is meant to run after the {@link Folding} pass.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class IdiomRecognition extends Pass {
+
+    @Override
+    public String getName() {
+        return "idioms";
+    }
+
+    @Override
+    protected void optimize(List<Instruction> instructions) {
+        for (int i = 0; i < instructions.size(); i++) {
+            if (instructions.get(i) instanceof Jump) {
+                Instruction idiom = recognize((Jump) instructions.get(i));
+                if (idiom != null) {
+                    instructions.set(i, idiom);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the idiom corresponding to a loop.
+     *
+     * @param jump loop to analyse
+     * @return instruction replacing the loop, null if the loop is not an idiom
+     */
+    private static Instruction recognize(Jump jump) {
+        List<Instruction> body = jump.getInstructions().subList(0, jump.getInstructions().size() - 1);
+        if (body.size() == 1) {
+            Instruction instruction = body.get(0);
+            if (instruction instanceof Decrement) {
+                return new Clear(jump);
+            }
+            int stride = stride(instruction);
+            if (stride > 0) {
+                return new ScanRight(jump, stride);
+            } else if (stride < 0) {
+                return new ScanLeft(jump, -stride);
+            }
+        }
+        return mulAdd(jump, body);
+    }
+
+    /**
+     * Gets the shift of a movement going in a single direction.
+     *
+     * @param instruction instruction to analyse
+     * @return shift of the instruction, 0 if it is not such a movement
+     */
+    private static int stride(Instruction instruction) {
+        if (instruction instanceof Right) {
+            return 1;
+        } else if (instruction instanceof Left) {
+            return -1;
+        } else if (instruction instanceof Move) {
+            Move move = (Move) instruction;
+            if (move.getLowest() == Math.min(0, move.getValue()) && move.getHighest() == Math.max(0, move.getValue())) {
+                return move.getValue();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Builds a MulAdd if the body only contains operations and movements, brings the pointer back to its
+     * starting cell, decrements this cell once and modifies each other cell through a single operation.
+     *
+     * @param jump loop to analyse
+     * @param body instructions of the loop, without the Back
+     * @return the MulAdd replacing the loop, null if the loop does not match
+     */
+    private static MulAdd mulAdd(Jump jump, List<Instruction> body) {
+        Map<Integer, Integer> factors = new LinkedHashMap<>();
+        int offset = 0;
+        int lowest = 0;
+        int highest = 0;
+        int writes = 0;
+        int moves = 0;
+        for (Instruction instruction : body) {
+            if (instruction instanceof Increment || instruction instanceof Decrement || instruction instanceof Add) {
+                int value;
+                if (instruction instanceof Add) {
+                    Add add = (Add) instruction;
+                    if (add.getLowest() != Math.min(0, add.getValue()) || add.getHighest() != Math.max(0, add.getValue())) {
+                        return null;
+                    }
+                    value = add.getValue();
+                    writes += add.getCount();
+                } else {
+                    value = instruction instanceof Increment ? 1 : -1;
+                    writes++;
+                }
+                if (factors.put(offset, value) != null) {
+                    return null;
+                }
+            } else if (instruction instanceof Right || instruction instanceof Left) {
+                offset += instruction instanceof Right ? 1 : -1;
+                moves++;
+            } else if (instruction instanceof Move) {
+                Move move = (Move) instruction;
+                lowest = Math.min(lowest, offset + move.getLowest());
+                highest = Math.max(highest, offset + move.getHighest());
+                offset += move.getValue();
+                moves += move.getCount();
+            } else {
+                return null;
+            }
+            lowest = Math.min(lowest, offset);
+            highest = Math.max(highest, offset);
+        }
+        Integer counter = factors.remove(0);
+        if (offset != 0 || counter == null || counter != -1 || factors.isEmpty()) {
+            return null;
+        }
+        int[] offsets = new int[factors.size()];
+        int[] values = new int[factors.size()];
+        int i = 0;
+        for (Map.Entry<Integer, Integer> entry : factors.entrySet()) {
+            offsets[i] = entry.getKey();
+            values[i++] = entry.getValue();
+        }
+        return new MulAdd(jump, offsets, values, lowest, highest, writes, moves);
+    }
+}
@@ -0,0 +1,52 @@
+package mcga.brainfuck.optimization;
+
+import mcga.brainfuck.instructions.Instruction;
+import mcga.brainfuck.instructions.OffsetBlock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rewrites the straight-line runs of additions, shifts and outputs which move the pointer into
+ * {@link OffsetBlock} instructions, so that the pointer is moved and checked once per run.
+ * It is applied after the {@link Folding} and the {@link IdiomRecognition}, whose instructions it reads.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class OffsetAddressing extends Pass {
+
+    @Override
+    public String getName() {
+        return "offsets";
+    }
+
+    @Override
+    protected void optimize(List<Instruction> instructions) {
+        List<Instruction> rewritten = new ArrayList<>(instructions.size());
+        int i = 0;
+        while (i < instructions.size()) {
+            int start = i;
+            boolean movement = false;
+            boolean operation = false;
+            while (i < instructions.size() && OffsetBlock.isStraightLine(instructions.get(i))) {
+                if (OffsetBlock.isMovement(instructions.get(i))) {
+                    movement = true;
+                } else {
+                    operation = true;
+                }
+                i++;
+            }
+            if (movement && operation) {
+                rewritten.add(new OffsetBlock(instructions.subList(start, i)));
+            } else {
+                rewritten.addAll(instructions.subList(start, i));
+            }
+            if (i < instructions.size()) {
+                rewritten.add(instructions.get(i));
+                i++;
+            }
+        }
+        instructions.clear();
+        instructions.addAll(rewritten);
+    }
+}
@@ -0,0 +1,57 @@
+package mcga.brainfuck.optimization;
+
+import mcga.brainfuck.instructions.Instruction;
+import mcga.brainfuck.instructions.Jump;
+import mcga.brainfuck.instructions.Procedure;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Superclass of the optimizations rewriting the parsed instructions.
+ * A pass is applied to every list of instructions of the program: the main program, the body of each loop
+ * and the body of each called procedure, the inner lists being optimized before the lists containing them.
+ *
+ * @author Team Make Coding Great Again
+ */
+public abstract class Pass {
+
+    /**
+     * Applies the pass to the program.
+     *
+     * @param instructions instructions of the main program
+     */
+    public void apply(List<Instruction> instructions) {
+        visit(instructions, Collections.newSetFromMap(new IdentityHashMap<>()));
+    }
+
+    private void visit(List<Instruction> instructions, Set<List<Instruction>> visited) {
+        if (!visited.add(instructions)) {
+            return;
+        }
+        for (Instruction instruction : instructions) {
+            if (instruction instanceof Jump) {
+                visit(((Jump) instruction).getInstructions(), visited);
+            } else if (instruction instanceof Procedure) {
+                visit(((Procedure) instruction).getInstructions(), visited);
+            }
+        }
+        optimize(instructions);
+    }
+
+    /**
+     * Gets the name of the pass, used to select it on the command line.
+     *
+     * @return name of the pass
+     */
+    public abstract String getName();
+
+    /**
+     * Rewrites a list of instructions in place. The Back ending the body of a loop must stay its last instruction.
+     *
+     * @param instructions list to optimize
+     */
+    protected abstract void optimize(List<Instruction> instructions);
+}
@@ -0,0 +1,199 @@
+package mcga.brainfuck.optimization;
+
+import mcga.brainfuck.instructions.Instruction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs an ordered list of passes over the parsed instructions and keeps, for each pass, the time it took and
+ * the number of instructions of the program before and after it.
+ * The optimization levels select the following pipelines:
+ * <ul>
+ * <li>-O0: no pass, the instructions are the ones of the source code</li>
+ * <li>-O1: folding</li>
+ * <li>-O2: folding, idioms and offsets</li>
+ * <li>-O3: deadloops then the passes of -O2</li>
+ * </ul>
+ * When the loops are interpreted, by the tree and tiered engines or on narrow cells, every level, -O0 included, ends
+ * with bounds, which the compiled engines do not use.
+ * Only -O0 keeps the exact metrics of the source code. The other levels may change them: from -O3 on, the loops
+ * removed by deadloops are never checked, hence they are not accounted for in EXEC_MOVE and EXEC_STEP anymore.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class PassManager {
+    public static final int MAX_LEVEL = 3;
+    private final List<Pass> passes;
+    private final List<Statistic> statistics = new ArrayList<>();
+
+    /**
+     * Constructor of the PassManager class.
+     *
+     * @param passes passes to run, in order
+     */
+    public PassManager(List<Pass> passes) {
+        this.passes = new ArrayList<>(passes);
+    }
+
+    /**
+     * Builds the pipeline of an optimization level for the compiled engines.
+     *
+     * @param level optimization level, from 0 to {@link #MAX_LEVEL}
+     * @return pass manager running the passes of the level
+     * @throws IllegalArgumentException if the level does not exist
+     */
+    public static PassManager forLevel(int level) {
+        return forLevel(level, false);
+    }
+
+    /**
+     * Builds the pipeline of an optimization level.
+     *
+     * @param level       optimization level, from 0 to {@link #MAX_LEVEL}
+     * @param interpreted true if the loops are interpreted, which then check the bounds proved by bounds
+     * @return pass manager running the passes of the level
+     * @throws IllegalArgumentException if the level does not exist
+     */
+    public static PassManager forLevel(int level, boolean interpreted) {
+        List<Pass> passes = new ArrayList<>();
+        switch (level) {
+            case 0:
+                break;
+            case 1:
+                passes.add(new Folding());
+                break;
+            case 3:
+                passes.add(new DeadLoopElimination());
+                // falls through
+            case 2:
+                passes.addAll(Arrays.asList(new Folding(), new IdiomRecognition(), new OffsetAddressing()));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown optimization level " + level);
+        }
+        if (interpreted) {
+            passes.add(new BoundsAnalysis());
+        }
+        return new PassManager(passes);
+    }
+
+    /**
+     * Builds a pipeline from the names of its passes.
+     *
+     * @param names names of the passes, in order
+     * @return pass manager running the passes
+     * @throws IllegalArgumentException if a name does not match any pass
+     */
+    public static PassManager forNames(List<String> names) {
+        List<Pass> passes = new ArrayList<>();
+        for (String name : names) {
+            Pass pass = createPass(name.trim());
+            if (pass == null) {
+                throw new IllegalArgumentException("Unknown pass " + name);
+            }
+            passes.add(pass);
+        }
+        return new PassManager(passes);
+    }
+
+    private static Pass createPass(String name) {
+        for (Pass pass : Arrays.asList(new Folding(), new IdiomRecognition(), new OffsetAddressing(),
+                new DeadLoopElimination(), new BoundsAnalysis())) {
+            if (pass.getName().equals(name)) {
+                return pass;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Runs the passes on the program.
+     *
+     * @param instructions instructions of the main program
+     */
+    public void run(List<Instruction> instructions) {
+        int size = count(instructions);
+        for (Pass pass : passes) {
+            long start = System.nanoTime();
+            pass.apply(instructions);
+            long time = System.nanoTime() - start;
+            int after = count(instructions);
+            statistics.add(new Statistic(pass.getName(), time, size, after));
+            size = after;
+        }
+    }
+
+    /**
+     * Counts the instructions of the program: the main program, the loop bodies and the procedure bodies.
+     *
+     * @param instructions instructions of the main program
+     * @return number of instructions
+     */
+    public static int count(List<Instruction> instructions) {
+        Counter counter = new Counter();
+        counter.apply(instructions);
+        return counter.count;
+    }
+
+    public List<Statistic> getStatistics() {
+        return statistics;
+    }
+
+    public boolean isEmpty() {
+        return passes.isEmpty();
+    }
+
+    /**
+     * Time and instruction counts of a pass run.
+     */
+    public static class Statistic {
+        private final String name;
+        private final long time;
+        private final int before;
+        private final int after;
+
+        Statistic(String name, long time, int before, int after) {
+            this.name = name;
+            this.time = time;
+            this.before = before;
+            this.after = after;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getTime() {
+            return time;
+        }
+
+        public int getBefore() {
+            return before;
+        }
+
+        public int getAfter() {
+            return after;
+        }
+
+        @Override
+        public String toString() {
+            return name + " : " + before + " -> " + after + " instructions, " + time / 1000000.0 + " ms";
+        }
+    }
+
+    private static class Counter extends Pass {
+        private int count = 0;
+
+        @Override
+        public String getName() {
+            return "count";
+        }
+
+        @Override
+        protected void optimize(List<Instruction> instructions) {
+            count += instructions.size();
+        }
+    }
+}
@@ -43,11 +43,12 @@ public class Check extends Parser {
      * Overrides the main class method so that after its execution and the number of brackets counted,
      * it determines depending on count's value if the code is correctly written.
      *
-     * @see Parser#parseFile()
+     * @param code parsed program
+     * @see Parser#process(ParsedCode)
      */
     @Override
-    public void parseFile() throws InvalidCodeException {
-        super.parseFile();
+    public void process(ParsedCode code) throws InvalidCodeException {
+        super.process(code);
         checkCount();
     
     }
@@ -64,20 +65,40 @@ public class Check extends Parser {
     @Override
     public void execute(String str) throws InvalidCodeException {
         InstructionCreator instr = InstructionCreator.getInstruction(str);
-        if (instr != null) {
-            switch (instr) {
-                case JUMP:
-                    count++;
-                    break;
-                case BACK:
-                    count--;
-                    break;
-                default:
-                    break;
-            }
-        } else {
+        if (instr == null) {
             throw new InvalidInstructionException(str);
         }
+        count(instr);
+    }
+
+    /**
+     * Overrides the method of the Parser class so that the brackets are counted from the instruction the
+     * token has been resolved to.
+     *
+     * @param code parsed program
+     * @param i    index of the token
+     * @throws InvalidCodeException if the token is invalid or closes a bracket which is not opened
+     */
+    @Override
+    protected void execute(ParsedCode code, int i) throws InvalidCodeException {
+        InstructionCreator instr = code.getInstruction(i);
+        if (instr == null) {
+            throw new InvalidInstructionException(code.getToken(i));
+        }
+        count(instr);
+    }
+
+    private void count(InstructionCreator instr) throws InvalidCodeException {
+        switch (instr) {
+            case JUMP:
+                count++;
+                break;
+            case BACK:
+                count--;
+                break;
+            default:
+                break;
+        }
         if (count < 0) {
             throw new InvalidCodeException();
         }
@@ -3,17 +3,36 @@ package mcga.brainfuck.processing;
 import mcga.brainfuck.Brainfuck;
 import mcga.brainfuck.InstructionCreator;
 import mcga.brainfuck.Metrics;
+import mcga.brainfuck.engine.Checkpoint;
+import mcga.brainfuck.engine.Checkpointer;
+import mcga.brainfuck.engine.CompiledProgram;
+import mcga.brainfuck.engine.Engine;
+import mcga.brainfuck.engine.JitCompiler;
+import mcga.brainfuck.engine.PartialEvaluator;
+import mcga.brainfuck.engine.Program;
+import mcga.brainfuck.engine.ProgramCompiler;
+import mcga.brainfuck.engine.Residual;
+import mcga.brainfuck.engine.VirtualMachine;
+import mcga.brainfuck.engine.classfile.ClassTooLargeException;
 import mcga.brainfuck.exceptions.InstructionException;
+import mcga.brainfuck.exceptions.InvalidInputFileException;
 import mcga.brainfuck.exceptions.InvalidCodeException;
 import mcga.brainfuck.exceptions.InvalidInstructionException;
 import mcga.brainfuck.instructions.Instruction;
 import mcga.brainfuck.instructions.Jump;
+import mcga.brainfuck.instructions.ResultCache;
+import mcga.brainfuck.instructions.nodes.NodeCreator;
+import mcga.brainfuck.instructions.nodes.NodeState;
+import mcga.brainfuck.optimization.PassManager;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static mcga.brainfuck.InstructionCreator.RIGHT;
 
@@ -24,9 +43,24 @@ import static mcga.brainfuck.InstructionCreator.RIGHT;
  */
 
 public class Interpreter extends Parser {
+    public static final int DEFAULT_THRESHOLD = 1000;
+    private static final int HOT_LOOP_LEVEL = 2;
     private int index = 1;
     private int size=0;
     private Deque<List<Instruction>> instructionsStack = new ArrayDeque<>();
+    private Engine engine = Engine.VM;
+    private int threshold = DEFAULT_THRESHOLD;
+    private boolean tiered = false;
+    private Map<Jump, Integer> backEdges = new IdentityHashMap<>();
+    private Map<Jump, Program> hotLoops = new IdentityHashMap<>();
+    private List<Jump> promotedLoops = new ArrayList<>();
+    private long prefixBudget = 0;
+    private PassManager passManager;
+    private int optimizationLevel = -1;
+    private boolean passReport = false;
+    private Checkpointer checkpointer;
+    private Checkpoint checkpoint;
+    private int memoSize = ResultCache.DEFAULT_SIZE;
     
     /**
      * Default constructor of the class.
@@ -55,32 +89,217 @@ public class Interpreter extends Parser {
      */
     public void printMetrics() {
         System.out.println("\nPROG_SIZE = " + Metrics.getProgSize() + '\n' + "EXEC_TIME = " + Metrics.getExecTime() + " ms" + '\n' + "EXEC_MOVE = " + Metrics.getExecMove() + '\n' + "DATA_MOVE = " + Metrics.getDataMove() + '\n' + "DATA_READ = " + Metrics.getDataRead() + '\n' + "DATA_WRITE = " + Metrics.getDataWrite() + '\n');
+        if (tiered) {
+            StringBuilder positions = new StringBuilder();
+            for (Jump jump : promotedLoops) {
+                positions.append(positions.length() == 0 ? " (loops at " : ", ").append(jump.getPosition());
+            }
+            if (positions.length() > 0) {
+                positions.append(')');
+            }
+            System.out.println("TIER_UP = " + Metrics.getTierUp() + positions + '\n');
+        }
+        if (Metrics.getMemoHit() + Metrics.getMemoMiss() > 0) {
+            System.out.println("MEMO_HIT = " + Metrics.getMemoHit() + '\n' + "MEMO_MISS = " + Metrics.getMemoMiss() + '\n');
+        }
+        if (passReport) {
+            for (PassManager.Statistic statistic : passManager.getStatistics()) {
+                System.out.println("PASS " + statistic);
+            }
+        }
     }
     
     /**
      * Overrides the method of the Parser class to interpret the list of commands.
      *
-     * @see Parser#parseFile()
+     * @param code parsed program
+     * @see Parser#process(ParsedCode)
      */
     @Override
-    public void parseFile() throws InvalidCodeException {
-        super.parseFile();
+    public void process(ParsedCode code) throws InvalidCodeException {
+        super.process(code);
         if (!Jump.isJumpStackEmpty()) {
             throw new InvalidCodeException();
         }
         double startTime = System.nanoTime();
         try {
-            interpretList(instructionsStack.peek());
+            run(instructionsStack.peek());
         } catch (InstructionException e) {
+            Brainfuck.getMainOutput().flush();
             System.err.println(e.getMessage());
             System.exit(e.getExitCode());
         }
         double endTime = System.nanoTime();
         Metrics.setExecTime((endTime - startTime) * Math.pow(10, -6));
+        Brainfuck.getMainOutput().flush();
         System.out.println("\n\n"+Brainfuck.getMemory());
         printMetrics();
     }
     
+    /**
+     * Executes the parsed program with the selected engine, after the passes of the selected optimization
+     * level, or of the default level of the engine, have rewritten it.
+     * The tree and tiered engines interpret the instructions, the tiered one compiling each loop once it gets
+     * hot. The ast engine executes them as a tree of nodes specializing themselves. Otherwise, the program is
+     * compiled into a {@link Program} which is run by the {@link VirtualMachine} or compiled into JVM bytecode.
+     * When a prefix budget is set, the input-free prefix of the compiled program is evaluated first and the
+     * program resumes from the state it reaches. The other engines working on 32 bits cells, the instructions
+     * are interpreted whenever the cells of the memory are narrower.
+     * The program is run by the virtual machine whatever the engine when checkpoints are written or when it is
+     * resumed from a checkpoint, the passes having rewritten it as in the execution which wrote the checkpoint.
+     *
+     * @param instructions instructions of the main program
+     * @throws InstructionException if an instruction can cause an issue during the execution
+     */
+    protected void run(List<Instruction> instructions) throws InstructionException {
+        boolean intCells = Brainfuck.getMemory().hasIntCells();
+        boolean checkpointed = intCells && (checkpointer != null || checkpoint != null);
+        if (passManager == null) {
+            boolean interpreted = !checkpointed && (engine == Engine.TREE || engine == Engine.TIERED || !intCells);
+            passManager = PassManager.forLevel(optimizationLevel >= 0 ? optimizationLevel : defaultLevel(), interpreted);
+        }
+        passManager.run(instructions);
+        if (checkpointed) {
+            // the checkpoints locate the calls in progress by their CALL opcodes, the procedures are not inlined
+            runCheckpointed(ProgramCompiler.compile(instructions, 0));
+            return;
+        }
+        if (engine == Engine.TREE || engine == Engine.TIERED || !intCells) {
+            tiered = engine == Engine.TIERED && intCells;
+            interpretList(instructions);
+            return;
+        }
+        if (engine == Engine.AST) {
+            NodeState state = new NodeState(Brainfuck.getMemory());
+            try {
+                NodeCreator.create(instructions).execute(state);
+            } finally {
+                state.flush();
+            }
+            return;
+        }
+        Program program = ProgramCompiler.compile(instructions);
+        int entry = 0;
+        if (prefixBudget > 0) {
+            Residual residual = PartialEvaluator.evaluate(program, Brainfuck.getMemory(), prefixBudget);
+            if (residual != null) {
+                residual.restore(Brainfuck.getMemory(), Brainfuck.getMainOutput());
+                if (residual.isComplete()) {
+                    return;
+                }
+                entry = residual.getEntry();
+            }
+        }
+        if (engine == Engine.JIT) {
+            CompiledProgram compiled;
+            try {
+                compiled = JitCompiler.compile(program, entry);
+            } catch (ClassTooLargeException e) {
+                // the program does not fit in a class file, the virtual machine runs it instead
+                compiled = null;
+            }
+            if (compiled != null) {
+                compiled.run(Brainfuck.getMemory());
+                return;
+            }
+        }
+        new VirtualMachine(program, Brainfuck.getMemory()).run(entry);
+    }
+    
+    /**
+     * Runs a compiled program with the virtual machine, writing checkpoints or resuming from one. The input-free
+     * prefix is evaluated first unless the program is resumed.
+     *
+     * @param program compiled program
+     * @throws InstructionException if an instruction can cause an issue during the execution
+     */
+    private void runCheckpointed(Program program) throws InstructionException {
+        VirtualMachine machine = new VirtualMachine(program, Brainfuck.getMemory());
+        machine.setCheckpointer(checkpointer);
+        if (checkpoint != null) {
+            try {
+                machine.resume(checkpoint);
+            } catch (IOException e) {
+                throw new InvalidInputFileException("Cannot resume: " + e.getMessage());
+            }
+            return;
+        }
+        int entry = 0;
+        if (prefixBudget > 0) {
+            Residual residual = PartialEvaluator.evaluate(program, Brainfuck.getMemory(), prefixBudget);
+            if (residual != null) {
+                residual.restore(Brainfuck.getMemory(), Brainfuck.getMainOutput());
+                if (residual.isComplete()) {
+                    return;
+                }
+                entry = residual.getEntry();
+            }
+        }
+        machine.run(entry);
+    }
+
+    /**
+     * Runs the remaining iterations of a loop which has already been compiled, when the execution is tiered.
+     *
+     * @param jump beginning of the loop, the current cell being not zero
+     * @return true if the loop has been run
+     * @throws InstructionException if an instruction can cause an issue during the execution
+     */
+    public boolean enterLoop(Jump jump) throws InstructionException {
+        if (!tiered) {
+            return false;
+        }
+        Program program = hotLoops.get(jump);
+        if (program == null) {
+            return false;
+        }
+        resume(program);
+        return true;
+    }
+    
+    /**
+     * Counts a new iteration of a loop when the execution is tiered. Once the loop has been taken back
+     * threshold times, its folded and optimized instructions are compiled into a {@link Program} and the
+     * remaining iterations are run by the {@link VirtualMachine} from the current state of the memory.
+     *
+     * @param jump beginning of the loop, the current cell being not zero
+     * @return true if the remaining iterations of the loop have been run
+     * @throws InstructionException if an instruction can cause an issue during the execution
+     */
+    public boolean backEdge(Jump jump) throws InstructionException {
+        if (!tiered) {
+            return false;
+        }
+        Integer count = backEdges.get(jump);
+        count = count == null ? 1 : count + 1;
+        if (count < threshold) {
+            backEdges.put(jump, count);
+            return false;
+        }
+        backEdges.remove(jump);
+        List<Instruction> loop = new ArrayList<>();
+        loop.add(jump);
+        PassManager.forLevel(HOT_LOOP_LEVEL).run(loop);
+        Program program = ProgramCompiler.compile(loop);
+        hotLoops.put(jump, program);
+        promotedLoops.add(jump);
+        Metrics.incrTierUp();
+        resume(program);
+        return true;
+    }
+    
+    /**
+     * Runs a compiled loop from the beginning of an iteration. The test of the compiled loop has already been
+     * done by the Jump and the loop is counted as a single instruction by its interpretation, so their
+     * metrics are taken back.
+     */
+    private void resume(Program program) throws InstructionException {
+        Metrics.incrDataRead(-1);
+        Metrics.incrExecMove(-1);
+        Metrics.incrExecPos(-1);
+        new VirtualMachine(program, Brainfuck.getMemory()).run();
+    }
+    
     /**
      * Interprets each command between the two size start and end.
      */
@@ -118,6 +337,28 @@ public class Interpreter extends Parser {
         }
     }
 
+    /**
+     * Overrides the method of the Parser class so that the Instruction is created from the instruction the token
+     * has been resolved to, the calls of procedures being created from their text.
+     *
+     * @param code parsed program
+     * @param i    index of the token
+     * @throws InvalidCodeException if the token is invalid
+     */
+    @Override
+    protected void execute(ParsedCode code, int i) throws InvalidCodeException {
+        InstructionCreator instruction = code.getInstruction(i);
+        if (instruction == null) {
+            execute(code.getToken(i));
+            return;
+        }
+        instructionsStack.peek().add(instruction.create());
+        index++;
+        if (instruction == RIGHT) {
+            size++;
+        }
+    }
+
     /**
      * Pushes the List of instructions in parameter in the instructionsStack dequeue.
      * @param item List of instructions
@@ -135,13 +376,13 @@ public class Interpreter extends Parser {
     }
 
     /**
-     * Reads the code of the procedure and calculates its size in the memory.
-     * @param str Code of the procedure
+     * Creates the instructions of the parsed code of the procedure and calculates its size in the memory.
+     * @param code parsed code of the procedure
      * @return size of the procedure in the memory
      */
-    public int readProcedureText(String str) throws InvalidCodeException {
+    public int readProcedure(ParsedCode code) throws InvalidCodeException {
         int prevIndex = size;
-        super.readText(str);
+        replay(code);
         return size + 1 - prevIndex;
     }
     
@@ -156,4 +397,103 @@ public class Interpreter extends Parser {
     public int getSize() {
         return size;
     }
+    
+    public void setEngine(Engine engine) {
+        this.engine = engine;
+    }
+    
+    /**
+     * Writes checkpoints of the execution.
+     *
+     * @param checkpointer decides when the checkpoints are written
+     */
+    public void setCheckpointer(Checkpointer checkpointer) {
+        this.checkpointer = checkpointer;
+    }
+
+    /**
+     * Resumes the execution from a checkpoint instead of starting the program.
+     *
+     * @param checkpoint checkpoint written by an execution of the same program with the same passes
+     */
+    public void setCheckpoint(Checkpoint checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
+    public void setThreshold(int threshold) {
+        this.threshold = threshold;
+    }
+    
+    /**
+     * Sets the number of opcodes of the input-free prefix evaluated before the compiled program is run.
+     *
+     * @param prefixBudget budget of the {@link PartialEvaluator}, 0 to run the program from its start
+     */
+    public void setPrefixBudget(long prefixBudget) {
+        this.prefixBudget = prefixBudget;
+    }
+
+    /**
+     * Sets the number of results kept for each pure function declared from now on.
+     *
+     * @param memoSize number of results, 0 not to cache them
+     */
+    public void setMemoSize(int memoSize) {
+        this.memoSize = memoSize;
+    }
+
+    public int getMemoSize() {
+        return memoSize;
+    }
+    
+    /**
+     * Selects the passes of an optimization level, whose statistics are printed with the metrics. The pipeline is
+     * built when the program is run, the bounds pass being added when the loops are interpreted.
+     *
+     * @param level optimization level, from 0 to {@link PassManager#MAX_LEVEL}
+     * @throws IllegalArgumentException if the level does not exist
+     */
+    public void setOptimizationLevel(int level) {
+        if (level < 0 || level > PassManager.MAX_LEVEL) {
+            throw new IllegalArgumentException("Unknown optimization level " + level);
+        }
+        this.optimizationLevel = level;
+        this.passManager = null;
+        this.passReport = true;
+    }
+    
+    /**
+     * Sets the passes run before the execution, whose statistics are printed with the metrics.
+     *
+     * @param passManager passes to run
+     */
+    public void setPassManager(PassManager passManager) {
+        this.passManager = passManager;
+        this.passReport = true;
+    }
+    
+    /**
+     * Gets the optimization level of the engine when none is selected: the instructions are interpreted as
+     * they are parsed, only the bounds of their loops being proved, the nodes are built from folded instructions
+     * and the compiled engines get the passes of -O2.
+     * The instructions interpreted on narrow cells are folded.
+     */
+    private int defaultLevel() {
+        if (!Brainfuck.getMemory().hasIntCells()) {
+            return 1;
+        }
+        switch (engine) {
+            case TREE:
+            case TIERED:
+                return 0;
+            case AST:
+                return 1;
+            default:
+                return 2;
+        }
+    }
+    
+    List<Instruction> getInstructions() {
+        return instructionsStack.peekLast();
+    }
 }
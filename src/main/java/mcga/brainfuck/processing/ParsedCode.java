@@ -0,0 +1,163 @@
+package mcga.brainfuck.processing;
+
+import mcga.brainfuck.InstructionCreator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static mcga.brainfuck.InstructionCreator.SHORT_SYNTAX_INDEX;
+
+/**
+ * Immutable representation of a parsed program, shared by all the parsers so that the source code is read and its
+ * tokens resolved only once. Each token is stored as an opcode, the ordinal of its {@link InstructionCreator},
+ * and an operand which, for a call or a declaration of a procedure, indexes the table of the calls or the table of
+ * the procedures. Macros are already expanded and comments removed.
+ *
+ * @author Team Make Coding Great Again
+ */
+public final class ParsedCode {
+    static final byte CALL = -1;
+    static final byte DECLARATION = -2;
+    private static final InstructionCreator[] INSTRUCTIONS = InstructionCreator.values();
+    private final byte[] opcodes;
+    private final int[] operands;
+    private final String[] calls;
+    private final Declaration[] procedures;
+
+    private ParsedCode(byte[] opcodes, int[] operands, String[] calls, Declaration[] procedures) {
+        this.opcodes = opcodes;
+        this.operands = operands;
+        this.calls = calls;
+        this.procedures = procedures;
+    }
+
+    /**
+     * Gets the number of tokens of the program, the declarations of procedures included.
+     *
+     * @return number of tokens
+     */
+    public int size() {
+        return opcodes.length;
+    }
+
+    /**
+     * Gets the instruction of a token.
+     *
+     * @param i index of the token
+     * @return instruction of the token, null if it is a call or a declaration
+     */
+    public InstructionCreator getInstruction(int i) {
+        return opcodes[i] >= 0 ? INSTRUCTIONS[opcodes[i]] : null;
+    }
+
+    /**
+     * Gets the text of a token: the short syntax of an instruction or the text of a call.
+     *
+     * @param i index of the token
+     * @return text of the token, null if it is a declaration
+     */
+    public String getToken(int i) {
+        switch (opcodes[i]) {
+            case CALL:
+                return calls[operands[i]];
+            case DECLARATION:
+                return null;
+            default:
+                return INSTRUCTIONS[opcodes[i]].getIdentifier(SHORT_SYNTAX_INDEX);
+        }
+    }
+
+    /**
+     * Gets the procedure declared by a token.
+     *
+     * @param i index of the token
+     * @return declaration of the procedure, null if the token is not a declaration
+     */
+    public Declaration getDeclaration(int i) {
+        return opcodes[i] == DECLARATION ? procedures[operands[i]] : null;
+    }
+
+    /**
+     * Declaration of a procedure or a function, whose body is parsed as well.
+     */
+    public static final class Declaration {
+        private final String name;
+        private final String[] params;
+        private final boolean function;
+        private final ParsedCode body;
+
+        Declaration(String name, String[] params, boolean function, ParsedCode body) {
+            this.name = name;
+            this.params = params.clone();
+            this.function = function;
+            this.body = body;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String[] getParams() {
+            return params.clone();
+        }
+
+        public boolean isFunction() {
+            return function;
+        }
+
+        public ParsedCode getBody() {
+            return body;
+        }
+    }
+
+    /**
+     * Collects the tokens of a program while it is read.
+     */
+    static class Builder {
+        private byte[] opcodes = new byte[64];
+        private int[] operands = new int[64];
+        private int size = 0;
+        private List<String> calls = new ArrayList<>();
+        private List<Declaration> procedures = new ArrayList<>();
+
+        /**
+         * Adds a token, resolving the instruction it corresponds to.
+         *
+         * @param token long or short syntax of an instruction, or call of a procedure
+         */
+        void add(String token) {
+            InstructionCreator instruction = InstructionCreator.getInstruction(token);
+            if (instruction != null) {
+                append((byte) instruction.ordinal(), 0);
+            } else {
+                calls.add(token);
+                append(CALL, calls.size() - 1);
+            }
+        }
+
+        /**
+         * Adds the declaration of a procedure.
+         *
+         * @param declaration declared procedure
+         */
+        void declare(Declaration declaration) {
+            procedures.add(declaration);
+            append(DECLARATION, procedures.size() - 1);
+        }
+
+        private void append(byte opcode, int operand) {
+            if (size == opcodes.length) {
+                opcodes = Arrays.copyOf(opcodes, size * 2);
+                operands = Arrays.copyOf(operands, size * 2);
+            }
+            opcodes[size] = opcode;
+            operands[size++] = operand;
+        }
+
+        ParsedCode build() {
+            return new ParsedCode(Arrays.copyOf(opcodes, size), Arrays.copyOf(operands, size),
+                    calls.toArray(new String[0]), procedures.toArray(new Declaration[0]));
+        }
+    }
+}
@@ -15,14 +15,17 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
  * This class contains a bunch of methods used to parse the file containing the Brainf*ck code
- * and execute the code.
+ * and execute the code. The file is read once into a {@link ParsedCode}, which can then be processed by any
+ * number of parsers.
  *
  * @author Team Make Coding Great Again
  */
@@ -38,6 +41,7 @@ public abstract class Parser {
     private static final String EMPTY_INSTRUCTION = "000000";
     static Map<String, ProcedureStruct> procedureMap = new HashMap<>();
     private Map<String, Macro> macroMap = new HashMap<>();
+    private Set<String> procedureNames = new HashSet<>();
     private InputStream stream;
     private String fileName;
 
@@ -110,30 +114,65 @@ public abstract class Parser {
     }
 
     /**
-     * Reads the file containing the Brainf*ck code. This method is called in each subclass, with some
-     * additions depending on the subclass.
+     * Reads the file containing the Brainf*ck code and processes it.
      *
-     * @see Check#parseFile()
-     * @see Interpreter#parseFile()
+     * @see #read()
+     * @see #process(ParsedCode)
      */
     public void parseFile() throws InvalidCodeException {
+        process(read());
+    }
+
+    /**
+     * Reads the file containing the Brainf*ck code, or the bitmap image representing it, into its parsed
+     * representation.
+     *
+     * @return parsed code of the file
+     */
+    public ParsedCode read() throws InvalidCodeException {
         Metrics.setProgSize(0);
         if (fileName != null && fileName.endsWith(FILE_FORMAT)) {
-            readBitmap();
+            return readBitmap();
         } else {
-            readText();
+            return parse(new Scanner(this.stream));
         }
+    }
+
+    /**
+     * Processes a parsed program. This method is overridden in the subclasses, which act once all its tokens
+     * have been executed.
+     *
+     * @param code parsed program
+     * @see Check#process(ParsedCode)
+     * @see Interpreter#process(ParsedCode)
+     */
+    public void process(ParsedCode code) throws InvalidCodeException {
+        replay(code);
+    }
 
+    /**
+     * Executes each token of a parsed program and declares its procedures.
+     *
+     * @param code parsed program
+     */
+    protected void replay(ParsedCode code) throws InvalidCodeException {
+        for (int i = 0; i < code.size(); i++) {
+            ParsedCode.Declaration declaration = code.getDeclaration(i);
+            if (declaration != null) {
+                declare(declaration);
+            } else {
+                execute(code, i);
+            }
+        }
     }
 
     /**
-     * Reads the bitmap image containing the Brainfuck code. This method is called in each subclass, with some
-     * additions depending on the subclass.
+     * Reads the bitmap image containing the Brainfuck code.
      *
-     * @see Check#readBitmap()
-     * @see Interpreter#readBitmap()
+     * @return parsed code of the image
      */
-    private void readBitmap() throws InvalidCodeException {
+    private ParsedCode readBitmap() throws InvalidCodeException {
+        ParsedCode.Builder builder = new ParsedCode.Builder();
         BufferedImage image;
         try {
             image = ImageIO.read(stream);
@@ -157,7 +196,7 @@ public abstract class Parser {
                         }
                     }
                     if (!hexColor.equals(EMPTY_INSTRUCTION)) {
-                        execute(hexColor);
+                        builder.add(hexColor);
                         Metrics.incrProgSize();
                     }
                 }
@@ -165,20 +204,35 @@ public abstract class Parser {
         } catch (IOException e) {
             e.printStackTrace();
         }
+        return builder.build();
+    }
 
+    /**
+     * Reads and processes a piece of code.
+     *
+     * @param str code to read
+     */
+    protected void readText(String str) throws InvalidCodeException {
+        replay(parse(str));
     }
 
-    private void readText() throws InvalidCodeException {
-        Scanner scanner = new Scanner(this.stream);
-        scanFile(scanner);
+    /**
+     * Reads a piece of code without processing it.
+     *
+     * @param str code to read
+     * @return parsed code
+     */
+    ParsedCode parse(String str) throws InvalidCodeException {
+        return parse(new Scanner(str));
     }
 
-    protected void readText(String str) throws InvalidCodeException {
-        Scanner scanner = new Scanner(str);
-        scanFile(scanner);
+    private ParsedCode parse(Scanner scanner) throws InvalidCodeException {
+        ParsedCode.Builder builder = new ParsedCode.Builder();
+        scanFile(scanner, builder);
+        return builder.build();
     }
 
-    private void scanFile(Scanner scanner) throws InvalidCodeException {
+    private void scanFile(Scanner scanner, ParsedCode.Builder builder) throws InvalidCodeException {
         String str;
         scanner.useDelimiter("\\s*");
         while (scanner.hasNext()) {
@@ -193,10 +247,10 @@ public abstract class Parser {
                     String macroName = matcher.group(1);
                     if ((macro = macroMap.get(macroName)) != null) {
                         str = macro.callMacro(macroName, matcher.group(2));
-                        readText(str);
+                        scanFile(new Scanner(str), builder);
                     } else {
                         Metrics.incrProgSize();
-                        execute(str);
+                        builder.add(str);
                     }
                 }
             } else if (isComments(str)) {
@@ -204,19 +258,31 @@ public abstract class Parser {
             } else if (isMacroDeclaration(str)) {
                 declaration(scanner, (name, code, params) -> macroMap.put(name, new Macro(name, code, params)));
             } else if (isProcedureDeclaration(str)) {
-                declaration(scanner, declareFunction(false));
+                declaration(scanner, declareFunction(builder, false));
             } else if (isFunctionDeclaration(str)) {
-                declaration(scanner, declareFunction(true));
+                declaration(scanner, declareFunction(builder, true));
             } else {
                 Metrics.incrProgSize();
-                execute(str);
+                builder.add(str);
             }
         }
 
     }
 
-    public IDeclaration declareFunction(boolean function) {
-        return new FunctionDeclaration(function);
+    private IDeclaration declareFunction(ParsedCode.Builder builder, boolean function) {
+        return (name, code, params) -> {
+            procedureNames.add(name);
+            builder.declare(new ParsedCode.Declaration(name, params, function, parse(code)));
+        };
+    }
+
+    /**
+     * Declares a procedure or a function when its declaration is processed.
+     *
+     * @param declaration declared procedure
+     */
+    protected void declare(ParsedCode.Declaration declaration) throws InvalidCodeException {
+        procedureMap.put(declaration.getName(), new ProcedureStruct(declaration.getBody(), declaration.getParams(), declaration.isFunction()));
     }
 
     private void declaration(Scanner scanner, IDeclaration declaration) throws InvalidCodeException {
@@ -237,7 +303,7 @@ public abstract class Parser {
         } else {
             name = tab[0];
         }
-        if (!macroMap.containsKey(name) && !procedureMap.containsKey(name)) {
+        if (!macroMap.containsKey(name) && !procedureNames.contains(name) && !procedureMap.containsKey(name)) {
             declaration.action(name, code, params);
         } else {
             throw new InvalidCodeException(name + " is already defined");
@@ -254,6 +320,18 @@ public abstract class Parser {
         return Integer.toHexString(color.getRGB()).substring(2);
     }
 
+    /**
+     * Executes a token of a parsed program. By default, it executes the text of the token, the subclasses
+     * overriding it to use the instruction it has been resolved to.
+     *
+     * @param code parsed program
+     * @param i    index of the token
+     * @throws InvalidCodeException if the token is invalid
+     */
+    protected void execute(ParsedCode code, int i) throws InvalidCodeException {
+        execute(code.getToken(i));
+    }
+
     /**
      * This method is overriden in all subclasses.
      *
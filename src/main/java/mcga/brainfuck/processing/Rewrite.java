@@ -57,4 +57,21 @@ public class Rewrite extends Parser {
         }
     }
 
+    /**
+     * Overrides the method of the Parser class so that the short syntax is printed from the instruction the
+     * token has been resolved to.
+     * @param code parsed program
+     * @param i index of the token
+     * @see Parser#execute(ParsedCode, int)
+     */
+    @Override
+    protected void execute(ParsedCode code, int i) {
+        InstructionCreator instruction = code.getInstruction(i);
+        if (instruction == null) {
+            execute(code.getToken(i));
+        } else {
+            Brainfuck.getMainOutput().print(instruction.getIdentifier(InstructionCreator.SHORT_SYNTAX_INDEX));
+        }
+    }
+
 }
@@ -1,5 +1,7 @@
 package mcga.brainfuck.processing;
 
+import mcga.brainfuck.InstructionCreator;
+import mcga.brainfuck.ProcedureStruct;
 import mcga.brainfuck.exceptions.InvalidCodeException;
 
 import java.io.FileNotFoundException;
@@ -8,6 +10,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.StringJoiner;
 
+import static mcga.brainfuck.InstructionCreator.C_SYNTAX_INDEX;
 import static mcga.brainfuck.InstructionCreator.getCSyntax;
 import static mcga.brainfuck.Memory.*;
 
@@ -88,11 +91,12 @@ public class ToC extends Parser {
 
     /**
      * Overrides the main class method so that it prints all the parts of the generated file.
-     * @see Parser#parseFile()
+     * @param code parsed program
+     * @see Parser#process(ParsedCode)
      */
     @Override
-    public void parseFile() throws InvalidCodeException {
-        super.parseFile();
+    public void process(ParsedCode code) throws InvalidCodeException {
+        super.process(code);
         outputStream.println(initialize());
         for (String instruction : instructions) {
             outputStream.println(instruction);
@@ -101,17 +105,6 @@ public class ToC extends Parser {
     }
 
 
-    /**
-     * Declares a function.
-     * @param function true is the function is a function, false if the function is a procedure.
-     * @return a new {@link ToCFunctionDeclaration ToCFunctionDeclaration} object
-     */
-    @Override
-    public IDeclaration declareFunction(boolean function) {
-        return new ToCFunctionDeclaration(function);
-    }
-
-
     /**
      * This method overrides {@link Parser#execute(String) execute} called in {@link Parser#parseFile() parseFile}
      * so that for each instruction, its C syntax is added to the instructions List.
@@ -124,50 +117,62 @@ public class ToC extends Parser {
     }
 
     /**
-     * Represents a function declaration in C language
+     * Overrides the method of the Parser class so that the C syntax is the one of the instruction the token has
+     * been resolved to.
+     * @param code parsed program
+     * @param i index of the token
+     * @throws InvalidCodeException if the token is invalid
      */
-    private class ToCFunctionDeclaration extends FunctionDeclaration {
-
-        /**
-         * Constructor of the ToCFunctionDeclaration class.
-         * @param function true is the function is a function, false if the function is a procedure.
-         */
-        ToCFunctionDeclaration(boolean function) {
-            super(function);
+    @Override
+    protected void execute(ParsedCode code, int i) throws InvalidCodeException {
+        InstructionCreator instruction = code.getInstruction(i);
+        if (instruction == null) {
+            execute(code.getToken(i));
+        } else {
+            instructions.add(instruction.getIdentifier(C_SYNTAX_INDEX));
         }
+    }
 
-        @Override
-        public void action(String name, String code, String[] params) throws InvalidCodeException {
-            super.action(name, code, params);
-            StringJoiner sj = new StringJoiner(",");
-            for (String param : params) {
-                sj.add("unsigned char " + ARG_STRING + param);
-            }
-            List<String> tmp = instructions;
-            instructions = functionInstructions;
-            if (!function) {
-                instructions.add("void " + name + "(" + sj.toString() + "){");
-            } else {
-                instructions.add("unsigned char " + name + "(" + sj.toString() + "){");
-            }
-            String str = "int tmpPtr = ptr;\n" + "int tmpStart;\n" + "int tmpEnd;\n" + "int size = " + struct.getSize() + ";\n" + "ptr = " + (MAX_SIZE - 1) + ";\n" + "while (tab[ptr] == 0) {\n" + "   ptr--;\n" + "}\n" + "ptr++;\n" + "if (" + MAX_SIZE + " - ptr < size) {\n" + "   fprintf(stderr, \"" + NOT_ENOUGH_MESSAGE + "\");\n" + "   exit(" + NOT_ENOUGH_CODE + ");\n" + "} else {\n" + "   tmpStart = start;\n" + "   tmpEnd = end;\n" + "   start = ptr;\n" + "   end = ptr + size - 1;\n" + "}";
-            StringBuilder sb = new StringBuilder();
-            for (int i = 0; i < struct.getDeclarationParmsSize(); i++) {
-                sb.append("tab[ptr+").append(struct.getDeclarationParam(i)).append("]=").append(ARG_STRING).append(params[i]).append(";\n");
-            }
-            instructions.add(str);
-            instructions.add(sb.toString());
-            readText(code);
-            if (function) {
-                instructions.add("int res=tab[ptr];");
-            }
-            instructions.add("ptr = end;\n" + "while (ptr >= start) {\n" + "   tab[ptr--] = 0;\n" + "}\n" + "start = tmpStart;\n" + "end = tmpEnd;\n" + "ptr = tmpPtr;\n");
-            if (function) {
-                instructions.add("return res;");
-            }
-            instructions.add("}");
-            instructions = tmp;
+    /**
+     * Declares a procedure and generates the corresponding function in C language.
+     * @param declaration declared procedure
+     * @throws InvalidCodeException if the code of the procedure is invalid
+     */
+    @Override
+    protected void declare(ParsedCode.Declaration declaration) throws InvalidCodeException {
+        super.declare(declaration);
+        String name = declaration.getName();
+        String[] params = declaration.getParams();
+        boolean function = declaration.isFunction();
+        ProcedureStruct struct = getProcedure(name);
+        StringJoiner sj = new StringJoiner(",");
+        for (String param : params) {
+            sj.add("unsigned char " + ARG_STRING + param);
+        }
+        List<String> tmp = instructions;
+        instructions = functionInstructions;
+        if (!function) {
+            instructions.add("void " + name + "(" + sj.toString() + "){");
+        } else {
+            instructions.add("unsigned char " + name + "(" + sj.toString() + "){");
+        }
+        String str = "int tmpPtr = ptr;\n" + "int tmpStart;\n" + "int tmpEnd;\n" + "int size = " + struct.getSize() + ";\n" + "ptr = " + (MAX_SIZE - 1) + ";\n" + "while (tab[ptr] == 0) {\n" + "   ptr--;\n" + "}\n" + "ptr++;\n" + "if (" + MAX_SIZE + " - ptr < size) {\n" + "   fprintf(stderr, \"" + NOT_ENOUGH_MESSAGE + "\");\n" + "   exit(" + NOT_ENOUGH_CODE + ");\n" + "} else {\n" + "   tmpStart = start;\n" + "   tmpEnd = end;\n" + "   start = ptr;\n" + "   end = ptr + size - 1;\n" + "}";
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < struct.getDeclarationParmsSize(); i++) {
+            sb.append("tab[ptr+").append(struct.getDeclarationParam(i)).append("]=").append(ARG_STRING).append(params[i]).append(";\n");
+        }
+        instructions.add(str);
+        instructions.add(sb.toString());
+        replay(declaration.getBody());
+        if (function) {
+            instructions.add("int res=tab[ptr];");
+        }
+        instructions.add("ptr = end;\n" + "while (ptr >= start) {\n" + "   tab[ptr--] = 0;\n" + "}\n" + "start = tmpStart;\n" + "end = tmpEnd;\n" + "ptr = tmpPtr;\n");
+        if (function) {
+            instructions.add("return res;");
         }
+        instructions.add("}");
+        instructions = tmp;
     }
 }
 
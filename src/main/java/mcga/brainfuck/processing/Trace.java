@@ -8,6 +8,7 @@ import mcga.brainfuck.instructions.Instruction;
 
 import java.io.FileNotFoundException;
 import java.io.PrintStream;
+import java.util.List;
 
 /**
  * Class defining the actions to do when the user wants to trace the execution of his program
@@ -23,6 +24,7 @@ public class Trace extends Interpreter {
      */
     public Trace() {
         super();
+        setMemoSize(0);
     }
 
     /**
@@ -33,25 +35,41 @@ public class Trace extends Interpreter {
      */
     public Trace(String fileName, String logFileName) throws FileNotFoundException {
         super(fileName);
+        // the cells written by the calls are traced, so their results are not cached
+        setMemoSize(0);
         logFile = new PrintStream(logFileName);
     }
 
     /**
-     * Prints the metric values for the Trace option
+     * Prints the metric values for the Trace option, with the cells written by the last instruction
      */
     public void logMetrics() {
-        String message = "Exec step => " + Metrics.getExecStep() + '\t' + '\t' + "Data pointer loc => " + Brainfuck.getMemory().getCurrentIndex() + '\t' + '\t' + "Memory => " + Brainfuck.getMemory();
+        String message = "Exec step => " + Metrics.getExecStep() + '\t' + '\t' + "Data pointer loc => " + Brainfuck.getMemory().getCurrentIndex() + '\t' + '\t' + "Memory => " + Brainfuck.getMemory().changesToString();
         logFile.println(message);
     }
 
     /**
-     * Overrides the method of the Interpreter class to parse the file
+     * Overrides the method of the Interpreter class to process the parsed file
      *
-     * @see Interpreter#parseFile()
+     * @param code parsed program
+     * @see Interpreter#process(ParsedCode)
      */
     @Override
-    public void parseFile() throws InvalidCodeException {
-        super.parseFile();
+    public void process(ParsedCode code) throws InvalidCodeException {
+        super.process(code);
+    }
+
+    /**
+     * Overrides the method of the Interpreter class so that the instructions are interpreted one by one,
+     * each of them being logged.
+     *
+     * @param instructions instructions of the main program
+     * @see Interpreter#run(List)
+     */
+    @Override
+    protected void run(List<Instruction> instructions) throws InstructionException {
+        Brainfuck.getMemory().recordChanges();
+        interpretList(instructions);
     }
 
     /**
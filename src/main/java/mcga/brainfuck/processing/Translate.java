@@ -58,13 +58,31 @@ public class Translate extends Parser {
         colorFifo.add(Color.decode(InstructionCreator.getBitmapColorIndex(str)));
     }
 
+    /**
+     * Overrides the method of the Parser class so that the Color is the one of the instruction the token has
+     * been resolved to.
+     * @param code parsed program
+     * @param i index of the token
+     * @throws InvalidInstructionException if the token is not an instruction
+     * @see Parser#execute(ParsedCode, int)
+     */
+    @Override
+    protected void execute(ParsedCode code, int i) throws InvalidInstructionException {
+        InstructionCreator instruction = code.getInstruction(i);
+        if (instruction == null) {
+            throw new InvalidInstructionException(code.getToken(i));
+        }
+        colorFifo.add(Color.decode("#" + instruction.getIdentifier(InstructionCreator.BITMAP_COLOR_INDEX)));
+    }
+
     /**
      * Overrides the method of the Parser class to create the bitmap image and draw each instruction.
-     * @see Parser#parseFile()
+     * @param code parsed program
+     * @see Parser#process(ParsedCode)
      */
     @Override
-    public void parseFile() throws InvalidCodeException {
-        super.parseFile();
+    public void process(ParsedCode code) throws InvalidCodeException {
+        super.process(code);
         writeBitmap();
     }
 
@@ -0,0 +1,134 @@
+package mcga.brainfuck.tape;
+
+import mcga.brainfuck.exceptions.InvalidValueException;
+
+import java.nio.ByteBuffer;
+
+import static mcga.brainfuck.Memory.MAX_CELL_VALUE;
+import static mcga.brainfuck.Memory.MIN_CELL_VALUE;
+
+/**
+ * Superclass of the tapes of checked 32 bits cells stored outside of the heap, in buffers of at most
+ * 2^{@link #CHUNK_BITS} cells since a buffer cannot hold more than 2^31 bytes. Cell i is the little-endian int
+ * at byte 4 * i of the tape.
+ * The highest cell written so far is kept, so that looking for the cells different from zero does not go
+ * through the whole tape.
+ *
+ * @author Team Make Coding Great Again
+ */
+public abstract class BufferTape implements Tape {
+    static final int CHUNK_BITS = 28;
+    static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private final int size;
+    private final ByteBuffer[] chunks;
+    private int highest = -1;
+
+    /**
+     * Constructor of the BufferTape class.
+     *
+     * @param size   number of cells
+     * @param chunks buffers of {@link #CHUNK_SIZE} cells each, the last one holding the remaining cells
+     */
+    BufferTape(int size, ByteBuffer[] chunks) {
+        this.size = size;
+        this.chunks = chunks;
+    }
+
+    /**
+     * Gets the number of buffers needed to store the cells of a tape.
+     *
+     * @param size number of cells
+     * @return number of buffers
+     */
+    static int chunkCount(int size) {
+        return (int) (((long) size + CHUNK_MASK) >>> CHUNK_BITS);
+    }
+
+    /**
+     * Gets the number of bytes of a buffer of a tape.
+     *
+     * @param size  number of cells of the tape
+     * @param chunk index of the buffer
+     * @return number of bytes of the buffer
+     */
+    static int chunkBytes(int size, int chunk) {
+        return Math.min(CHUNK_SIZE, size - chunk * CHUNK_SIZE) * Integer.BYTES;
+    }
+
+    /**
+     * Finds the highest cell different from zero of the buffers, once they have been filled by the subclass.
+     */
+    void findHighest() {
+        highest = size - 1;
+        highest = lastNonZero(size - 1);
+    }
+
+    /**
+     * Gets the buffers holding the cells.
+     *
+     * @return buffers of the tape
+     */
+    ByteBuffer[] getChunks() {
+        return chunks;
+    }
+
+    @Override
+    public int getWidth() {
+        return 32;
+    }
+
+    @Override
+    public boolean isChecked() {
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int get(int index) {
+        return chunks[index >>> CHUNK_BITS].getInt((index & CHUNK_MASK) << 2);
+    }
+
+    @Override
+    public void add(int index, int value) throws InvalidValueException {
+        ByteBuffer chunk = chunks[index >>> CHUNK_BITS];
+        int offset = (index & CHUNK_MASK) << 2;
+        int result = chunk.getInt(offset) + value;
+        if (result < MIN_CELL_VALUE || result > MAX_CELL_VALUE) {
+            throw new InvalidValueException(result);
+        }
+        chunk.putInt(offset, result);
+        if (index > highest) {
+            highest = index;
+        }
+    }
+
+    @Override
+    public void clear(int index) {
+        chunks[index >>> CHUNK_BITS].putInt((index & CHUNK_MASK) << 2, 0);
+    }
+
+    @Override
+    public int nextNonZero(int from, int to) {
+        for (int i = from; i <= Math.min(to, highest); i++) {
+            if (get(i) != 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastNonZero(int to) {
+        for (int i = Math.min(to, highest); i >= 0; i--) {
+            if (get(i) != 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
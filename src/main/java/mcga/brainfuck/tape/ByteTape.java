@@ -0,0 +1,56 @@
+package mcga.brainfuck.tape;
+
+import java.util.Arrays;
+
+/**
+ * Tape of 8 bits cells, whose values wrap around between 0 and 255.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class ByteTape implements Tape {
+    private final byte[] cells;
+
+    /**
+     * Constructor of the ByteTape class.
+     *
+     * @param size number of cells
+     */
+    public ByteTape(int size) {
+        this.cells = new byte[size];
+    }
+
+    @Override
+    public int getWidth() {
+        return 8;
+    }
+
+    @Override
+    public boolean isChecked() {
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return cells.length;
+    }
+
+    @Override
+    public int get(int index) {
+        return cells[index] & 0xFF;
+    }
+
+    @Override
+    public void add(int index, int value) {
+        cells[index] += value;
+    }
+
+    @Override
+    public void clear(int index) {
+        cells[index] = 0;
+    }
+
+    @Override
+    public void clear(int from, int to) {
+        Arrays.fill(cells, from, to + 1, (byte) 0);
+    }
+}
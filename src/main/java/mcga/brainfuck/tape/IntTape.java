@@ -0,0 +1,76 @@
+package mcga.brainfuck.tape;
+
+import mcga.brainfuck.exceptions.InvalidValueException;
+
+import java.util.Arrays;
+
+import static mcga.brainfuck.Memory.MAX_CELL_VALUE;
+import static mcga.brainfuck.Memory.MIN_CELL_VALUE;
+
+/**
+ * Tape of 32 bits cells, whose values must stay between {@link mcga.brainfuck.Memory#MIN_CELL_VALUE} and
+ * {@link mcga.brainfuck.Memory#MAX_CELL_VALUE}. It is the default tape and the one the compiled engines work on,
+ * through its array.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class IntTape implements Tape {
+    private final int[] cells;
+
+    /**
+     * Constructor of the IntTape class.
+     *
+     * @param size number of cells
+     */
+    public IntTape(int size) {
+        this.cells = new int[size];
+    }
+
+    @Override
+    public int getWidth() {
+        return 32;
+    }
+
+    @Override
+    public boolean isChecked() {
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return cells.length;
+    }
+
+    @Override
+    public int get(int index) {
+        return cells[index];
+    }
+
+    @Override
+    public void add(int index, int value) throws InvalidValueException {
+        int result = cells[index] + value;
+        if (result < MIN_CELL_VALUE || result > MAX_CELL_VALUE) {
+            throw new InvalidValueException(result);
+        }
+        cells[index] = result;
+    }
+
+    @Override
+    public void clear(int index) {
+        cells[index] = 0;
+    }
+
+    @Override
+    public void clear(int from, int to) {
+        Arrays.fill(cells, from, to + 1, 0);
+    }
+
+    /**
+     * Gets the array backing the tape, so that an engine can work on it directly.
+     *
+     * @return cells of the tape
+     */
+    public int[] getCells() {
+        return cells;
+    }
+}
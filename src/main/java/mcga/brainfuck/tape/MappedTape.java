@@ -0,0 +1,51 @@
+package mcga.brainfuck.tape;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Tape of checked 32 bits cells mapped on a file, cell i being the little-endian int at byte 4 * i of the file.
+ * The cells start with the values the file already holds and are written back to it, so that the tape outlives
+ * the execution and can be read by other tools while it runs. The file is extended if it is too short.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class MappedTape extends BufferTape {
+
+    /**
+     * Constructor of the MappedTape class.
+     *
+     * @param fileName name of the file holding the cells
+     * @param size     number of cells
+     * @throws IOException if the file cannot be mapped
+     */
+    public MappedTape(String fileName, int size) throws IOException {
+        super(size, map(fileName, size));
+        findHighest();
+    }
+
+    private static ByteBuffer[] map(String fileName, int size) throws IOException {
+        ByteBuffer[] chunks = new ByteBuffer[chunkCount(size)];
+        try (RandomAccessFile file = new RandomAccessFile(fileName, "rw"); FileChannel channel = file.getChannel()) {
+            for (int i = 0; i < chunks.length; i++) {
+                long position = (long) i * CHUNK_SIZE * Integer.BYTES;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE, position, chunkBytes(size, i)).order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+        return chunks;
+    }
+
+    /**
+     * Writes the cells modified so far to the file.
+     */
+    @Override
+    public void flush() {
+        for (ByteBuffer chunk : getChunks()) {
+            ((MappedByteBuffer) chunk).force();
+        }
+    }
+}
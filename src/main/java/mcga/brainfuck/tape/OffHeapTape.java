@@ -0,0 +1,30 @@
+package mcga.brainfuck.tape;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Tape of checked 32 bits cells stored in direct buffers, out of the heap, so that a large tape does not weigh on
+ * the garbage collector. Its size is limited by -XX:MaxDirectMemorySize instead of -Xmx.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class OffHeapTape extends BufferTape {
+
+    /**
+     * Constructor of the OffHeapTape class.
+     *
+     * @param size number of cells
+     */
+    public OffHeapTape(int size) {
+        super(size, allocate(size));
+    }
+
+    private static ByteBuffer[] allocate(int size) {
+        ByteBuffer[] chunks = new ByteBuffer[chunkCount(size)];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = ByteBuffer.allocateDirect(chunkBytes(size, i)).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return chunks;
+    }
+}
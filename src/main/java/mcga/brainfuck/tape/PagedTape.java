@@ -0,0 +1,134 @@
+package mcga.brainfuck.tape;
+
+import mcga.brainfuck.exceptions.InvalidValueException;
+
+import static mcga.brainfuck.Memory.MAX_CELL_VALUE;
+import static mcga.brainfuck.Memory.MIN_CELL_VALUE;
+
+/**
+ * Tape of checked 32 bits cells split into pages of 2^{@link #PAGE_BITS} cells, a page being allocated the first
+ * time one of its cells gets a value different from zero. Reading a cell never allocates anything, so that the
+ * tape can address up to 2^31 cells while a program only pays for the cells it uses.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class PagedTape implements Tape {
+    public static final int PAGE_BITS = 12;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    private final int size;
+    private final int[][] pages;
+    private int allocatedPages = 0;
+
+    /**
+     * Constructor of the PagedTape class.
+     *
+     * @param size number of cells
+     */
+    public PagedTape(int size) {
+        this.size = size;
+        this.pages = new int[(int) (((long) size + PAGE_MASK) >>> PAGE_BITS)][];
+    }
+
+    @Override
+    public int getWidth() {
+        return 32;
+    }
+
+    @Override
+    public boolean isChecked() {
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int get(int index) {
+        int[] page = pages[index >>> PAGE_BITS];
+        return page == null ? 0 : page[index & PAGE_MASK];
+    }
+
+    @Override
+    public void add(int index, int value) throws InvalidValueException {
+        int[] page = pages[index >>> PAGE_BITS];
+        int result = (page == null ? 0 : page[index & PAGE_MASK]) + value;
+        if (result < MIN_CELL_VALUE || result > MAX_CELL_VALUE) {
+            throw new InvalidValueException(result);
+        }
+        if (page == null) {
+            if (result == 0) {
+                return;
+            }
+            page = new int[PAGE_SIZE];
+            pages[index >>> PAGE_BITS] = page;
+            allocatedPages++;
+        }
+        page[index & PAGE_MASK] = result;
+    }
+
+    @Override
+    public void clear(int index) {
+        int[] page = pages[index >>> PAGE_BITS];
+        if (page != null) {
+            page[index & PAGE_MASK] = 0;
+        }
+    }
+
+    /**
+     * Finds the first cell different from zero between two indexes, the pages which have not been allocated being
+     * skipped.
+     *
+     * @param from index of the first cell to test
+     * @param to   index of the last cell to test
+     * @return index of the cell, -1 if all the cells between the indexes are zero
+     */
+    @Override
+    public int nextNonZero(int from, int to) {
+        for (int p = from >>> PAGE_BITS; p <= to >>> PAGE_BITS; p++) {
+            int[] page = pages[p];
+            if (page != null) {
+                int end = p == to >>> PAGE_BITS ? to & PAGE_MASK : PAGE_MASK;
+                for (int k = p == from >>> PAGE_BITS ? from & PAGE_MASK : 0; k <= end; k++) {
+                    if (page[k] != 0) {
+                        return p << PAGE_BITS | k;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the last cell different from zero up to an index, the pages which have not been allocated being
+     * skipped.
+     *
+     * @param to index of the last cell to test
+     * @return index of the cell, -1 if all the cells up to the index are zero
+     */
+    @Override
+    public int lastNonZero(int to) {
+        for (int p = to >>> PAGE_BITS; p >= 0; p--) {
+            int[] page = pages[p];
+            if (page != null) {
+                for (int k = p == to >>> PAGE_BITS ? to & PAGE_MASK : PAGE_MASK; k >= 0; k--) {
+                    if (page[k] != 0) {
+                        return p << PAGE_BITS | k;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the number of pages allocated so far.
+     *
+     * @return number of allocated pages
+     */
+    public int getAllocatedPages() {
+        return allocatedPages;
+    }
+}
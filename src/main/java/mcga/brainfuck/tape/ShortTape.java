@@ -0,0 +1,56 @@
+package mcga.brainfuck.tape;
+
+import java.util.Arrays;
+
+/**
+ * Tape of 16 bits cells, whose values wrap around between 0 and 65535.
+ *
+ * @author Team Make Coding Great Again
+ */
+public class ShortTape implements Tape {
+    private final short[] cells;
+
+    /**
+     * Constructor of the ShortTape class.
+     *
+     * @param size number of cells
+     */
+    public ShortTape(int size) {
+        this.cells = new short[size];
+    }
+
+    @Override
+    public int getWidth() {
+        return 16;
+    }
+
+    @Override
+    public boolean isChecked() {
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return cells.length;
+    }
+
+    @Override
+    public int get(int index) {
+        return cells[index] & 0xFFFF;
+    }
+
+    @Override
+    public void add(int index, int value) {
+        cells[index] += value;
+    }
+
+    @Override
+    public void clear(int index) {
+        cells[index] = 0;
+    }
+
+    @Override
+    public void clear(int from, int to) {
+        Arrays.fill(cells, from, to + 1, (short) 0);
+    }
+}
@@ -0,0 +1,130 @@
+package mcga.brainfuck.tape;
+
+import mcga.brainfuck.exceptions.InvalidValueException;
+
+/**
+ * Storage of the cells of the memory, specialized by the width of a cell.
+ * The 8 and 16 bits tapes wrap their values around, as most Brainf*ck implementations do, whereas the 32 bits
+ * tape checks that each value stays between {@link mcga.brainfuck.Memory#MIN_CELL_VALUE} and
+ * {@link mcga.brainfuck.Memory#MAX_CELL_VALUE}.
+ *
+ * @author Team Make Coding Great Again
+ */
+public interface Tape {
+    int DEFAULT_WIDTH = 32;
+
+    /**
+     * Creates a tape whose cells have the given width.
+     *
+     * @param width number of bits of a cell: 8, 16 or 32
+     * @param size  number of cells
+     * @return new tape, all cells being zero
+     * @throws IllegalArgumentException if the width is not supported
+     */
+    static Tape create(int width, int size) {
+        switch (width) {
+            case 8:
+                return new ByteTape(size);
+            case 16:
+                return new ShortTape(size);
+            case 32:
+                return new IntTape(size);
+            default:
+                throw new IllegalArgumentException("Unsupported cell width " + width);
+        }
+    }
+
+    /**
+     * Gets the number of bits of a cell.
+     *
+     * @return width of a cell
+     */
+    int getWidth();
+
+    /**
+     * Checks if the values are checked instead of wrapping around.
+     *
+     * @return true if a value out of the range of the cells is an error
+     */
+    boolean isChecked();
+
+    /**
+     * Gets the number of cells of the tape.
+     *
+     * @return number of cells
+     */
+    int size();
+
+    /**
+     * Gets the value of a cell.
+     *
+     * @param index index of the cell
+     * @return value of the cell, never negative
+     */
+    int get(int index);
+
+    /**
+     * Adds a value to a cell.
+     *
+     * @param index index of the cell
+     * @param value value to add, negative to subtract
+     * @throws InvalidValueException if the tape is checked and the new value is out of its range
+     */
+    void add(int index, int value) throws InvalidValueException;
+
+    /**
+     * Sets a cell to zero.
+     *
+     * @param index index of the cell
+     */
+    void clear(int index);
+
+    /**
+     * Sets the cells between two indexes to zero.
+     *
+     * @param from index of the first cell to clear
+     * @param to   index of the last cell to clear
+     */
+    default void clear(int from, int to) {
+        for (int i = from; i <= to; i++) {
+            clear(i);
+        }
+    }
+
+    /**
+     * Finds the first cell different from zero between two indexes.
+     *
+     * @param from index of the first cell to test
+     * @param to   index of the last cell to test
+     * @return index of the cell, -1 if all the cells between the indexes are zero
+     */
+    default int nextNonZero(int from, int to) {
+        for (int i = from; i <= to; i++) {
+            if (get(i) != 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the last cell different from zero up to an index.
+     *
+     * @param to index of the last cell to test
+     * @return index of the cell, -1 if all the cells up to the index are zero
+     */
+    default int lastNonZero(int to) {
+        for (int i = to; i >= 0; i--) {
+            if (get(i) != 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Writes the cells to the storage backing the tape, if any, so that they outlive the execution.
+     */
+    default void flush() {
+    }
+}
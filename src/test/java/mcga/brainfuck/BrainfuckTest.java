@@ -0,0 +1,41 @@
+package mcga.brainfuck;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertTrue;
+
+public class BrainfuckTest {
+    private final ByteArrayOutputStream errors = new ByteArrayOutputStream();
+    private PrintStream oldErr;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void setUp() throws Exception {
+        oldErr = System.err;
+        System.setErr(new PrintStream(errors));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        System.setErr(oldErr);
+    }
+
+    @Test
+    public void checkWithEngine() throws Exception {
+        File program = folder.newFile("program.bf");
+        Files.write(program.toPath(), "+[-]".getBytes());
+        Brainfuck.main(new String[]{"-p", program.getPath(), "--check", "--engine", "vm"});
+        assertTrue(errors.toString().contains("The engine option needs the program to be executed"));
+    }
+}
@@ -12,6 +12,7 @@ import org.junit.rules.ExpectedException;
 import java.io.FileInputStream;
 import java.io.InputStream;
 import java.io.PrintStream;
+import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -106,6 +107,42 @@ public class InstructionTest {
         assertEquals(0, inputStream.read());
     }
 
+    @Test
+    public void testScan() throws Exception {
+        Random random = new Random(42);
+        int[] cells = new int[200];
+        for (int run = 0; run < 2000; run++) {
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] = random.nextInt(40) == 0 ? 0 : 1 + random.nextInt(300);
+            }
+            int stride = new int[]{1, 2, 3, 4, -1, -2, -4}[random.nextInt(7)];
+            int lower = random.nextInt(20);
+            int upper = cells.length - 1 - random.nextInt(20);
+            int index = lower + random.nextInt(upper - lower + 1);
+            assertEquals(scanCells(cells, index, stride, lower, upper), scan(cells, index, stride, lower, upper));
+        }
+    }
+
+    private static String scan(int[] cells, int index, int stride, int lower, int upper) {
+        try {
+            return String.valueOf(Scan.scan(cells, index, stride, lower, upper));
+        } catch (BrainfuckIndexOutOfBoundsException e) {
+            return e.getMessage();
+        }
+    }
+
+    private static String scanCells(int[] cells, int index, int stride, int lower, int upper) {
+        while (cells[index] != 0) {
+            index += stride;
+            if (index > upper) {
+                return new BrainfuckIndexOutOfBoundsException(upper + 1).getMessage();
+            } else if (index < lower) {
+                return new BrainfuckIndexOutOfBoundsException(lower - 1).getMessage();
+            }
+        }
+        return String.valueOf(index);
+    }
+
     @Ignore
     @Test
     public void testLoop() throws Exception {
@@ -2,13 +2,23 @@ package mcga.brainfuck;
 
 import mcga.brainfuck.exceptions.BrainfuckIndexOutOfBoundsException;
 import mcga.brainfuck.exceptions.InvalidValueException;
+import mcga.brainfuck.tape.MappedTape;
+import mcga.brainfuck.tape.OffHeapTape;
+import mcga.brainfuck.tape.PagedTape;
+import mcga.brainfuck.tape.Tape;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Created by user on 13/11/2016.
@@ -16,6 +26,8 @@ import static org.junit.Assert.assertNotNull;
 public class MemoryTest {
     @Rule
     public ExpectedException expectedException = ExpectedException.none();
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
     Memory memory;
 
     @Before
@@ -89,4 +101,155 @@ public class MemoryTest {
         assertEquals(memory.getCurrentCellValue(), 0);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testByteCells() throws Exception {
+        memory = new Memory(Tape.create(8, Memory.MAX_SIZE));
+        assertFalse(memory.hasIntCells());
+        memory.addCurrentCellValue(-1);
+        assertEquals(255, memory.getCurrentCellValue());
+        memory.addCurrentCellValue(3);
+        assertEquals(2, memory.getCurrentCellValue());
+        memory.addCurrentCellValue(300);
+        assertEquals(46, memory.getCurrentCellValue());
+        assertEquals("C0: 46", memory.toString());
+        expectedException.expect(IllegalStateException.class);
+        memory.getCells();
+    }
+
+    @Test
+    public void testShortCells() throws Exception {
+        memory = new Memory(Tape.create(16, Memory.MAX_SIZE));
+        memory.addCurrentCellValue(-1);
+        assertEquals(65535, memory.getCurrentCellValue());
+        memory.addCurrentCellValue(257);
+        assertEquals(256, memory.getCurrentCellValue());
+        memory.clearCurrentCell();
+        assertEquals(0, memory.getCurrentCellValue());
+    }
+
+    @Test
+    public void testIntCells() throws Exception {
+        memory = new Memory(Tape.create(32, Memory.MAX_SIZE));
+        assertTrue(memory.hasIntCells());
+        memory.addCurrentCellValue(Memory.MAX_CELL_VALUE);
+        assertEquals(Memory.MAX_CELL_VALUE, memory.getCells()[0]);
+        expectedException.expect(InvalidValueException.class);
+        memory.addCurrentCellValue(1);
+    }
+
+    @Test
+    public void testPagedCells() throws Exception {
+        PagedTape tape = new PagedTape(Integer.MAX_VALUE);
+        memory = new Memory(tape);
+        assertEquals(Integer.MAX_VALUE, memory.getSize());
+        assertEquals(-1, memory.getLastUsedIndex());
+        memory.setCurrentIndex(Integer.MAX_VALUE - 1);
+        assertEquals(0, memory.getCurrentCellValue());
+        assertEquals(0, tape.getAllocatedPages());
+        memory.addCurrentCellValue(7);
+        memory.setCurrentIndex(5000);
+        memory.addCurrentCellValue(2);
+        assertEquals(2, tape.getAllocatedPages());
+        assertEquals("C5000: 2 , C" + (Integer.MAX_VALUE - 1) + ": 7", memory.toString());
+        assertEquals(Integer.MAX_VALUE - 1, memory.getLastUsedIndex());
+        memory.changeCurrentIndex(Integer.MAX_VALUE - 5001);
+        expectedException.expect(BrainfuckIndexOutOfBoundsException.class);
+        memory.changeCurrentIndex(1);
+    }
+
+    @Test
+    public void testOffHeapCells() throws Exception {
+        memory = new Memory(new OffHeapTape(Memory.MAX_SIZE));
+        assertEquals(-1, memory.getLastUsedIndex());
+        memory.setCurrentIndex(29999);
+        memory.addCurrentCellValue(Memory.MAX_CELL_VALUE);
+        memory.setCurrentIndex(3);
+        memory.addCurrentCellValue(4);
+        memory.clearCurrentCell();
+        memory.addCurrentCellValue(1);
+        assertEquals("C3: 1 , C29999: " + Memory.MAX_CELL_VALUE, memory.toString());
+        assertEquals(29999, memory.getLastUsedIndex());
+        expectedException.expect(InvalidValueException.class);
+        memory.addCurrentCellValue(-2);
+    }
+
+    @Test
+    public void testMappedCells() throws Exception {
+        File file = new File(folder.getRoot(), "tape.bin");
+        memory = new Memory(new MappedTape(file.getPath(), 100));
+        memory.setCurrentIndex(10);
+        memory.addCurrentCellValue(300);
+        memory.getTape().flush();
+        assertEquals(400, file.length());
+        try (RandomAccessFile raw = new RandomAccessFile(file, "r")) {
+            raw.seek(40);
+            assertEquals(300, Integer.reverseBytes(raw.readInt()));
+        }
+
+        memory = new Memory(new MappedTape(file.getPath(), 100));
+        assertEquals(10, memory.getLastUsedIndex());
+        memory.setCurrentIndex(10);
+        assertEquals(300, memory.getCurrentCellValue());
+    }
+
+    @Test
+    public void testWrittenCells() throws Exception {
+        memory.setCurrentIndex(100);
+        memory.addCurrentCellValue(3);
+        memory.setCurrentIndex(7);
+        memory.addCurrentCellValue(1);
+        memory.setCurrentIndex(100);
+        memory.clearCurrentCell();
+        assertEquals("C7: 1", memory.toString());
+        assertEquals(7, memory.getLastUsedIndex());
+
+        memory.recordChanges();
+        assertEquals("", memory.changesToString());
+        memory.setCurrentIndex(9);
+        memory.addCurrentCellValue(2);
+        memory.setCurrentIndex(7);
+        memory.clearCurrentCell();
+        memory.setCurrentIndex(9);
+        memory.addCurrentCellValue(1);
+        assertEquals("C7: 0 , C9: 3", memory.changesToString());
+        assertEquals("", memory.changesToString());
+
+        memory.getCells()[20000] = 4;
+        assertEquals("C9: 3 , C20000: 4", memory.changesToString());
+        assertEquals(20000, memory.getLastUsedIndex());
+    }
+
+    @Test
+    public void testFrames() throws Exception {
+        memory.setCurrentIndex(4);
+        memory.addCurrentCellValue(1);
+        assertEquals(5, memory.allocateFrame(3));
+        memory.setCurrentIndex(6);
+        memory.addCurrentCellValue(2);
+        memory.freeFrame(5, 7);
+        assertEquals("C4: 1", memory.toString());
+
+        // the frame is reused as long as no cell above it has been set
+        assertEquals(5, memory.allocateFrame(3));
+        memory.setCurrentIndex(9);
+        memory.addCurrentCellValue(1);
+        assertEquals(10, memory.allocateFrame(3));
+        assertEquals(10, memory.allocateFrame(5));
+        assertEquals(-1, memory.allocateFrame(Memory.MAX_SIZE));
+    }
+
+    @Test
+    public void testLoadedTape() throws Exception {
+        PagedTape tape = new PagedTape(Integer.MAX_VALUE);
+        tape.add(Integer.MAX_VALUE - 1, 5);
+        memory = new Memory(tape);
+        assertEquals("C" + (Integer.MAX_VALUE - 1) + ": 5", memory.toString());
+        assertEquals(Integer.MAX_VALUE - 1, memory.getLastUsedIndex());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedWidth() throws Exception {
+        Tape.create(12, Memory.MAX_SIZE);
+    }
+
+}
@@ -0,0 +1,53 @@
+package mcga.brainfuck;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class OutputSinkTest {
+
+    @Test
+    public void chunks() throws Exception {
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        OutputSink sink = new OutputSink(target, 4, true, true, 0);
+        for (char c = 'a'; c < 'e'; c++) {
+            sink.print(c);
+        }
+        assertEquals(0, target.size());
+        sink.print('e');
+        assertEquals("abcd", target.toString());
+        sink.print((char) 200);
+        sink.beforeInput();
+        assertArrayEquals(new byte[]{'a', 'b', 'c', 'd', 'e', (byte) 200}, target.toByteArray());
+    }
+
+    @Test
+    public void encoded() throws Exception {
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        OutputSink sink = new OutputSink(target, 4, false, false, 0);
+        sink.print("abcdef");
+        assertEquals("abcdef", target.toString());
+        sink.print('g');
+        sink.beforeInput();
+        assertEquals("abcdef", target.toString());
+        sink.flush();
+        assertEquals("abcdefg", target.toString());
+    }
+
+    @Test(timeout = 10000)
+    public void interval() throws Exception {
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        OutputSink sink = new OutputSink(target, OutputSink.DEFAULT_SIZE, true, false, 10);
+        sink.print('a');
+        while (target.size() == 0) {
+            Thread.sleep(10);
+        }
+        assertEquals("a", target.toString());
+        sink.close();
+        assertFalse(sink.checkError());
+    }
+}
@@ -1,9 +1,13 @@
 package mcga.brainfuck;
 
 import mcga.brainfuck.instructions.Procedure;
+import mcga.brainfuck.instructions.ResultCache;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 /**
  * Created by user on 04/01/2017.
  */
@@ -27,4 +31,24 @@ public class ProcedureTest {
 
     }
 
+    @Test
+    public void resultCache() throws Exception {
+        Metrics.reset();
+        ResultCache cache = new ResultCache(2, 2);
+        for (int i = 0; i < 3; i++) {
+            cache.start(0, new int[]{i, 1});
+            Metrics.incrExecMove(10);
+            cache.finish(0, i * 2);
+            if (i == 0) {
+                // the first result is used, so the second one is replaced by the third
+                assertEquals(0, cache.hit(cache.find(new int[]{0, 1})));
+            }
+        }
+        assertEquals(2, cache.getSize());
+        assertEquals(-1, cache.find(new int[]{1, 1}));
+        assertEquals(4, cache.hit(cache.find(new int[]{2, 1})));
+        assertEquals(50, Metrics.getExecMove());
+        assertTrue(cache.find(new int[]{0, 1}) >= 0);
+    }
+
 }
\ No newline at end of file
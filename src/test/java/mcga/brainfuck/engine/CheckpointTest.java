@@ -0,0 +1,51 @@
+package mcga.brainfuck.engine;
+
+import mcga.brainfuck.Brainfuck;
+import mcga.brainfuck.instructions.Input;
+import mcga.brainfuck.processing.Interpreter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+
+import static mcga.brainfuck.processing.InterpreterFixture.*;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class CheckpointTest {
+    // the procedure loops on its frame while the main program waits for it, then the main program reads again
+    private static final String SPIN = "@Spin(0)=[>+++++[>++++<-]>[-]<<-]\n,>,<\nSpin(>)\n>>,";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void checkpoint() throws Exception {
+        Input.stream = new ByteArrayInputStream("ABC".getBytes());
+        Interpreter interpreter = parse(SPIN);
+        interpret(interpreter);
+        String expectedMemory = Brainfuck.getMemory().toString();
+        long[] expectedMetrics = metrics();
+
+        String file = new File(folder.getRoot(), "spin.ckpt").getPath();
+        Input.stream = new ByteArrayInputStream("ABC".getBytes());
+        interpreter = parse(SPIN);
+        interpreter.setCheckpointer(new Checkpointer(file, 50, 0));
+        run(interpreter);
+        assertEquals(expectedMemory, Brainfuck.getMemory().toString());
+        assertArrayEquals(expectedMetrics, metrics());
+
+        // the last checkpoint is written while the procedure runs, after the first two bytes have been read
+        Checkpoint checkpoint = Checkpoint.read(file);
+        assertEquals(1, checkpoint.getFrameCount());
+        assertEquals(2, checkpoint.getInputOffset());
+        Input.stream = new ByteArrayInputStream("ABC".getBytes());
+        interpreter = parse(SPIN);
+        interpreter.setCheckpoint(checkpoint);
+        run(interpreter);
+        assertEquals(expectedMemory, Brainfuck.getMemory().toString());
+        assertArrayEquals(expectedMetrics, metrics());
+    }
+}
@@ -0,0 +1,115 @@
+package mcga.brainfuck.engine;
+
+import mcga.brainfuck.Brainfuck;
+import mcga.brainfuck.Memory;
+import mcga.brainfuck.engine.classfile.ClassWriter;
+import mcga.brainfuck.engine.classfile.CodeWriter;
+import mcga.brainfuck.engine.classfile.Label;
+import mcga.brainfuck.exceptions.BrainfuckIndexOutOfBoundsException;
+import mcga.brainfuck.optimization.PassManager;
+import mcga.brainfuck.processing.Interpreter;
+import org.junit.Test;
+
+import static mcga.brainfuck.engine.classfile.ClassWriter.ACC_PUBLIC;
+import static mcga.brainfuck.engine.classfile.ClassWriter.ACC_STATIC;
+import static mcga.brainfuck.engine.classfile.CodeWriter.*;
+import static mcga.brainfuck.processing.InterpreterFixture.*;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the classes generated by the JitCompiler themselves, the Interpreter running the virtual machine instead
+ * when a program does not fit in a class.
+ */
+public class JitCompilerTest {
+    private static final String LONG_BODY = "+[" + repeat("+-", 600) + "-]>+++";
+    private static final String LOOPS = "+++++" + repeat(">+[-<+>]", 400);
+    private static final String LONG_BLOCK = repeat("+>", 1500);
+
+    @Test
+    public void loopEndingProgram() throws Exception {
+        compareJit("+++[-]", 0);
+        compareJit(PROGRAM, 0);
+        compareJit(IDIOMS, 0);
+        compareJit(BLOCKS, 2);
+    }
+
+    @Test
+    public void largePrograms() throws Exception {
+        compareJit(LONG_BODY, 0);
+        compareJit(LONG_BODY, 2);
+        compareJit(LOOPS, 0);
+        compareJit(LOOPS, 2);
+        compareJit(LONG_BLOCK, 0);
+        compareJit(LONG_BLOCK, 2);
+    }
+
+    @Test
+    public void largeProgramError() throws Exception {
+        assertEquals(new BrainfuckIndexOutOfBoundsException(-1).getMessage(), engineError(LOOPS + "+[<]", 0));
+    }
+
+    @Test
+    public void wideBranches() throws Exception {
+        ClassWriter classWriter = new ClassWriter("Wide");
+        CodeWriter out = classWriter.method(ACC_PUBLIC | ACC_STATIC, "count", "(I)I", 2, 2);
+        writeCount(out);
+        assertTrue(out.hasOverflow());
+        out.widen();
+        writeCount(out);
+        assertFalse(out.hasOverflow());
+        Class<?> generated = new Loader().define(classWriter.toByteArray());
+        assertEquals(3, generated.getMethod("count", int.class).invoke(null, 3));
+    }
+
+    /**
+     * Writes a loop counting down its argument, whose body is too large for 16-bit branch offsets.
+     */
+    private static void writeCount(CodeWriter out) {
+        Label top = new Label();
+        Label end = new Label();
+        out.iconst(0).var(ISTORE, 1);
+        out.bind(top).var(ILOAD, 0).jump(IFEQ, end);
+        for (int i = 0; i < 9000; i++) {
+            out.var(ILOAD, 1).var(ISTORE, 1);
+        }
+        out.var(ILOAD, 1).iconst(1).op(IADD).var(ISTORE, 1);
+        out.var(ILOAD, 0).iconst(-1).op(IADD).var(ISTORE, 0);
+        out.jump(GOTO, top);
+        out.bind(end).var(ILOAD, 1).op(IRETURN);
+    }
+
+    /**
+     * Checks that the compiled class leaves the memory as the interpretation does, and the metrics as well when no
+     * pass changes them.
+     */
+    private static void compareJit(String code, int level) throws Exception {
+        Interpreter interpreter = parse(code);
+        interpret(interpreter);
+        String expectedMemory = Brainfuck.getMemory().toString();
+        int expectedIndex = Brainfuck.getMemory().getCurrentIndex();
+        long[] expectedMetrics = metrics();
+
+        interpreter = parse(code);
+        PassManager.forLevel(level).run(instructions(interpreter));
+        Memory memory = Brainfuck.getMemory();
+        JitCompiler.compile(ProgramCompiler.compile(instructions(interpreter))).run(memory);
+        assertEquals(expectedMemory, memory.toString());
+        assertEquals(expectedIndex, memory.getCurrentIndex());
+        if (level == 0) {
+            assertArrayEquals(expectedMetrics, metrics());
+        }
+    }
+
+    private static class Loader extends ClassLoader {
+        Loader() {
+            super(JitCompilerTest.class.getClassLoader());
+        }
+
+        Class<?> define(byte[] bytes) {
+            return defineClass("Wide", bytes, 0, bytes.length);
+        }
+    }
+}
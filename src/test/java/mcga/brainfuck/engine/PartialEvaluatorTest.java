@@ -0,0 +1,40 @@
+package mcga.brainfuck.engine;
+
+import mcga.brainfuck.Brainfuck;
+import mcga.brainfuck.instructions.Input;
+import mcga.brainfuck.processing.Interpreter;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+
+import static mcga.brainfuck.processing.InterpreterFixture.*;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class PartialEvaluatorTest {
+
+    @Test
+    public void partialEvaluation() throws Exception {
+        String withInput = PROGRAM + "\n>>,[>+<-]>>,[-<+>]+";
+        String inlinedInput = "@Get(0)=+>,<\n++[>+<-]\nGet(>)\n>[-]";
+        for (String code : new String[]{PROGRAM, BLOCKS, withInput, inlinedInput}) {
+            Input.stream = new ByteArrayInputStream("AB".getBytes());
+            Interpreter interpreter = parse(code);
+            interpret(interpreter);
+            String expectedMemory = Brainfuck.getMemory().toString();
+            long[] expectedMetrics = metrics();
+
+            for (long budget : new long[]{1, 10, 100, Long.MAX_VALUE}) {
+                for (Engine engine : new Engine[]{Engine.VM, Engine.JIT}) {
+                    Input.stream = new ByteArrayInputStream("AB".getBytes());
+                    interpreter = parse(code);
+                    interpreter.setEngine(engine);
+                    interpreter.setPrefixBudget(budget);
+                    run(interpreter);
+                    assertEquals(expectedMemory, Brainfuck.getMemory().toString());
+                    assertArrayEquals(expectedMetrics, metrics());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package mcga.brainfuck.engine;
+
+import mcga.brainfuck.processing.Interpreter;
+import org.junit.Test;
+
+import static mcga.brainfuck.processing.InterpreterFixture.*;
+import static org.junit.Assert.assertTrue;
+
+public class ProgramCompilerTest {
+
+    @Test
+    public void inlining() throws Exception {
+        // the results of Dbl are not cached, a cached function being called so that the cache answers it
+        Interpreter interpreter = parse(PROGRAM, 0);
+        int[] inlined = ProgramCompiler.compile(instructions(interpreter)).getCode();
+        int[] called = ProgramCompiler.compile(instructions(interpreter), 0).getCode();
+        assertTrue(contains(inlined, Opcode.ENTER) && !contains(inlined, Opcode.CALL));
+        assertTrue(contains(called, Opcode.CALL) && !contains(called, Opcode.ENTER));
+    }
+
+    private static boolean contains(int[] code, int opcode) {
+        for (int pc = 0; pc < code.length; pc += Opcode.length(code[pc])) {
+            if (code[pc] == opcode) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
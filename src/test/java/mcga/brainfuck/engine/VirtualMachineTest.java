@@ -0,0 +1,102 @@
+package mcga.brainfuck.engine;
+
+import mcga.brainfuck.Brainfuck;
+import mcga.brainfuck.Memory;
+import mcga.brainfuck.exceptions.BrainfuckIndexOutOfBoundsException;
+import mcga.brainfuck.exceptions.InvalidValueException;
+import mcga.brainfuck.processing.Interpreter;
+import mcga.brainfuck.tape.IntTape;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static mcga.brainfuck.processing.InterpreterFixture.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the compiled engines behave as the interpretation of the instructions, and fail the same way.
+ */
+public class VirtualMachineTest {
+
+    @Test
+    public void virtualMachine() throws Exception {
+        compareEngines(PROGRAM);
+        compareEngines(IDIOMS);
+        compareEngines(BLOCKS);
+    }
+
+    @Test
+    public void idiomInvalidValue() throws Exception {
+        assertEquals(new InvalidValueException(Memory.MAX_CELL_VALUE + 1).getMessage(), engineError("+[->+<]", Memory.MAX_CELL_VALUE));
+    }
+
+    @Test
+    public void idiomInvalidIndex() throws Exception {
+        assertEquals(new BrainfuckIndexOutOfBoundsException(-1).getMessage(), engineError("+[->+<<+>]", 0));
+    }
+
+    @Test
+    public void invalidValue() throws Exception {
+        assertEquals(new InvalidValueException(-1).getMessage(), engineError("+[-]-", 0));
+        assertEquals(new InvalidValueException(-1).getMessage(), engineError(">--", 1));
+    }
+
+    @Test
+    public void invalidIndex() throws Exception {
+        assertEquals(new BrainfuckIndexOutOfBoundsException(-1).getMessage(), engineError("+[<]", 0));
+        assertEquals(new BrainfuckIndexOutOfBoundsException(-1).getMessage(), engineError("><<", 0));
+    }
+
+    @Test
+    public void blockErrors() throws Exception {
+        assertEquals(new BrainfuckIndexOutOfBoundsException(-1).getMessage(), engineError("+>+<<+", 0));
+        assertEquals(new InvalidValueException(-1).getMessage(), engineError(">+<-<+", 0));
+        assertEquals(new InvalidValueException(Memory.MAX_CELL_VALUE + 1).getMessage(), engineError("+>+<-", Memory.MAX_CELL_VALUE));
+    }
+
+    @Test
+    public void invalidIndexInProcedure() throws Exception {
+        String message = engineError("@Far(0)=<+\nFar(>)", 0);
+        assertTrue(message.contains("in function Far"));
+    }
+
+    @Test
+    public void frameAllocation() throws Exception {
+        // the main program works on the first cells of a large memory between the calls
+        String code = "@P=+-\n++[->+<]>[-<+>]\n" + String.join("\n", Collections.nCopies(1000, "P\n+>+<"));
+        for (Engine engine : new Engine[]{Engine.AST, Engine.VM, Engine.JIT}) {
+            Interpreter interpreter = parse(code);
+            interpreter.setEngine(engine);
+            CountingTape tape = new CountingTape(300000);
+            Brainfuck.setMemory(new Memory(tape));
+            tape.scanned = 0;
+            run(interpreter);
+            assertTrue(tape.scanned < tape.size());
+            assertEquals("C0: 2 , C1: 1000 , C2: 1000", Brainfuck.getMemory().toString());
+        }
+    }
+
+    /**
+     * Cells counting the ones gone through when searching for a cell different from zero.
+     */
+    private static class CountingTape extends IntTape {
+        long scanned = 0;
+
+        CountingTape(int size) {
+            super(size);
+        }
+
+        @Override
+        public int nextNonZero(int from, int to) {
+            scanned += Math.max(0, to - from + 1);
+            return super.nextNonZero(from, to);
+        }
+
+        @Override
+        public int lastNonZero(int to) {
+            scanned += to + 1;
+            return super.lastNonZero(to);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package mcga.brainfuck.optimization;
+
+import mcga.brainfuck.Brainfuck;
+import mcga.brainfuck.engine.Engine;
+import mcga.brainfuck.exceptions.BrainfuckIndexOutOfBoundsException;
+import mcga.brainfuck.instructions.Instruction;
+import mcga.brainfuck.instructions.Jump;
+import mcga.brainfuck.processing.Interpreter;
+import org.junit.Test;
+
+import java.util.List;
+
+import static mcga.brainfuck.processing.InterpreterFixture.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BoundsAnalysisTest {
+
+    @Test
+    public void boundsAnalysis() throws Exception {
+        Interpreter interpreter = parse("+[>+<-]+[>]");
+        List<Instruction> instructions = instructions(interpreter);
+        PassManager.forLevel(1, true).run(instructions);
+        Jump balanced = (Jump) instructions.get(1);
+        assertTrue(balanced.isBounded());
+        assertEquals(0, balanced.getLowest());
+        assertEquals(1, balanced.getHighest());
+        assertFalse(((Jump) instructions.get(3)).isBounded());
+
+        // the tree engine proves the bounds by default, the compiled engines never do
+        for (Engine engine : Engine.values()) {
+            interpreter = parse("+[>+[-]<-]");
+            interpreter.setEngine(engine);
+            run(interpreter);
+            Jump loop = (Jump) instructions(interpreter).get(1);
+            assertEquals(engine == Engine.TREE || engine == Engine.TIERED, loop.isBounded());
+        }
+
+        // the loop reaches the cell -1 on its first iteration, which is not checked when it is entered
+        String message = new BrainfuckIndexOutOfBoundsException(-1).getMessage();
+        for (int level = 0; level <= PassManager.MAX_LEVEL; level++) {
+            for (Engine engine : Engine.values()) {
+                interpreter = parse(">+[<<+>>-]");
+                interpreter.setEngine(engine);
+                interpreter.setOptimizationLevel(level);
+                try {
+                    run(interpreter);
+                    fail();
+                } catch (BrainfuckIndexOutOfBoundsException e) {
+                    assertEquals(message, e.getMessage());
+                }
+                assertTrue(Brainfuck.getMemory().checksBounds());
+            }
+        }
+    }
+}
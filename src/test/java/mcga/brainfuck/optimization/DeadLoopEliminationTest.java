@@ -0,0 +1,57 @@
+package mcga.brainfuck.optimization;
+
+import mcga.brainfuck.Brainfuck;
+import mcga.brainfuck.Metrics;
+import mcga.brainfuck.engine.Engine;
+import mcga.brainfuck.processing.Interpreter;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static mcga.brainfuck.processing.InterpreterFixture.*;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class DeadLoopEliminationTest {
+    private static final String DEAD_LOOPS = "@Set(1)=[-]>[<+>-]<\n[+++]>[-][<]++[>+<-][.]Set(>)";
+
+    @Test
+    public void deadLoops() throws Exception {
+        Interpreter interpreter = parse(DEAD_LOOPS);
+        interpret(interpreter);
+        String expectedMemory = Brainfuck.getMemory().toString();
+        long expectedExecMove = Metrics.getExecMove();
+
+        long[] expectedMetrics = metrics();
+
+        long[] optimizedMetrics = null;
+        for (Engine engine : Engine.values()) {
+            interpreter = parse(DEAD_LOOPS);
+            interpreter.setEngine(engine);
+            interpreter.setPassManager(PassManager.forNames(Arrays.asList("deadloops", "folding", "idioms", "offsets")));
+            run(interpreter);
+            assertEquals(expectedMemory, Brainfuck.getMemory().toString());
+            // [+++], [-], [<] and [.] in the program, [-] in the procedure
+            assertEquals(expectedExecMove - 5, Metrics.getExecMove());
+            if (optimizedMetrics == null) {
+                optimizedMetrics = metrics();
+            }
+            assertArrayEquals(optimizedMetrics, metrics());
+
+            // -O3 removes them as well, -O2 keeps the loops and the metrics
+            interpreter = parse(DEAD_LOOPS);
+            interpreter.setEngine(engine);
+            interpreter.setOptimizationLevel(3);
+            run(interpreter);
+            assertEquals(expectedMemory, Brainfuck.getMemory().toString());
+            assertEquals(expectedExecMove - 5, Metrics.getExecMove());
+
+            interpreter = parse(DEAD_LOOPS);
+            interpreter.setEngine(engine);
+            interpreter.setOptimizationLevel(2);
+            run(interpreter);
+            assertEquals(expectedMemory, Brainfuck.getMemory().toString());
+            assertArrayEquals(expectedMetrics, metrics());
+        }
+    }
+}
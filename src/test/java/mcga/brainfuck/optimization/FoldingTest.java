@@ -0,0 +1,80 @@
+package mcga.brainfuck.optimization;
+
+import mcga.brainfuck.Brainfuck;
+import mcga.brainfuck.Memory;
+import mcga.brainfuck.Metrics;
+import mcga.brainfuck.exceptions.BrainfuckIndexOutOfBoundsException;
+import mcga.brainfuck.exceptions.InvalidValueException;
+import mcga.brainfuck.instructions.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FoldingTest {
+    private List<Instruction> instructions;
+
+    @Before
+    public void setUp() throws Exception {
+        Brainfuck.setMemory(new Memory());
+        Metrics.reset();
+        instructions = new ArrayList<>();
+    }
+
+    @Test
+    public void fold() throws Exception {
+        instructions.addAll(Arrays.asList(new Increment(), new Increment(), new Decrement(), new Increment(), new Right(), new Right(), new Left(), new Output()));
+        new Folding().apply(instructions);
+        assertEquals(3, instructions.size());
+        assertTrue(instructions.get(0) instanceof Add);
+        assertTrue(instructions.get(1) instanceof Move);
+        assertEquals(2, ((Add) instructions.get(0)).getValue());
+        assertEquals(1, ((Move) instructions.get(1)).getValue());
+        instructions.get(0).interpret();
+        instructions.get(1).interpret();
+        assertEquals(1, Brainfuck.getMemory().getCurrentIndex());
+        Brainfuck.getMemory().changeCurrentIndex(-1);
+        assertEquals(2, Brainfuck.getMemory().getCurrentCellValue());
+        assertEquals(4, Metrics.getDataWrite());
+        assertEquals(3, Metrics.getDataMove());
+    }
+
+    @Test
+    public void singleInstruction() throws Exception {
+        instructions.addAll(Arrays.asList(new Increment(), new Right()));
+        new Folding().apply(instructions);
+        assertTrue(instructions.get(0) instanceof Increment);
+        assertTrue(instructions.get(1) instanceof Right);
+    }
+
+    @Test
+    public void invalidValueInsideRun() throws Exception {
+        instructions.addAll(Arrays.asList(new Increment(), new Decrement(), new Decrement(), new Increment(), new Increment()));
+        new Folding().apply(instructions);
+        assertEquals(1, instructions.size());
+        try {
+            instructions.get(0).interpret();
+            fail();
+        } catch (InvalidValueException e) {
+            assertEquals(new InvalidValueException(-1).getMessage(), e.getMessage());
+        }
+    }
+
+    @Test
+    public void invalidIndexInsideRun() throws Exception {
+        instructions.addAll(Arrays.asList(new Right(), new Left(), new Left(), new Right()));
+        new Folding().apply(instructions);
+        try {
+            instructions.get(0).interpret();
+            fail();
+        } catch (BrainfuckIndexOutOfBoundsException e) {
+            assertEquals(new BrainfuckIndexOutOfBoundsException(-1).getMessage(), e.getMessage());
+        }
+    }
+}
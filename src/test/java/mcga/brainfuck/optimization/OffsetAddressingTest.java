@@ -0,0 +1,95 @@
+package mcga.brainfuck.optimization;
+
+import mcga.brainfuck.Brainfuck;
+import mcga.brainfuck.Memory;
+import mcga.brainfuck.Metrics;
+import mcga.brainfuck.exceptions.BrainfuckIndexOutOfBoundsException;
+import mcga.brainfuck.exceptions.InvalidValueException;
+import mcga.brainfuck.instructions.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class OffsetAddressingTest {
+    private List<Instruction> instructions;
+
+    @Before
+    public void setUp() throws Exception {
+        Brainfuck.setMemory(new Memory());
+        Metrics.reset();
+        instructions = new ArrayList<>();
+    }
+
+    @Test
+    public void block() throws Exception {
+        // >+>++<<-
+        instructions.addAll(Arrays.asList(new Right(), new Increment(), new Right(), new Increment(), new Increment(), new Left(), new Left(), new Increment()));
+        new Folding().apply(instructions);
+        new OffsetAddressing().apply(instructions);
+        assertEquals(1, instructions.size());
+        OffsetBlock block = (OffsetBlock) instructions.get(0);
+        assertEquals(0, block.getValue());
+        assertEquals(0, block.getLowest());
+        assertEquals(2, block.getHighest());
+        assertEquals(3, block.getLength());
+        block.interpret();
+        Memory memory = Brainfuck.getMemory();
+        assertEquals(0, memory.getCurrentIndex());
+        assertEquals(1, memory.getCells()[0]);
+        assertEquals(1, memory.getCells()[1]);
+        assertEquals(2, memory.getCells()[2]);
+        assertEquals(4, Metrics.getDataWrite());
+        assertEquals(4, Metrics.getDataMove());
+        assertEquals(7, Metrics.getExecMove());
+    }
+
+    @Test
+    public void noMovement() throws Exception {
+        instructions.addAll(Arrays.asList(new Increment(), new Output(), new Input(), new Right(), new Right()));
+        new OffsetAddressing().apply(instructions);
+        assertEquals(5, instructions.size());
+        assertTrue(instructions.get(0) instanceof Increment);
+    }
+
+    @Test
+    public void blockBeforeInput() throws Exception {
+        instructions.addAll(Arrays.asList(new Increment(), new Right(), new Output(), new Input(), new Left()));
+        new OffsetAddressing().apply(instructions);
+        assertEquals(3, instructions.size());
+        assertTrue(instructions.get(0) instanceof OffsetBlock);
+        assertTrue(instructions.get(1) instanceof Input);
+        assertTrue(instructions.get(2) instanceof Left);
+    }
+
+    @Test
+    public void invalidIndexInsideBlock() throws Exception {
+        instructions.addAll(Arrays.asList(new Right(), new Increment(), new Left(), new Left(), new Increment()));
+        new OffsetAddressing().apply(instructions);
+        try {
+            instructions.get(0).interpret();
+            fail();
+        } catch (BrainfuckIndexOutOfBoundsException e) {
+            assertEquals(new BrainfuckIndexOutOfBoundsException(-1).getMessage(), e.getMessage());
+        }
+    }
+
+    @Test
+    public void invalidValueInsideBlock() throws Exception {
+        instructions.addAll(Arrays.asList(new Right(), new Increment(), new Left(), new Decrement()));
+        new OffsetAddressing().apply(instructions);
+        try {
+            instructions.get(0).interpret();
+            fail();
+        } catch (InvalidValueException e) {
+            assertEquals(new InvalidValueException(-1).getMessage(), e.getMessage());
+            assertEquals(1, Brainfuck.getMemory().getCells()[1]);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package mcga.brainfuck.optimization;
+
+import mcga.brainfuck.Brainfuck;
+import mcga.brainfuck.Memory;
+import mcga.brainfuck.engine.Engine;
+import mcga.brainfuck.instructions.*;
+import mcga.brainfuck.processing.Interpreter;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static mcga.brainfuck.processing.InterpreterFixture.*;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PassManagerTest {
+    private List<Instruction> instructions;
+
+    @Before
+    public void setUp() throws Exception {
+        Brainfuck.setMemory(new Memory());
+        // +++>++<.
+        instructions = new ArrayList<>(Arrays.asList(new Increment(), new Increment(), new Increment(), new Right(), new Increment(), new Increment(), new Left(), new Output()));
+    }
+
+    @Test
+    public void levelZero() throws Exception {
+        PassManager passManager = PassManager.forLevel(0);
+        passManager.run(instructions);
+        assertTrue(passManager.isEmpty());
+        assertEquals(8, instructions.size());
+        assertTrue(passManager.getStatistics().isEmpty());
+    }
+
+    @Test
+    public void statistics() throws Exception {
+        PassManager passManager = PassManager.forLevel(2);
+        passManager.run(instructions);
+        List<PassManager.Statistic> statistics = passManager.getStatistics();
+        assertEquals(3, statistics.size());
+        assertEquals("folding", statistics.get(0).getName());
+        assertEquals(8, statistics.get(0).getBefore());
+        assertEquals(5, statistics.get(0).getAfter());
+        assertEquals("offsets", statistics.get(2).getName());
+        assertEquals(1, statistics.get(2).getAfter());
+        assertTrue(instructions.get(0) instanceof OffsetBlock);
+    }
+
+    @Test
+    public void interpretedLevels() throws Exception {
+        for (int level = 0; level <= PassManager.MAX_LEVEL; level++) {
+            PassManager passManager = PassManager.forLevel(level, true);
+            passManager.run(new ArrayList<>(instructions));
+            List<PassManager.Statistic> statistics = passManager.getStatistics();
+            assertEquals("bounds", statistics.get(statistics.size() - 1).getName());
+            assertEquals(new int[]{1, 2, 4, 5}[level], statistics.size());
+        }
+    }
+
+    @Test
+    public void names() throws Exception {
+        PassManager passManager = PassManager.forNames(Arrays.asList("offsets", "folding"));
+        passManager.run(instructions);
+        assertEquals("offsets", passManager.getStatistics().get(0).getName());
+        assertEquals(1, PassManager.count(instructions));
+    }
+
+    @Test
+    public void optimizationLevels() throws Exception {
+        for (String code : new String[]{PROGRAM, IDIOMS, BLOCKS}) {
+            Interpreter interpreter = parse(code);
+            interpret(interpreter);
+            String expectedMemory = Brainfuck.getMemory().toString();
+            long[] expectedMetrics = metrics();
+
+            for (int level = 0; level <= PassManager.MAX_LEVEL; level++) {
+                for (Engine engine : Engine.values()) {
+                    interpreter = parse(code);
+                    interpreter.setEngine(engine);
+                    interpreter.setOptimizationLevel(level);
+                    run(interpreter);
+                    assertEquals(expectedMemory, Brainfuck.getMemory().toString());
+                    assertArrayEquals(expectedMetrics, metrics());
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownPass() throws Exception {
+        PassManager.forNames(Arrays.asList("folding", "unrolling"));
+    }
+}
@@ -0,0 +1,135 @@
+package mcga.brainfuck.processing;
+
+import mcga.brainfuck.Brainfuck;
+import mcga.brainfuck.Memory;
+import mcga.brainfuck.Metrics;
+import mcga.brainfuck.engine.Engine;
+import mcga.brainfuck.exceptions.InstructionException;
+import mcga.brainfuck.instructions.Instruction;
+import mcga.brainfuck.instructions.ResultCache;
+
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Programs and helpers shared by the tests running the engines behind the Interpreter.
+ */
+public final class InterpreterFixture {
+    public static final String PROGRAM = "@Copy(0)=[->+<]\n§Dbl(0)=[->++<]>\n+++>++<\nCopy(>)\nDbl(>)\n>>[+]<<[>+++[>+<-]<-]";
+    public static final String IDIOMS = "++>+++>+>>++<<<<[>]>[-]<<<[->+>++<<]>[<]>>[>>]<[-+-]";
+    public static final String BLOCKS = "++++[>+>++<.<-]>>[<+<+>>-]<<[>.>+<<-]>-<+>>+<<.>>>++<-<";
+
+    private InterpreterFixture() {
+    }
+
+    /**
+     * Parses a program with a new interpreter and a new memory, the metrics being reset.
+     *
+     * @param code text of the program
+     * @return interpreter holding the instructions
+     */
+    public static Interpreter parse(String code) throws Exception {
+        return parse(code, ResultCache.DEFAULT_SIZE);
+    }
+
+    /**
+     * Parses a program with a new interpreter caching the results of the pure functions.
+     *
+     * @param code     text of the program
+     * @param memoSize number of results cached by each function, 0 not to cache them
+     * @return interpreter holding the instructions
+     */
+    public static Interpreter parse(String code, int memoSize) throws Exception {
+        Parser.procedureMap.clear();
+        Interpreter interpreter = new Interpreter();
+        Brainfuck.setInterpreter(interpreter);
+        Brainfuck.setMemory(new Memory());
+        Metrics.reset();
+        interpreter.setMemoSize(memoSize);
+        interpreter.readText(code);
+        return interpreter;
+    }
+
+    public static List<Instruction> instructions(Interpreter interpreter) {
+        return interpreter.getInstructions();
+    }
+
+    /**
+     * Interprets the instructions one by one, as the tree engine does without passes.
+     */
+    public static void interpret(Interpreter interpreter) throws InstructionException {
+        interpreter.interpretList(interpreter.getInstructions());
+    }
+
+    /**
+     * Runs the program with the engine, the level and the options selected on the interpreter.
+     */
+    public static void run(Interpreter interpreter) throws InstructionException {
+        interpreter.run(interpreter.getInstructions());
+    }
+
+    public static long[] metrics() {
+        return new long[]{Metrics.getExecStep(), Metrics.getExecMove(), Metrics.getDataMove(), Metrics.getDataRead(), Metrics.getDataWrite()};
+    }
+
+    /**
+     * Checks that the compiled engines leave the memory, the pointer and the metrics as the interpretation does.
+     */
+    public static void compareEngines(String code) throws Exception {
+        Interpreter interpreter = parse(code);
+        interpret(interpreter);
+        String expectedMemory = Brainfuck.getMemory().toString();
+        int expectedIndex = Brainfuck.getMemory().getCurrentIndex();
+        long[] expectedMetrics = metrics();
+
+        for (Engine engine : new Engine[]{Engine.AST, Engine.VM, Engine.JIT, Engine.TIERED}) {
+            interpreter = parse(code);
+            interpreter.setEngine(engine);
+            interpreter.setThreshold(1);
+            run(interpreter);
+            assertEquals(expectedMemory, Brainfuck.getMemory().toString());
+            assertEquals(expectedIndex, Brainfuck.getMemory().getCurrentIndex());
+            assertArrayEquals(expectedMetrics, metrics());
+        }
+    }
+
+    /**
+     * Runs a program with every engine, the second cell being initialized, and checks they fail the same way.
+     *
+     * @return message of the error
+     */
+    public static String engineError(String code, int secondCell) throws Exception {
+        String message = null;
+        for (Engine engine : Engine.values()) {
+            Interpreter interpreter = parse(code);
+            interpreter.setEngine(engine);
+            interpreter.setThreshold(1);
+            Brainfuck.getMemory().getCells()[1] = secondCell;
+            try {
+                run(interpreter);
+                fail();
+            } catch (InstructionException e) {
+                if (message != null) {
+                    assertEquals(message, e.getMessage());
+                }
+                message = e.getMessage();
+            }
+        }
+        return message;
+    }
+
+    public static String repeat(char c, int times) {
+        return repeat(String.valueOf(c), times);
+    }
+
+    public static String repeat(String unit, int times) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            sb.append(unit);
+        }
+        return sb.toString();
+    }
+}
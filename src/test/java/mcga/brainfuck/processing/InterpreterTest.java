@@ -0,0 +1,200 @@
+package mcga.brainfuck.processing;
+
+import mcga.brainfuck.Brainfuck;
+import mcga.brainfuck.Memory;
+import mcga.brainfuck.Metrics;
+import mcga.brainfuck.engine.Engine;
+import mcga.brainfuck.exceptions.BrainfuckIndexOutOfBoundsException;
+import mcga.brainfuck.instructions.Instruction;
+import mcga.brainfuck.instructions.Procedure;
+import mcga.brainfuck.instructions.ResultCache;
+import mcga.brainfuck.optimization.PassManager;
+import mcga.brainfuck.tape.IntTape;
+import org.junit.Test;
+
+import java.util.List;
+
+import static mcga.brainfuck.processing.InterpreterFixture.*;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks that the engines behind the Interpreter behave as the interpretation of the instructions.
+ */
+public class InterpreterTest {
+    // 50 times: builds 2 000 000 in the fourth cell and empties it one unit per iteration
+    private static final String LONG_LOOP = repeat('+', 50) + "[>" + repeat('+', 200) + "[>" + repeat('+', 100) + "[>" + repeat('+', 100) + "<-]<-]>>[-]<<<-]";
+    // the main program sets a cell above the frame of the first call, which the nested call of the second must skip
+    private static final String FRAME_REUSE = "@Q=>>>>>>>>>\n@P=Q#x\n+\nP\n>>>>>+<<<<<\nP\n";
+
+    @Test
+    public void memoization() throws Exception {
+        // the function doubles the cell at its right six times, with the same value
+        String code = "§Dbl(0)=[->++<]>\n>>+++<<++++++[>\nDbl(>)\n<-]";
+        Interpreter interpreter = parse(code, 0);
+        interpret(interpreter);
+        assertEquals("C1: 6 , C2: 3", Brainfuck.getMemory().toString());
+        assertEquals(0, Metrics.getMemoMiss());
+        long[] expectedMetrics = metrics();
+
+        for (int level = 0; level <= PassManager.MAX_LEVEL; level++) {
+            for (Engine engine : Engine.values()) {
+                interpreter = parse(code, ResultCache.DEFAULT_SIZE);
+                interpreter.setEngine(engine);
+                interpreter.setOptimizationLevel(level);
+                run(interpreter);
+                assertEquals("C1: 6 , C2: 3", Brainfuck.getMemory().toString());
+                assertArrayEquals(expectedMetrics, metrics());
+                assertTrue(Metrics.getMemoHit() >= 5);
+            }
+        }
+        assertEquals(1, Metrics.getMemoMiss());
+        assertEquals(5, Metrics.getMemoHit());
+    }
+
+    @Test
+    public void nestedMemoization() throws Exception {
+        // the function is called twice from the frame of a procedure, a cell being set above it in between
+        String code = "§Dbl(0)=[->++<]>\n@Outer(0;1)=>><<Dbl(>)\n>+++>++<<\nOuter(>;>)\n>>>>>>>+<<<<<<<\nOuter(>;>)";
+        Interpreter interpreter = parse(code, 0);
+        interpret(interpreter);
+        assertEquals("C1: 3 , C2: 2 , C7: 1", Brainfuck.getMemory().toString());
+        long[] expectedMetrics = metrics();
+
+        for (Engine engine : Engine.values()) {
+            interpreter = parse(code, ResultCache.DEFAULT_SIZE);
+            interpreter.setEngine(engine);
+            run(interpreter);
+            assertEquals("C1: 3 , C2: 2 , C7: 1", Brainfuck.getMemory().toString());
+            assertArrayEquals(expectedMetrics, metrics());
+            assertEquals(1, Metrics.getMemoHit());
+        }
+    }
+
+    @Test
+    public void memoizationFrameSize() throws Exception {
+        // the frame of ten cells no longer fits in the memory of 40 cells once the cell 31 is set
+        Interpreter interpreter = parse("§F(0)=>>>>>>>>><<<<<<<<<[-]+\n>+<\nF(>)");
+        Memory memory = new Memory(new IntTape(40));
+        Brainfuck.setMemory(memory);
+        interpret(interpreter);
+        List<Instruction> instructions = instructions(interpreter);
+        Procedure call = (Procedure) instructions.get(instructions.size() - 1);
+        assertTrue(call.lookup());
+        assertEquals(1, memory.getCurrentCellValue());
+
+        memory.setCurrentIndex(31);
+        memory.addCurrentCellValue(1);
+        memory.setCurrentIndex(0);
+        assertFalse(call.lookup());
+        assertEquals(0, memory.getFrameCount());
+    }
+
+    @Test
+    public void reentrantProcedure() throws Exception {
+        Interpreter interpreter = parse("@Inc(0)=+>+<\n>++<\nInc(>)");
+        List<Instruction> instructions = instructions(interpreter);
+        Procedure procedure = (Procedure) instructions.get(instructions.size() - 1);
+        Memory memory = Brainfuck.getMemory();
+        interpreter.interpretList(instructions.subList(0, instructions.size() - 1));
+
+        // the procedure is entered again while it runs, each call keeping its own frame
+        procedure.enter();
+        assertEquals(2, memory.getCurrentIndex());
+        assertEquals(2, memory.getCurrentCellValue());
+        memory.changeCurrentIndex(1);
+        memory.addCurrentCellValue(3);
+        memory.changeCurrentIndex(-1);
+        procedure.enter();
+        assertEquals(2, memory.getFrameCount());
+        assertEquals(4, memory.getLowerBound());
+        assertEquals(3, memory.getCurrentCellValue());
+        procedure.free();
+        assertEquals(2, memory.getCurrentIndex());
+        assertEquals(2, memory.getLowerBound());
+        assertEquals(3, memory.getUpperBound());
+        procedure.free();
+        assertEquals(0, memory.getFrameCount());
+        assertEquals(0, memory.getCurrentIndex());
+        assertEquals("C1: 2", memory.toString());
+    }
+
+    @Test
+    public void parameterWindow() throws Exception {
+        Interpreter interpreter = parse("@Add(0;1;2)=[->>+<<]>[->+<]\n>+>++>+++<<<\nAdd(>;>;>)");
+        List<Instruction> instructions = instructions(interpreter);
+        Procedure procedure = (Procedure) instructions.get(instructions.size() - 1);
+        Memory memory = Brainfuck.getMemory();
+        interpreter.interpretList(instructions.subList(0, instructions.size() - 1));
+
+        // the arguments are copied into the frame, the cells of the caller being left as they are
+        procedure.enter();
+        assertEquals(4, memory.getCurrentIndex());
+        memory.changeCurrentIndex(2);
+        assertEquals(3, memory.getCurrentCellValue());
+        memory.setCurrentIndex(4);
+        interpreter.interpretList(procedure.getInstructions());
+        assertEquals(6, memory.getCells()[6]);
+        procedure.free();
+        assertEquals(0, memory.getCurrentIndex());
+        assertEquals("C1: 1 , C2: 2 , C3: 3", memory.toString());
+
+        // a window crossing the end of the memory reports the first argument out of the bounds
+        memory.setCurrentIndex(memory.getSize() - 2);
+        try {
+            procedure.enter();
+            fail();
+        } catch (BrainfuckIndexOutOfBoundsException e) {
+            assertEquals(new BrainfuckIndexOutOfBoundsException(memory.getSize()).getMessage(), e.getMessage());
+        }
+    }
+
+    @Test
+    public void frameReuse() throws Exception {
+        Interpreter interpreter = parse(FRAME_REUSE);
+        interpret(interpreter);
+        assertEquals("C0: 1 , C5: 1", Brainfuck.getMemory().toString());
+        compareEngines(FRAME_REUSE);
+    }
+
+    @Test(timeout = 120000)
+    public void longLoop() throws Exception {
+        Interpreter interpreter = parse(LONG_LOOP);
+        interpret(interpreter);
+        checkLongLoop();
+    }
+
+    @Test(timeout = 120000)
+    public void longLoopCompiled() throws Exception {
+        for (Engine engine : new Engine[]{Engine.AST, Engine.VM, Engine.JIT, Engine.TIERED}) {
+            Interpreter interpreter = parse(LONG_LOOP);
+            interpreter.setEngine(engine);
+            run(interpreter);
+            checkLongLoop();
+        }
+    }
+
+    @Test
+    public void tierUp() throws Exception {
+        Interpreter interpreter = parse(LONG_LOOP);
+        interpret(interpreter);
+        long[] expectedMetrics = metrics();
+
+        interpreter = parse(LONG_LOOP);
+        interpreter.setEngine(Engine.TIERED);
+        run(interpreter);
+        checkLongLoop();
+        assertArrayEquals(expectedMetrics, metrics());
+        // every loop but the outer one, which is taken back 49 times only
+        assertEquals(3, Metrics.getTierUp());
+    }
+
+    private void checkLongLoop() {
+        assertEquals("", Brainfuck.getMemory().toString());
+        assertEquals(0, Brainfuck.getMemory().getCurrentIndex());
+        assertEquals(100000000L, Metrics.getDataWrite() - 50 - 50 * (1 + 200 + 200 * 100 * 101 + 200 * 101));
+    }
+}
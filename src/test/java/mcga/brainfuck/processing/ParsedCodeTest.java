@@ -0,0 +1,60 @@
+package mcga.brainfuck.processing;
+
+import mcga.brainfuck.Brainfuck;
+import mcga.brainfuck.Memory;
+import mcga.brainfuck.Metrics;
+import mcga.brainfuck.exceptions.InvalidCodeException;
+import org.junit.Before;
+import org.junit.Test;
+
+import static mcga.brainfuck.InstructionCreator.*;
+import static org.junit.Assert.*;
+
+public class ParsedCodeTest {
+    private Interpreter interpreter;
+
+    @Before
+    public void setUp() throws Exception {
+        Parser.procedureMap.clear();
+        interpreter = new Interpreter();
+        Brainfuck.setInterpreter(interpreter);
+        Brainfuck.setMemory(new Memory());
+        Metrics.reset();
+    }
+
+    @Test
+    public void tokens() throws Exception {
+        ParsedCode code = interpreter.parse("INCR\n+[-]>. # comment\n@Clear(1)=>[-]<\nClear(>)");
+        assertEquals(9, code.size());
+        assertEquals(INCR, code.getInstruction(0));
+        assertEquals(JUMP, code.getInstruction(2));
+        assertEquals("+", code.getToken(0));
+        assertNull(code.getDeclaration(0));
+
+        ParsedCode.Declaration declaration = code.getDeclaration(7);
+        assertEquals("Clear", declaration.getName());
+        assertArrayEquals(new String[]{"1"}, declaration.getParams());
+        assertFalse(declaration.isFunction());
+        assertEquals(5, declaration.getBody().size());
+        assertNull(code.getToken(7));
+
+        assertNull(code.getInstruction(8));
+        assertEquals("Clear(>)", code.getToken(8));
+    }
+
+    @Test
+    public void sharedParse() throws Exception {
+        ParsedCode code = interpreter.parse("++[>+<-]>");
+        Check check = new Check();
+        check.process(code);
+        assertEquals(0, check.getCount());
+        interpreter.process(code);
+        assertEquals(1, Brainfuck.getMemory().getCurrentIndex());
+        assertEquals(2, Brainfuck.getMemory().getCurrentCellValue());
+    }
+
+    @Test(expected = InvalidCodeException.class)
+    public void duplicateDeclaration() throws Exception {
+        interpreter.parse("@P(0)=+\n@P(0)=-\n");
+    }
+}
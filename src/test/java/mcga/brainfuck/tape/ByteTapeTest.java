@@ -0,0 +1,38 @@
+package mcga.brainfuck.tape;
+
+import mcga.brainfuck.Brainfuck;
+import mcga.brainfuck.Memory;
+import mcga.brainfuck.engine.Engine;
+import mcga.brainfuck.optimization.PassManager;
+import mcga.brainfuck.processing.Interpreter;
+import org.junit.Test;
+
+import static mcga.brainfuck.processing.InterpreterFixture.*;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ByteTapeTest {
+
+    @Test
+    public void byteCells() throws Exception {
+        String code = "-[>+<-]>[>++<+]>>[>]+++[>+++<-]<<<[-]";
+        Interpreter interpreter = parse(code);
+        Brainfuck.setMemory(new Memory(Tape.create(8, Memory.MAX_SIZE)));
+        interpret(interpreter);
+        assertEquals("C2: 2 , C4: 9", Brainfuck.getMemory().toString());
+        String expectedMemory = Brainfuck.getMemory().toString();
+        long[] expectedMetrics = metrics();
+
+        for (int level = 0; level <= PassManager.MAX_LEVEL; level++) {
+            for (Engine engine : Engine.values()) {
+                interpreter = parse(code);
+                Brainfuck.setMemory(new Memory(Tape.create(8, Memory.MAX_SIZE)));
+                interpreter.setEngine(engine);
+                interpreter.setOptimizationLevel(level);
+                run(interpreter);
+                assertEquals(expectedMemory, Brainfuck.getMemory().toString());
+                assertArrayEquals(expectedMetrics, metrics());
+            }
+        }
+    }
+}